@@ -68,18 +68,32 @@ public class Key
     public static final String QUERY_SQL = "querySql";
     // The primary key will be split. string type
     public static final String SPLIT_PK = "splitPk";
+    // How to split the table by splitPk, range(default) or quantile. string type
+    public static final String SPLIT_MODE = "splitMode";
     // Auto guess table's split primary key, boolean type
     public static final String AUTO_PK = "autoPk";
     // The split number for each table, if primary key is present. numeric type
     public static final String EACH_TABLE_SPLIT_SIZE = "eachTableSplitSize";
     // Whether dry run or not ? boolean type
     public static final String DRY_RUN = "dryRun";
+    // The max number of channels running at the same time, set by the engine before the job plugins are initialized. numeric type
+    public static final String CHANNEL_NUMBER = "channelNumber";
     // The max size each batch in rdbms reading, default is 2048. numeric type
     public static final String FETCH_SIZE = "fetchSize";
     // The max bytes each batch , numeric type
     public static final String BATCH_BYTE_SIZE = "batchByteSize";
     // The max number of records each batch, numeric type
     public static final String BATCH_SIZE = "batchSize";
+    // Whether exchange data as columnar record batch instead of row by row, default is false. boolean type
+    public static final String COLUMNAR = "columnar";
+    // The max size of the per-job JDBC connection pool, 0 means no pool, numeric type
+    public static final String POOL_SIZE = "poolSize";
+    // The number of threads flushing batches concurrently in rdbms writing, 0 means flush in the writer thread, numeric type
+    public static final String FLUSH_THREADS = "flushThreads";
+    // The max number of batches each flush thread can hold before the writer thread waits, numeric type
+    public static final String FLUSH_QUEUE_SIZE = "flushQueueSize";
+    // The data format used by PostgreSQL COPY write mode, can choose text or binary, string type
+    public static final String COPY_FORMAT = "copyFormat";
     // The buffer size of reading or writing file, numeric type
     public static final String BUFFER_SIZE = "bufferSize";
     // Specify date type's format, default is 'yyyy-MM-dd hh:mm:ss', string type
@@ -96,6 +110,8 @@ public class Key
     public static final String FILE_NAME = "fileName";
     // The source files. list type
     public static final String SOURCE_FILES = "sourceFiles";
+    // Whether split a large uncompressed file into byte ranges, default is false. boolean type
+    public static final String SPLIT_FILE = "splitFile";
     // The file format will be read from or write to, it used on txtfilewriter/txtfilereader plugin. string type
     public static final String FILE_FORMAT = "fileFormat";
     // The hadoop HDFS defaultFS name, it requires on hdfsreader/hdfswriter plugins. string type
@@ -120,6 +136,8 @@ public class Key
     public static final String CSV_READER_CONFIG = "csvReaderConfig";
     // Whether skip csv/tsv header or not. default is false. boolean type
     public static final String SKIP_HEADER = "skipHeader";
+    // Whether parse text files on bytes instead of CSVParser, default is false. boolean type
+    public static final String FAST_SCAN = "fastScan";
 
     // For decimal type
     // The max precision of decimal. numeric type
@@ -143,6 +161,8 @@ public class Key
     // DOES NOT configure
     public static final String COLUMN_LIST = "columnList";
     public static final String SPLIT_PK_SQL = "splitPkSql";
+    // the [start, end) byte range of the source file to read
+    public static final String FILE_RANGE = "fileRange";
     public static final String EMPTY_AS_NULL = "emptyAsNull";
     public static final String MANDATORY_ENCODING = "mandatoryEncoding";
     public static final String HEADER = "header";
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.exception.CommonErrorCode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 直接保存 double 值的 DoubleColumn，避免在读取时把浮点数格式化为字符串再解析。
+ * 该列总是非空的，空值仍然使用 {@code new DoubleColumn()} 表示。
+ * 字符串形式和 {@code new DoubleColumn(Double)} 保持一致
+ */
+public class PrimitiveDoubleColumn
+        extends DoubleColumn
+{
+    private final double value;
+
+    public PrimitiveDoubleColumn(double value)
+    {
+        super();
+        this.value = value;
+        super.setByteSize(8);
+    }
+
+    public double doubleValue()
+    {
+        return this.value;
+    }
+
+    @Override
+    public Object getRawData()
+    {
+        return asString();
+    }
+
+    @Override
+    public Double asDouble()
+    {
+        return this.value;
+    }
+
+    @Override
+    public BigDecimal asBigDecimal()
+    {
+        if (Double.isNaN(this.value) || Double.isInfinite(this.value)) {
+            throw AddaxException.asAddaxException(
+                    CommonErrorCode.CONVERT_NOT_SUPPORT,
+                    String.format("String[%s] cannot be converted to Double.", this.value));
+        }
+        return new BigDecimal(String.valueOf(this.value));
+    }
+
+    @Override
+    public Long asLong()
+    {
+        BigDecimal result = this.asBigDecimal();
+        OverFlowUtil.validateLongNotOverFlow(result.toBigInteger());
+
+        return result.longValue();
+    }
+
+    @Override
+    public BigInteger asBigInteger()
+    {
+        return this.asBigDecimal().toBigInteger();
+    }
+
+    @Override
+    public String asString()
+    {
+        if (Double.isNaN(this.value) || Double.isInfinite(this.value)) {
+            return String.valueOf(this.value);
+        }
+        return new BigDecimal(String.valueOf(this.value)).toPlainString();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * 直接保存 long 值的 LongColumn，避免在读取时把整数格式化为字符串再解析成 BigInteger。
+ * 该列总是非空的，空值仍然使用 {@code new LongColumn()} 表示。
+ * {@link #getRawData()} 为了兼容仍然返回 BigInteger，但每次调用都会创建新对象，
+ * 对性能敏感的地方应当使用 {@link #longValue()}
+ */
+public class PrimitiveLongColumn
+        extends LongColumn
+{
+    private final long value;
+
+    public PrimitiveLongColumn(long value)
+    {
+        super((BigInteger) null);
+        this.value = value;
+        super.setByteSize(8);
+    }
+
+    public long longValue()
+    {
+        return this.value;
+    }
+
+    @Override
+    public Object getRawData()
+    {
+        return BigInteger.valueOf(this.value);
+    }
+
+    @Override
+    public BigInteger asBigInteger()
+    {
+        return BigInteger.valueOf(this.value);
+    }
+
+    @Override
+    public Long asLong()
+    {
+        return this.value;
+    }
+
+    @Override
+    public Double asDouble()
+    {
+        return (double) this.value;
+    }
+
+    @Override
+    public Boolean asBoolean()
+    {
+        return this.value != 0;
+    }
+
+    @Override
+    public BigDecimal asBigDecimal()
+    {
+        return BigDecimal.valueOf(this.value);
+    }
+
+    @Override
+    public String asString()
+    {
+        return Long.toString(this.value);
+    }
+
+    @Override
+    public Date asDate()
+    {
+        return new Date(this.value);
+    }
+
+    @Override
+    public Timestamp asTimestamp()
+    {
+        return new Timestamp(this.value);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 以 unscaled long 和 scale 表示的定点小数，适用于精度不超过 18 位的 DECIMAL/NUMERIC，
+ * 避免在读取时把小数格式化为字符串，并在写入时再次解析。
+ * 该列总是非空的，空值仍然使用 {@code new DoubleColumn()} 表示
+ */
+public class ScaledDecimalColumn
+        extends DoubleColumn
+{
+    private final long unscaledValue;
+
+    private final int scale;
+
+    public ScaledDecimalColumn(long unscaledValue, int scale)
+    {
+        super();
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
+        super.setByteSize(8);
+    }
+
+    /**
+     * 如果 decimal 的 unscaled 值可以用 long 表示，返回 ScaledDecimalColumn，否则返回普通的 DoubleColumn
+     *
+     * @param decimal the decimal value, may be null
+     * @return the column
+     */
+    public static DoubleColumn of(BigDecimal decimal)
+    {
+        if (decimal == null) {
+            return new DoubleColumn();
+        }
+        BigInteger unscaled = decimal.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            return new ScaledDecimalColumn(unscaled.longValue(), decimal.scale());
+        }
+        return new DoubleColumn(decimal);
+    }
+
+    public long unscaledValue()
+    {
+        return this.unscaledValue;
+    }
+
+    public int scale()
+    {
+        return this.scale;
+    }
+
+    @Override
+    public Object getRawData()
+    {
+        return asString();
+    }
+
+    @Override
+    public BigDecimal asBigDecimal()
+    {
+        return BigDecimal.valueOf(this.unscaledValue, this.scale);
+    }
+
+    @Override
+    public Double asDouble()
+    {
+        return this.asBigDecimal().doubleValue();
+    }
+
+    @Override
+    public Long asLong()
+    {
+        if (this.scale == 0) {
+            return this.unscaledValue;
+        }
+        BigDecimal result = this.asBigDecimal();
+        OverFlowUtil.validateLongNotOverFlow(result.toBigInteger());
+
+        return result.longValue();
+    }
+
+    @Override
+    public BigInteger asBigInteger()
+    {
+        return this.asBigDecimal().toBigInteger();
+    }
+
+    @Override
+    public String asString()
+    {
+        return this.asBigDecimal().toPlainString();
+    }
+}
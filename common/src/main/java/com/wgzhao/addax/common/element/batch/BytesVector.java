@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element.batch;
+
+import com.wgzhao.addax.common.element.BytesColumn;
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.StringColumn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Column vector for string and binary values.
+ * All values of the vector are appended into one shared byte array, each row keeps the offset and length of its value.
+ * String values are encoded as UTF-8
+ */
+public class BytesVector
+        extends ValueVector
+{
+    private final boolean isString;
+
+    private final int[] offsets;
+
+    private final int[] lengths;
+
+    private byte[] data;
+
+    private int used = 0;
+
+    public BytesVector(int capacity, boolean isString)
+    {
+        super(capacity);
+        this.isString = isString;
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        // assume each value takes 16 bytes on average, it will grow if needed
+        this.data = new byte[Math.max(capacity, 1) * 16];
+    }
+
+    public boolean isString()
+    {
+        return isString;
+    }
+
+    public void set(int row, byte[] value)
+    {
+        set(row, value, 0, value.length);
+    }
+
+    public void set(int row, byte[] value, int start, int length)
+    {
+        ensureSize(length);
+        System.arraycopy(value, start, data, used, length);
+        offsets[row] = used;
+        lengths[row] = length;
+        used += length;
+        byteSize += length;
+    }
+
+    public void setString(int row, String value)
+    {
+        set(row, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getString(int row)
+    {
+        return new String(data, offsets[row], lengths[row], StandardCharsets.UTF_8);
+    }
+
+    public byte[] getBytes(int row)
+    {
+        return Arrays.copyOfRange(data, offsets[row], offsets[row] + lengths[row]);
+    }
+
+    /**
+     * The shared buffer of all the values, use with {@link #getOffset(int)} and {@link #getLength(int)} to avoid copying
+     *
+     * @return the byte array
+     */
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    public int getOffset(int row)
+    {
+        return offsets[row];
+    }
+
+    public int getLength(int row)
+    {
+        return lengths[row];
+    }
+
+    @Override
+    public long getMemorySize()
+    {
+        return super.getMemorySize() + 8L * capacity + data.length;
+    }
+
+    @Override
+    public Column getColumn(int row)
+    {
+        if (isString) {
+            return isNull(row) ? new StringColumn() : new StringColumn(getString(row));
+        }
+        return isNull(row) ? new BytesColumn() : new BytesColumn(getBytes(row));
+    }
+
+    @Override
+    public void reset()
+    {
+        super.reset();
+        used = 0;
+    }
+
+    private void ensureSize(int length)
+    {
+        if (used + length <= data.length) {
+            return;
+        }
+        int newSize = Math.max(data.length * 2, used + length);
+        data = Arrays.copyOf(data, newSize);
+    }
+}
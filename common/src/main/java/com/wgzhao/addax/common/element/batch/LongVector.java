@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element.batch;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.PrimitiveLongColumn;
+
+/**
+ * Column vector for integral values, the values are stored as primitive long
+ */
+public class LongVector
+        extends ValueVector
+{
+    private final long[] values;
+
+    public LongVector(int capacity)
+    {
+        super(capacity);
+        this.values = new long[capacity];
+    }
+
+    public long get(int row)
+    {
+        return values[row];
+    }
+
+    public void set(int row, long value)
+    {
+        values[row] = value;
+        byteSize += 8;
+    }
+
+    public long[] getValues()
+    {
+        return values;
+    }
+
+    @Override
+    public long getMemorySize()
+    {
+        return super.getMemorySize() + 8L * capacity;
+    }
+
+    @Override
+    public Column getColumn(int row)
+    {
+        return isNull(row) ? new LongColumn() : new PrimitiveLongColumn(values[row]);
+    }
+}
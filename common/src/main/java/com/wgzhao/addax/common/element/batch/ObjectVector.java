@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element.batch;
+
+import com.wgzhao.addax.common.element.Column;
+
+import java.util.Arrays;
+
+/**
+ * Column vector which holds {@link Column} objects directly.
+ * It is used for the types which have no primitive representation (date, timestamp, boolean etc.)
+ * and when the rows come from a plugin which does not support {@link RecordBatch}
+ */
+public class ObjectVector
+        extends ValueVector
+{
+    private final Column[] values;
+
+    public ObjectVector(int capacity)
+    {
+        super(capacity);
+        this.values = new Column[capacity];
+    }
+
+    public void set(int row, Column column)
+    {
+        if (column == null || column.getRawData() == null) {
+            setNull(row);
+        }
+        values[row] = column;
+        if (column != null) {
+            byteSize += column.getByteSize();
+        }
+    }
+
+    @Override
+    public long getMemorySize()
+    {
+        // the column object head and its reference
+        return super.getMemorySize() + 8L * capacity + byteSize + 24L * capacity;
+    }
+
+    @Override
+    public Column getColumn(int row)
+    {
+        return values[row];
+    }
+
+    @Override
+    public void reset()
+    {
+        super.reset();
+        Arrays.fill(values, null);
+    }
+}
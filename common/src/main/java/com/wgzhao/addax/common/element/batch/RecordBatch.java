@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element.batch;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.Record;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of rows stored column by column.
+ * <p>
+ * The reader which supports columnar exchange fills the vectors and sends the whole batch by
+ * {@link com.wgzhao.addax.common.plugin.RecordSender#sendToWriter(RecordBatch)}, the writer which supports it
+ * gets the batch by {@link com.wgzhao.addax.common.plugin.RecordReceiver#getBatchFromReader()}.
+ * The plugins which only deal with {@link Record} still get row views of the batch.
+ * <p>
+ * Once a batch is sent, it belongs to the framework, the reader MUST NOT modify it anymore.
+ */
+public class RecordBatch
+{
+    private final ValueVector[] vectors;
+
+    private final int capacity;
+
+    private int size = 0;
+
+    public RecordBatch(ValueVector[] vectors, int capacity)
+    {
+        this.vectors = vectors;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Wrap rows as a batch, each column is kept as {@link ObjectVector}
+     *
+     * @param records the rows
+     * @return record batch
+     */
+    public static RecordBatch fromRecords(List<Record> records)
+    {
+        int columnNumber = 0;
+        for (Record record : records) {
+            columnNumber = Math.max(columnNumber, record.getColumnNumber());
+        }
+        ValueVector[] vectors = new ValueVector[columnNumber];
+        for (int i = 0; i < columnNumber; i++) {
+            vectors[i] = new ObjectVector(records.size());
+        }
+        RecordBatch batch = new RecordBatch(vectors, records.size());
+        for (Record record : records) {
+            int row = batch.addRow();
+            for (int i = 0; i < columnNumber; i++) {
+                ((ObjectVector) vectors[i]).set(row, record.getColumn(i));
+            }
+        }
+        return batch;
+    }
+
+    public int getColumnNumber()
+    {
+        return vectors.length;
+    }
+
+    public ValueVector getVector(int i)
+    {
+        return vectors[i];
+    }
+
+    /**
+     * Claim a new row at the end of the batch
+     *
+     * @return the index of the new row
+     */
+    public int addRow()
+    {
+        return size++;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public boolean isFull()
+    {
+        return size >= capacity;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int getByteSize()
+    {
+        long bytes = 0;
+        for (ValueVector vector : vectors) {
+            bytes += vector.getByteSize();
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    public int getMemorySize()
+    {
+        long bytes = 0;
+        for (ValueVector vector : vectors) {
+            bytes += vector.getMemorySize();
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Append the columns of the given row into the record
+     *
+     * @param row the row index
+     * @param record an empty record
+     * @return the record
+     */
+    public Record fillRecord(int row, Record record)
+    {
+        for (ValueVector vector : vectors) {
+            Column column = vector.getColumn(row);
+            record.addColumn(column);
+        }
+        return record;
+    }
+
+    /**
+     * Get a read-only view of the given row, for example to report a dirty row of the batch
+     *
+     * @param row the row index
+     * @return the row view, it reads the vectors directly and becomes invalid once the batch is reset
+     */
+    public Record getRow(int row)
+    {
+        return new RowView(row);
+    }
+
+    public void reset()
+    {
+        for (ValueVector vector : vectors) {
+            vector.reset();
+        }
+        size = 0;
+    }
+
+    private class RowView
+            implements Record
+    {
+        private final int row;
+
+        private Map<String, String> meta;
+
+        private RowView(int row)
+        {
+            this.row = row;
+        }
+
+        @Override
+        public void addColumn(Column column)
+        {
+            throw new UnsupportedOperationException("The row view of a record batch is read-only");
+        }
+
+        @Override
+        public void setColumn(int i, Column column)
+        {
+            throw new UnsupportedOperationException("The row view of a record batch is read-only");
+        }
+
+        @Override
+        public Column getColumn(int i)
+        {
+            return i < 0 || i >= vectors.length ? null : vectors[i].getColumn(row);
+        }
+
+        @Override
+        public int getColumnNumber()
+        {
+            return vectors.length;
+        }
+
+        @Override
+        public int getByteSize()
+        {
+            int bytes = 0;
+            for (ValueVector vector : vectors) {
+                Column column = vector.getColumn(row);
+                bytes += column == null ? 0 : column.getByteSize();
+            }
+            return bytes;
+        }
+
+        @Override
+        public int getMemorySize()
+        {
+            return getByteSize();
+        }
+
+        @Override
+        public void setMeta(Map<String, String> meta)
+        {
+            this.meta = meta;
+        }
+
+        @Override
+        public Map<String, String> getMeta()
+        {
+            return meta;
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < vectors.length; i++) {
+                Column column = getColumn(i);
+                sb.append(i == 0 ? "" : ", ").append(column == null ? null : column.getRawData());
+            }
+            return sb.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element.batch;
+
+import com.wgzhao.addax.common.element.Column;
+
+import java.util.Arrays;
+
+/**
+ * The base class of a column vector in {@link RecordBatch}.
+ * Null values are kept in a bitmap, one bit per row
+ */
+public abstract class ValueVector
+{
+    protected final int capacity;
+
+    private final long[] nulls;
+
+    private boolean noNulls = true;
+
+    protected long byteSize = 0;
+
+    protected ValueVector(int capacity)
+    {
+        this.capacity = capacity;
+        this.nulls = new long[(capacity + 63) >>> 6];
+    }
+
+    public boolean isNull(int row)
+    {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public void setNull(int row)
+    {
+        nulls[row >>> 6] |= 1L << row;
+        noNulls = false;
+    }
+
+    public boolean noNulls()
+    {
+        return noNulls;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * The total bytes of the values hold by this vector, it has the same meaning with {@link Column#getByteSize()}
+     *
+     * @return byte size
+     */
+    public long getByteSize()
+    {
+        return byteSize;
+    }
+
+    /**
+     * The estimated heap size occupied by this vector
+     *
+     * @return memory size
+     */
+    public long getMemorySize()
+    {
+        return 8L * nulls.length;
+    }
+
+    /**
+     * Build a row view of the value, it is used by the plugins which can only deal with {@link Column}
+     *
+     * @param row the row index
+     * @return column
+     */
+    public abstract Column getColumn(int row);
+
+    public void reset()
+    {
+        if (!noNulls) {
+            Arrays.fill(nulls, 0L);
+            noNulls = true;
+        }
+        byteSize = 0;
+    }
+}
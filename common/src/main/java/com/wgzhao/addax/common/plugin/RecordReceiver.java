@@ -36,11 +36,51 @@
 package com.wgzhao.addax.common.plugin;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.batch.RecordBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public interface RecordReceiver
 {
 
     Record getFromReader();
 
+    /**
+     * Get a columnar batch from reader.
+     * The default implementation collects at most 1024 rows into a batch,
+     * the receiver which can transfer the batch directly should override it
+     *
+     * @return the record batch, or null if there is no more data
+     */
+    default RecordBatch getBatchFromReader()
+    {
+        List<Record> records = new ArrayList<>();
+        Record record;
+        while (records.size() < 1024 && (record = getFromReader()) != null) {
+            records.add(record);
+        }
+        return records.isEmpty() ? null : RecordBatch.fromRecords(records);
+    }
+
+    /**
+     * Tell the framework that the writer has finished with the record and will not touch it again,
+     * so it can be recycled when record recycling is enabled.
+     * The default implementation does nothing
+     *
+     * @param record the record got from {@link #getFromReader()}
+     */
+    default void release(Record record)
+    {
+    }
+
+    default void releaseAll(Collection<Record> records)
+    {
+        for (Record record : records) {
+            release(record);
+        }
+    }
+
     void shutdown();
 }
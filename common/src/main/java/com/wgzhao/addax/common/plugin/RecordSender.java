@@ -20,6 +20,7 @@
 package com.wgzhao.addax.common.plugin;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.batch.RecordBatch;
 
 public interface RecordSender
 {
@@ -28,6 +29,20 @@ public interface RecordSender
 
     void sendToWriter(Record record);
 
+    /**
+     * Send a whole columnar batch to writer.
+     * The default implementation sends the rows one by one, the sender which can transfer the batch
+     * directly should override it
+     *
+     * @param batch the record batch
+     */
+    default void sendToWriter(RecordBatch batch)
+    {
+        for (int row = 0; row < batch.size(); row++) {
+            sendToWriter(batch.fillRecord(row, createRecord()));
+        }
+    }
+
     void flush();
 
     void terminate();
@@ -20,6 +20,7 @@
 package com.wgzhao.addax.core.job;
 
 import com.alibaba.fastjson2.JSON;
+import com.wgzhao.addax.common.base.Key;
 import com.wgzhao.addax.common.constant.PluginType;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.AbstractJobPlugin;
@@ -40,6 +41,8 @@ import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
 import com.wgzhao.addax.core.statistics.container.communicator.AbstractContainerCommunicator;
 import com.wgzhao.addax.core.statistics.container.communicator.job.StandAloneJobContainerCommunicator;
 import com.wgzhao.addax.core.statistics.plugin.DefaultJobPluginCollector;
+import com.wgzhao.addax.core.taskgroup.ConcurrencyController;
+import com.wgzhao.addax.core.transport.channel.FlowControl;
 import com.wgzhao.addax.core.util.ErrorRecordChecker;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import com.wgzhao.addax.core.util.container.ClassLoaderSwapper;
@@ -183,7 +186,6 @@ public class JobContainer
 
     private void preCheck() {
         this.preCheckInit();
-        this.adjustChannelNumber();
 
         if (this.needChannelNumber <= 0) {
             this.needChannelNumber = 1;
@@ -261,6 +263,11 @@ public class JobContainer
         Thread.currentThread().setName("job-0");
 
         JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this.getContainerCommunicator());
+        // 插件可以据此得到同时运行的任务数，例如 rdbms 插件检查连接池是否足够
+        this.adjustChannelNumber();
+        int channelNumber = Math.max(1, getMaxChannelNumber());
+        this.configuration.set(CoreConstant.JOB_CONTENT_READER_PARAMETER + "." + Key.CHANNEL_NUMBER, channelNumber);
+        this.configuration.set(CoreConstant.JOB_CONTENT_WRITER_PARAMETER + "." + Key.CHANNEL_NUMBER, channelNumber);
         //必须先Reader ，后Writer
         this.jobReader = this.initJobReader(jobPluginCollector);
         this.jobWriter = this.initJobWriter(jobPluginCollector);
@@ -336,13 +343,18 @@ public class JobContainer
      * 然后，为避免顺序给读写端带来长尾影响，将整合的结果shuffler掉
      */
     private int split() {
-        this.adjustChannelNumber();
-
         if (this.needChannelNumber <= 0) {
             this.needChannelNumber = 1;
         }
 
-        List<Configuration> readerTaskConfigs = this.doReaderSplit(this.needChannelNumber);
+        int adviceNumber = getMaxChannelNumber();
+        if (this.configuration.getBool(CoreConstant.JOB_SETTING_DYNAMIC_SPLIT, false)) {
+            // 动态切分模式下切分出更多、更小的任务，由空闲的通道按需获取，减少数据倾斜带来的长尾
+            int splitFactor = Math.max(1, this.configuration.getInt(CoreConstant.JOB_SETTING_SPLIT_FACTOR, 4));
+            LOG.info("Dynamic split is enabled, split the job into about {} tasks for {} channel(s).", adviceNumber * splitFactor, adviceNumber);
+            adviceNumber = adviceNumber * splitFactor;
+        }
+        List<Configuration> readerTaskConfigs = this.doReaderSplit(adviceNumber);
         int taskNumber = readerTaskConfigs.size();
         List<Configuration> writerTaskConfigs = this.doWriterSplit(taskNumber);
 
@@ -365,34 +377,34 @@ public class JobContainer
         int needChannelNumberByByte = Integer.MAX_VALUE;
         int needChannelNumberByRecord = Integer.MAX_VALUE;
 
-        boolean isByteLimit = (this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_BYTE, 0) > 0);
+        /*
+         * 全局的 byte 和 record 限速由所有 channel 共用的令牌桶保证，
+         * 如果同时设置了单个 channel 的限速，则依然用两者的比值确定 channel 数目，否则使用 speed.channel
+         */
+        FlowControl flowControl = FlowControl.getInstance();
+        boolean isByteLimit = (this.configuration.getLong(CoreConstant.JOB_SETTING_SPEED_BYTE, 0L) > 0);
         if (isByteLimit) {
-            long globalLimitedByteSpeed = this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_BYTE, 10 * 1024 * 1024);
-
-            // 在byte流控情况下，单个Channel流量最大值必须设置，否则报错！
-            Long channelLimitedByteSpeed = this.configuration.getLong(CoreConstant.CORE_TRANSPORT_CHANNEL_SPEED_BYTE, -1);
-            if (channelLimitedByteSpeed == null || channelLimitedByteSpeed <= 0) {
-                throw AddaxException.asAddaxException(
-                        FrameworkErrorCode.CONFIG_ERROR,
-                        "Under the condition of total bps limit, the bps value of a single channel cannot be empty or non-positive");
-            }
+            long globalLimitedByteSpeed = this.configuration.getLong(CoreConstant.JOB_SETTING_SPEED_BYTE);
+            flowControl.setByteSpeed(globalLimitedByteSpeed);
 
-            needChannelNumberByByte = (int) (globalLimitedByteSpeed / channelLimitedByteSpeed);
-            needChannelNumberByByte = needChannelNumberByByte > 0 ? needChannelNumberByByte : 1;
+            long channelLimitedByteSpeed = this.configuration.getLong(CoreConstant.CORE_TRANSPORT_CHANNEL_SPEED_BYTE, -1L);
+            if (channelLimitedByteSpeed > 0) {
+                needChannelNumberByByte = (int) (globalLimitedByteSpeed / channelLimitedByteSpeed);
+                needChannelNumberByByte = needChannelNumberByByte > 0 ? needChannelNumberByByte : 1;
+            }
             LOG.info("Job set Max-Byte-Speed to {} bytes.", globalLimitedByteSpeed);
         }
 
-        boolean isRecordLimit = (this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_RECORD, 0)) > 0;
+        boolean isRecordLimit = (this.configuration.getLong(CoreConstant.JOB_SETTING_SPEED_RECORD, 0L) > 0);
         if (isRecordLimit) {
-            long globalLimitedRecordSpeed = this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_RECORD, 100000);
-            Long channelLimitedRecordSpeed = this.configuration.getLong(CoreConstant.CORE_TRANSPORT_CHANNEL_SPEED_RECORD, -1);
-            if (channelLimitedRecordSpeed == null || channelLimitedRecordSpeed <= 0) {
-                throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR,
-                        "Under the condition of total tps limit, the tps value of a single channel cannot be empty or non-positive");
-            }
+            long globalLimitedRecordSpeed = this.configuration.getLong(CoreConstant.JOB_SETTING_SPEED_RECORD);
+            flowControl.setRecordSpeed(globalLimitedRecordSpeed);
 
-            needChannelNumberByRecord = (int) (globalLimitedRecordSpeed / channelLimitedRecordSpeed);
-            needChannelNumberByRecord = needChannelNumberByRecord > 0 ? needChannelNumberByRecord : 1;
+            long channelLimitedRecordSpeed = this.configuration.getLong(CoreConstant.CORE_TRANSPORT_CHANNEL_SPEED_RECORD, -1L);
+            if (channelLimitedRecordSpeed > 0) {
+                needChannelNumberByRecord = (int) (globalLimitedRecordSpeed / channelLimitedRecordSpeed);
+                needChannelNumberByRecord = needChannelNumberByRecord > 0 ? needChannelNumberByRecord : 1;
+            }
             LOG.info("Job set Max-Record-Speed to {} records.", globalLimitedRecordSpeed);
         }
 
@@ -411,6 +423,17 @@ public class JobContainer
         LOG.info("Job set Channel-Number to {} channel(s).", this.needChannelNumber);
     }
 
+    /*
+     * 开启自适应并发时，按照 maxChannel 切分任务和分配 taskGroup，实际同时运行的任务数由 ConcurrencyController 控制
+     */
+    private int getMaxChannelNumber() {
+        if (!this.configuration.getBool(CoreConstant.JOB_SETTING_ADAPTIVE_ENABLED, false)) {
+            return this.needChannelNumber;
+        }
+        return Math.max(this.needChannelNumber,
+                this.configuration.getInt(CoreConstant.JOB_SETTING_ADAPTIVE_MAX_CHANNEL, this.needChannelNumber * 2));
+    }
+
     /*
      * schedule首先完成的工作是把上一步reader和writer split的结果整合到具体taskGroupContainer中,
      * 同时不同的执行模式调用不同的调度策略，将所有任务调度起来
@@ -422,14 +445,22 @@ public class JobContainer
         int channelsPerTaskGroup = this.configuration.getInt(CoreConstant.CORE_CONTAINER_TASK_GROUP_CHANNEL, 5);
         int taskNumber = this.configuration.getList(CoreConstant.JOB_CONTENT).size();
 
+        int channelNumber = Math.min(getMaxChannelNumber(), taskNumber);
         this.needChannelNumber = Math.min(this.needChannelNumber, taskNumber);
-        PerfTrace.getInstance().setChannelNumber(needChannelNumber);
+        PerfTrace.getInstance().setChannelNumber(channelNumber);
+
+        if (this.configuration.getBool(CoreConstant.JOB_SETTING_ADAPTIVE_ENABLED, false)) {
+            ConcurrencyController.getInstance().configure(
+                    this.configuration.getInt(CoreConstant.JOB_SETTING_ADAPTIVE_MIN_CHANNEL, 1),
+                    this.needChannelNumber, channelNumber,
+                    this.configuration.getLong(CoreConstant.JOB_SETTING_ADAPTIVE_INTERVAL, 5000L));
+        }
 
         /*
          * 通过获取配置信息得到每个taskGroup需要运行哪些tasks任务
          */
 
-        List<Configuration> taskGroupConfigs = JobAssignUtil.assignFairly(this.configuration, this.needChannelNumber, channelsPerTaskGroup);
+        List<Configuration> taskGroupConfigs = JobAssignUtil.assignFairly(this.configuration, channelNumber, channelsPerTaskGroup);
 
         LOG.info("The Scheduler launches [{}] taskGroup(s).", taskGroupConfigs.size());
 
@@ -561,10 +592,16 @@ public class JobContainer
         final Long counterFail = communication.getLongCounter(CommunicationTool.TRANSFORMER_FAILED_RECORDS);
         final Long counterFilter = communication.getLongCounter(CommunicationTool.TRANSFORMER_FILTER_RECORDS);
         if (counterSucc + counterFail +  counterFilter > 0) {
-            LOG.info(String.format("%n" + "%-26s: %19s%n" + "%-26s: %19s%n" + "%-26s: %19s%n",
+            final long compileTime = communication.getLongCounter(CommunicationTool.TRANSFORMER_COMPILE_TIME);
+            final long usedTime = communication.getLongCounter(CommunicationTool.TRANSFORMER_USED_TIME);
+            LOG.info(String.format("%n" + "%-26s: %19s%n" + "%-26s: %19s%n" + "%-26s: %19s%n"
+                            + "%-26s: %19s%n" + "%-26s: %19s%n" + "%-26s: %19s%n",
                     "Transformer success records", counterSucc,
                     "Transformer failed  records", counterFail,
-                    "Transformer filter  records", counterFilter
+                    "Transformer filter  records", counterFilter,
+                    "Transformer compile time", PerfTrace.unitTime(compileTime),
+                    "Transformer used    time", PerfTrace.unitTime(usedTime),
+                    "Transformer time per rec", usedTime / Math.max(counterSucc + counterFail, 1) + "ns"
             ));
         }
     }
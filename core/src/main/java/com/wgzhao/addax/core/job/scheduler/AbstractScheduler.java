@@ -107,7 +107,7 @@ public abstract class AbstractScheduler
                     dealFailedStat(this.containerCommunicator, nowJobContainerCommunication.getThrowable());
                 }
 
-                Thread.sleep(jobSleepIntervalInMillSec);
+                awaitTaskGroups(jobSleepIntervalInMillSec);
             }
         }
         catch (InterruptedException e) {
@@ -121,6 +121,18 @@ public abstract class AbstractScheduler
 
     protected abstract void startAllTaskGroup(List<Configuration> configurations);
 
+    /**
+     * 等待下一次检查作业状态，有 taskGroup 结束时应当尽快返回
+     *
+     * @param timeoutInMillSec the maximum time to wait
+     * @throws InterruptedException if interrupted while waiting
+     */
+    protected void awaitTaskGroups(long timeoutInMillSec)
+            throws InterruptedException
+    {
+        Thread.sleep(timeoutInMillSec);
+    }
+
     protected abstract void dealFailedStat(AbstractContainerCommunicator frameworkCollector, Throwable throwable);
 
     protected abstract void dealKillingStat(AbstractContainerCommunicator frameworkCollector, int totalTasks);
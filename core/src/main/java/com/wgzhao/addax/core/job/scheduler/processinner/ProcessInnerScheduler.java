@@ -24,12 +24,16 @@ import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.job.scheduler.AbstractScheduler;
 import com.wgzhao.addax.core.statistics.container.communicator.AbstractContainerCommunicator;
 import com.wgzhao.addax.core.taskgroup.TaskGroupContainer;
+import com.wgzhao.addax.core.taskgroup.TaskWorkQueue;
 import com.wgzhao.addax.core.taskgroup.runner.TaskGroupContainerRunner;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.VirtualThreads;
+import com.wgzhao.addax.core.util.container.CoreConstant;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 public abstract class ProcessInnerScheduler
         extends AbstractScheduler
@@ -37,6 +41,9 @@ public abstract class ProcessInnerScheduler
 
     private ExecutorService taskGroupContainerExecutorService;
 
+    // 每个 taskGroup 结束时释放一个许可，用来唤醒调度线程
+    private final Semaphore taskGroupFinished = new Semaphore(0);
+
     public ProcessInnerScheduler(AbstractContainerCommunicator containerCommunicator)
     {
         super(containerCommunicator);
@@ -45,17 +52,43 @@ public abstract class ProcessInnerScheduler
     @Override
     public void startAllTaskGroup(List<Configuration> configurations)
     {
-        this.taskGroupContainerExecutorService = Executors
-                .newFixedThreadPool(configurations.size());
+        if (configurations.get(0).getBool(CoreConstant.JOB_SETTING_DYNAMIC_SPLIT, false)) {
+            TaskWorkQueue.getInstance().register(configurations);
+        }
+
+        Configuration first = configurations.get(0);
+        boolean virtual = VirtualThreads.enable(first.getBool(CoreConstant.CORE_CONTAINER_THREAD_VIRTUAL, false),
+                first.getBool(CoreConstant.CORE_CONTAINER_THREAD_TRACE_PINNED, true));
+        // 实际是否使用虚拟线程由这里决定，taskGroup 内部的 reader 和 writer 线程与之保持一致
+        for (Configuration configuration : configurations) {
+            configuration.set(CoreConstant.CORE_CONTAINER_THREAD_VIRTUAL, virtual);
+        }
+        this.taskGroupContainerExecutorService = VirtualThreads.newFixedThreadPool(virtual, configurations.size());
 
         for (Configuration taskGroupConfiguration : configurations) {
             TaskGroupContainerRunner taskGroupContainerRunner = newTaskGroupContainerRunner(taskGroupConfiguration);
-            this.taskGroupContainerExecutorService.execute(taskGroupContainerRunner);
+            this.taskGroupContainerExecutorService.execute(() -> {
+                try {
+                    taskGroupContainerRunner.run();
+                }
+                finally {
+                    this.taskGroupFinished.release();
+                }
+            });
         }
 
         this.taskGroupContainerExecutorService.shutdown();
     }
 
+    @Override
+    protected void awaitTaskGroups(long timeoutInMillSec)
+            throws InterruptedException
+    {
+        if (this.taskGroupFinished.tryAcquire(timeoutInMillSec, TimeUnit.MILLISECONDS)) {
+            this.taskGroupFinished.drainPermits();
+        }
+    }
+
     @Override
     public void dealFailedStat(AbstractContainerCommunicator frameworkCollector, Throwable throwable)
     {
@@ -25,10 +25,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class Communication
         extends BaseObject
@@ -36,6 +38,9 @@ public class Communication
 
     // Message about the task is given to the job
     Map<String, List<String>> message;
+    // 热点计数器，按照 CommunicationCounter 的 ordinal 存放
+    private final AtomicLongArray fixedCounter = new AtomicLongArray(CommunicationCounter.values().length);
+    // 其他动态 key 的计数器
     private Map<String, Number> counter;
     // Running status
     private State state;
@@ -49,30 +54,21 @@ public class Communication
 
     public Communication(Communication communication)
     {
-        for (Map.Entry<String, Number> entry : this.counter.entrySet()) {
-            String key = entry.getKey();
-            Number value = entry.getValue();
-            if (value instanceof Long) {
-                communication.setLongCounter(key, (Long) value);
-            }
-            else if (value instanceof Double) {
-                communication.setDoubleCounter(key, (Double) value);
-            }
+        this.init();
+        for (int i = 0; i < this.fixedCounter.length(); i++) {
+            this.fixedCounter.set(i, communication.fixedCounter.get(i));
         }
+        this.counter.putAll(communication.counter);
 
-        communication.setState(this.state, true);
-        communication.setThrowable(this.throwable, true);
-        communication.setTimestamp(this.timestamp);
+        this.setState(communication.state, true);
+        this.setThrowable(communication.throwable, true);
+        this.setTimestamp(communication.timestamp);
 
         /*
          * clone message
          */
-        if (this.message != null) {
-            for (Map.Entry<String, List<String>> entry : this.message.entrySet()) {
-                String key = entry.getKey();
-                List<String> value = new ArrayList<>(entry.getValue());
-                communication.getMessage().put(key, value);
-            }
+        for (Map.Entry<String, List<String>> entry : communication.message.entrySet()) {
+            this.message.put(entry.getKey(), new ArrayList<>(entry.getValue()));
         }
     }
 
@@ -83,6 +79,9 @@ public class Communication
 
     private void init()
     {
+        for (int i = 0; i < this.fixedCounter.length(); i++) {
+            this.fixedCounter.set(i, 0);
+        }
         this.counter = new ConcurrentHashMap<>();
         this.state = State.RUNNING;
         this.throwable = null;
@@ -90,9 +89,16 @@ public class Communication
         this.timestamp = System.currentTimeMillis();
     }
 
+    /**
+     * @return a snapshot of all counters, including the fixed ones
+     */
     public Map<String, Number> getCounter()
     {
-        return this.counter;
+        Map<String, Number> snapshot = new HashMap<>(this.counter);
+        for (CommunicationCounter fixed : CommunicationCounter.values()) {
+            snapshot.put(fixed.getKey(), this.fixedCounter.get(fixed.ordinal()));
+        }
+        return snapshot;
     }
 
     public synchronized State getState()
@@ -167,38 +173,77 @@ public class Communication
         valueList.add(value);
     }
 
-    public synchronized Long getLongCounter(String key)
+    public long getLongCounter(CommunicationCounter key)
+    {
+        return this.fixedCounter.get(key.ordinal());
+    }
+
+    public void setLongCounter(CommunicationCounter key, long value)
+    {
+        this.fixedCounter.set(key.ordinal(), value);
+    }
+
+    public void increaseCounter(CommunicationCounter key, long deltaValue)
     {
+        this.fixedCounter.addAndGet(key.ordinal(), deltaValue);
+    }
+
+    public Long getLongCounter(String key)
+    {
+        CommunicationCounter fixed = CommunicationCounter.of(key);
+        if (fixed != null) {
+            return getLongCounter(fixed);
+        }
         Number value = this.counter.get(key);
         return value == null ? 0 : value.longValue();
     }
 
-    public synchronized void setLongCounter(String key, long value)
+    public void setLongCounter(String key, long value)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "The key of setting counter can not be empty.");
+        CommunicationCounter fixed = CommunicationCounter.of(key);
+        if (fixed != null) {
+            setLongCounter(fixed, value);
+            return;
+        }
         this.counter.put(key, value);
     }
 
-    public synchronized Double getDoubleCounter(String key)
+    public Double getDoubleCounter(String key)
     {
+        CommunicationCounter fixed = CommunicationCounter.of(key);
+        if (fixed != null) {
+            return (double) getLongCounter(fixed);
+        }
         Number value = this.counter.get(key);
 
         return value == null ? 0.0d : value.doubleValue();
     }
 
-    public synchronized void setDoubleCounter(String key, double value)
+    public void setDoubleCounter(String key, double value)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "The key of setting counter can not be empty.");
+        CommunicationCounter fixed = CommunicationCounter.of(key);
+        if (fixed != null) {
+            setLongCounter(fixed, (long) value);
+            return;
+        }
         this.counter.put(key, value);
     }
 
-    public synchronized void increaseCounter(String key, long deltaValue)
+    public void increaseCounter(String key, long deltaValue)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "The key of the added counter can not be empty.");
+        CommunicationCounter fixed = CommunicationCounter.of(key);
+        if (fixed != null) {
+            increaseCounter(fixed, deltaValue);
+            return;
+        }
 
-        long value = this.getLongCounter(key);
-
-        this.counter.put(key, value + deltaValue);
+        synchronized (this) {
+            long value = this.getLongCounter(key);
+            this.counter.put(key, value + deltaValue);
+        }
     }
 
     public synchronized Communication mergeFrom(Communication otherComm)
@@ -211,7 +256,10 @@ public class Communication
          * counter的合并，将otherComm的值累加到this中，不存在的则创建
          * 同为long
          */
-        for (Entry<String, Number> entry : otherComm.getCounter().entrySet()) {
+        for (int i = 0; i < this.fixedCounter.length(); i++) {
+            this.fixedCounter.addAndGet(i, otherComm.fixedCounter.get(i));
+        }
+        for (Entry<String, Number> entry : otherComm.counter.entrySet()) {
             String key = entry.getKey();
             Number otherValue = entry.getValue();
             if (otherValue == null) {
@@ -227,7 +275,7 @@ public class Communication
                     value = value.longValue() + otherValue.longValue();
                 }
                 else {
-                    value = value.doubleValue() + value.doubleValue();
+                    value = value.doubleValue() + otherValue.doubleValue();
                 }
             }
 
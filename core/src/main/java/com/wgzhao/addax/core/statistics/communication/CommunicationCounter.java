@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.statistics.communication;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 运行过程中频繁更新的计数器。
+ * 在 {@link Communication} 中按照 ordinal 存放在定长数组里，更新时不需要查找字符串 key，也不需要装箱。
+ * key 和 {@link CommunicationTool} 中对应的常量一致，通过字符串 key 访问时同样会落到对应的槽位上
+ */
+public enum CommunicationCounter
+{
+    READ_SUCCEED_RECORDS(CommunicationTool.READ_SUCCEED_RECORDS),
+    READ_SUCCEED_BYTES(CommunicationTool.READ_SUCCEED_BYTES),
+    READ_FAILED_RECORDS(CommunicationTool.READ_FAILED_RECORDS),
+    READ_FAILED_BYTES(CommunicationTool.READ_FAILED_BYTES),
+    WRITE_RECEIVED_RECORDS(CommunicationTool.WRITE_RECEIVED_RECORDS),
+    WRITE_RECEIVED_BYTES(CommunicationTool.WRITE_RECEIVED_BYTES),
+    WRITE_FAILED_RECORDS(CommunicationTool.WRITE_FAILED_RECORDS),
+    WRITE_FAILED_BYTES(CommunicationTool.WRITE_FAILED_BYTES),
+    WAIT_WRITER_TIME(CommunicationTool.WAIT_WRITER_TIME),
+    WAIT_READER_TIME(CommunicationTool.WAIT_READER_TIME),
+    TRANSFORMER_USED_TIME(CommunicationTool.TRANSFORMER_USED_TIME),
+    TRANSFORMER_COMPILE_TIME(CommunicationTool.TRANSFORMER_COMPILE_TIME),
+    TRANSFORMER_SUCCEED_RECORDS(CommunicationTool.TRANSFORMER_SUCCEED_RECORDS),
+    TRANSFORMER_FAILED_RECORDS(CommunicationTool.TRANSFORMER_FAILED_RECORDS),
+    TRANSFORMER_FILTER_RECORDS(CommunicationTool.TRANSFORMER_FILTER_RECORDS);
+
+    private static final Map<String, CommunicationCounter> KEYS = new HashMap<>();
+
+    static {
+        for (CommunicationCounter counter : values()) {
+            KEYS.put(counter.key, counter);
+        }
+    }
+
+    private final String key;
+
+    CommunicationCounter(String key)
+    {
+        this.key = key;
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * @param key the counter key
+     * @return the fixed counter of the key, or null if the key is a dynamic one
+     */
+    public static CommunicationCounter of(String key)
+    {
+        return KEYS.get(key);
+    }
+}
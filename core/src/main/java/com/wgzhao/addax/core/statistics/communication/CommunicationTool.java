@@ -51,6 +51,7 @@ public final class CommunicationTool
     public static final String WAIT_WRITER_TIME = "waitWriterTime";
     public static final String WAIT_READER_TIME = "waitReaderTime";
     public static final String TRANSFORMER_USED_TIME = "totalTransformerUsedTime";
+    public static final String TRANSFORMER_COMPILE_TIME = "totalTransformerCompileTime";
     public static final String TRANSFORMER_SUCCEED_RECORDS = "totalTransformerSuccessRecords";
     public static final String TRANSFORMER_FAILED_RECORDS = "totalTransformerFailedRecords";
     public static final String TRANSFORMER_FILTER_RECORDS = "totalTransformerFilterRecords";
@@ -96,32 +97,32 @@ public final class CommunicationTool
     public static long getTotalReadRecords(Communication communication)
     {
 
-        return communication.getLongCounter(READ_SUCCEED_RECORDS) + communication.getLongCounter(READ_FAILED_RECORDS);
+        return communication.getLongCounter(CommunicationCounter.READ_SUCCEED_RECORDS) + communication.getLongCounter(CommunicationCounter.READ_FAILED_RECORDS);
     }
 
     public static long getTotalReadBytes(Communication communication)
     {
-        return communication.getLongCounter(READ_SUCCEED_BYTES) + communication.getLongCounter(READ_FAILED_BYTES);
+        return communication.getLongCounter(CommunicationCounter.READ_SUCCEED_BYTES) + communication.getLongCounter(CommunicationCounter.READ_FAILED_BYTES);
     }
 
     public static long getTotalErrorRecords(Communication communication)
     {
-        return communication.getLongCounter(READ_FAILED_RECORDS) + communication.getLongCounter(WRITE_FAILED_RECORDS);
+        return communication.getLongCounter(CommunicationCounter.READ_FAILED_RECORDS) + communication.getLongCounter(CommunicationCounter.WRITE_FAILED_RECORDS);
     }
 
     public static long getTotalErrorBytes(Communication communication)
     {
-        return communication.getLongCounter(READ_FAILED_BYTES) + communication.getLongCounter(WRITE_FAILED_BYTES);
+        return communication.getLongCounter(CommunicationCounter.READ_FAILED_BYTES) + communication.getLongCounter(CommunicationCounter.WRITE_FAILED_BYTES);
     }
 
     public static long getWriteSucceedRecords(Communication communication)
     {
-        return communication.getLongCounter(WRITE_RECEIVED_RECORDS) - communication.getLongCounter(WRITE_FAILED_RECORDS);
+        return communication.getLongCounter(CommunicationCounter.WRITE_RECEIVED_RECORDS) - communication.getLongCounter(CommunicationCounter.WRITE_FAILED_RECORDS);
     }
 
     public static long getWriteSucceedBytes(Communication communication)
     {
-        return communication.getLongCounter(WRITE_RECEIVED_BYTES) - communication.getLongCounter(WRITE_FAILED_BYTES);
+        return communication.getLongCounter(CommunicationCounter.WRITE_RECEIVED_BYTES) - communication.getLongCounter(CommunicationCounter.WRITE_FAILED_BYTES);
     }
 
     public static class Stringify
@@ -143,10 +144,10 @@ public final class CommunicationTool
             sb.append(getError(communication));
             sb.append(" | ");
             sb.append(" All Task WaitWriterTime ");
-            sb.append(PerfTrace.unitTime(communication.getLongCounter(WAIT_WRITER_TIME)));
+            sb.append(PerfTrace.unitTime(communication.getLongCounter(CommunicationCounter.WAIT_WRITER_TIME)));
             sb.append(" | ");
             sb.append(" All Task WaitReaderTime ");
-            sb.append(PerfTrace.unitTime(communication.getLongCounter(WAIT_READER_TIME)));
+            sb.append(PerfTrace.unitTime(communication.getLongCounter(CommunicationCounter.WAIT_READER_TIME)));
             sb.append(" | ");
             if (communication.getLongCounter(CommunicationTool.TRANSFORMER_USED_TIME) > 0
                     || communication.getLongCounter(CommunicationTool.TRANSFORMER_SUCCEED_RECORDS) > 0
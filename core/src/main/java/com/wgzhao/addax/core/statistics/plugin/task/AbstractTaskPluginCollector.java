@@ -25,7 +25,7 @@ import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
-import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.statistics.communication.CommunicationCounter;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,12 +82,12 @@ public abstract class AbstractTaskPluginCollector
         }
 
         if (this.pluginType == PluginType.READER) {
-            this.communication.increaseCounter(CommunicationTool.READ_FAILED_RECORDS, 1);
-            this.communication.increaseCounter(CommunicationTool.READ_FAILED_BYTES, dirtyRecord.getByteSize());
+            this.communication.increaseCounter(CommunicationCounter.READ_FAILED_RECORDS, 1);
+            this.communication.increaseCounter(CommunicationCounter.READ_FAILED_BYTES, dirtyRecord.getByteSize());
         }
         else if (this.pluginType.equals(PluginType.WRITER)) {
-            this.communication.increaseCounter(CommunicationTool.WRITE_FAILED_RECORDS, 1);
-            this.communication.increaseCounter(CommunicationTool.WRITE_FAILED_BYTES, dirtyRecord.getByteSize());
+            this.communication.increaseCounter(CommunicationCounter.WRITE_FAILED_RECORDS, 1);
+            this.communication.increaseCounter(CommunicationCounter.WRITE_FAILED_BYTES, dirtyRecord.getByteSize());
         }
         else {
             throw AddaxException.asAddaxException(FrameworkErrorCode.RUNTIME_ERROR, String.format("不知道的插件类型[%s].", this.pluginType));
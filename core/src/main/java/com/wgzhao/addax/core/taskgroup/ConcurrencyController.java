@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.taskgroup;
+
+import com.wgzhao.addax.core.statistics.communication.Communication;
+import com.wgzhao.addax.core.statistics.communication.CommunicationCounter;
+import com.wgzhao.addax.core.transport.channel.FlowControl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 开启 {@code job.setting.adaptive.enabled} 后，所有 taskGroup 共享的并发控制器。
+ * <p>
+ * 控制器限制整个作业同时运行的 task 数目，每个 interval 根据这段时间内的吞吐量、channel 的等待时间以及 writer 的错误率，
+ * 按照加性增、乘性减（AIMD）的方式调整上限：
+ * <ul>
+ *     <li>writer 的错误率超过阈值，或者吞吐量明显下降并且 reader 主要在等待 writer 时，上限减半</li>
+ *     <li>上一次增加后吞吐量没有明显提升时，撤销这次增加</li>
+ *     <li>作业限速已经基本用满时保持不变</li>
+ *     <li>否则在有 task 等待运行时，上限加一</li>
+ * </ul>
+ * 上限始终在 minChannel 和 maxChannel 之间，减小上限不会中断正在运行的 task，只是在它们结束后不再启动新的 task。
+ */
+public class ConcurrencyController
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyController.class);
+
+    // writer 失败的记录占比超过该值时减小并发
+    private static final double MAX_ERROR_RATE = 0.01;
+    // 吞吐量下降超过该比例时认为目标端性能下降
+    private static final double MAX_THROUGHPUT_DROP = 0.2;
+    // 增加并发后吞吐量提升不足该比例时认为已经达到瓶颈
+    private static final double MIN_THROUGHPUT_GAIN = 0.05;
+    private static final double DECREASE_FACTOR = 0.5;
+    // 作业限速用到该比例时不再增加并发
+    private static final double RATE_LIMIT_USAGE = 0.9;
+
+    private static final CommunicationCounter[] SAMPLED = {
+            CommunicationCounter.READ_SUCCEED_RECORDS,
+            CommunicationCounter.READ_SUCCEED_BYTES,
+            CommunicationCounter.WRITE_RECEIVED_RECORDS,
+            CommunicationCounter.WRITE_FAILED_RECORDS,
+            CommunicationCounter.WAIT_WRITER_TIME,
+            CommunicationCounter.WAIT_READER_TIME
+    };
+    private static final int RECORDS = 0;
+    private static final int BYTES = 1;
+    private static final int WRITE_RECEIVED = 2;
+    private static final int WRITE_FAILED = 3;
+    private static final int WAIT_WRITER = 4;
+    private static final int WAIT_READER = 5;
+
+    private static final ConcurrencyController instance = new ConcurrencyController();
+
+    private final AtomicInteger running = new AtomicInteger();
+    // taskId -> 正在运行的 task 的统计
+    private final Map<Integer, Communication> tasks = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled = false;
+    private volatile int limit;
+    // 是否有 task 因为达到上限而没有启动
+    private volatile boolean starved = false;
+    private int minLimit;
+    private int maxLimit;
+    private long intervalMillis;
+
+    // 已经结束的 task 的累计值
+    private final long[] finished = new long[SAMPLED.length];
+    private long[] lastSample = new long[SAMPLED.length];
+    private long lastTimestamp;
+    private double lastThroughput;
+    // 上一次调整的幅度
+    private int lastChange;
+
+    private ConcurrencyController()
+    {
+    }
+
+    public static ConcurrencyController getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * 在启动 taskGroup 之前调用
+     *
+     * @param minLimit the lower bound of running tasks
+     * @param initLimit the initial number of running tasks
+     * @param maxLimit the upper bound of running tasks
+     * @param intervalMillis how often the limit is adjusted
+     */
+    public synchronized void configure(int minLimit, int initLimit, int maxLimit, long intervalMillis)
+    {
+        this.minLimit = Math.max(1, Math.min(minLimit, maxLimit));
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(initLimit, this.maxLimit));
+        this.intervalMillis = intervalMillis;
+        this.running.set(0);
+        this.tasks.clear();
+        this.starved = false;
+        Arrays.fill(this.finished, 0);
+        this.lastSample = new long[SAMPLED.length];
+        this.lastTimestamp = System.currentTimeMillis();
+        this.lastThroughput = 0;
+        this.lastChange = 0;
+        this.enabled = true;
+        LOG.info("Adaptive concurrency is enabled, run {} channel(s) at first, between {} and {}.", this.limit, this.minLimit, this.maxLimit);
+    }
+
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    public int getLimit()
+    {
+        return this.limit;
+    }
+
+    /**
+     * 申请运行一个 task
+     *
+     * @return true if the task can be started
+     */
+    public boolean tryAcquire()
+    {
+        while (true) {
+            int current = this.running.get();
+            if (current >= this.limit) {
+                this.starved = true;
+                return false;
+            }
+            if (this.running.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void register(int taskId, Communication communication)
+    {
+        this.tasks.put(taskId, communication);
+    }
+
+    /**
+     * task 结束后归还
+     *
+     * @param taskId the finished task
+     */
+    public synchronized void release(int taskId)
+    {
+        Communication communication = this.tasks.remove(taskId);
+        if (communication != null) {
+            for (int i = 0; i < SAMPLED.length; i++) {
+                this.finished[i] += communication.getLongCounter(SAMPLED[i]);
+            }
+        }
+        this.running.decrementAndGet();
+    }
+
+    /**
+     * 由各个 taskGroup 在每次检查状态时调用，距离上次调整超过 interval 时才会真正调整
+     */
+    public synchronized void adjust()
+    {
+        long now = System.currentTimeMillis();
+        long elapsed = now - this.lastTimestamp;
+        if (!this.enabled || elapsed < this.intervalMillis) {
+            return;
+        }
+
+        long[] sample = this.finished.clone();
+        for (Communication communication : this.tasks.values()) {
+            for (int i = 0; i < SAMPLED.length; i++) {
+                sample[i] += communication.getLongCounter(SAMPLED[i]);
+            }
+        }
+        long[] delta = new long[SAMPLED.length];
+        for (int i = 0; i < SAMPLED.length; i++) {
+            delta[i] = sample[i] - this.lastSample[i];
+        }
+
+        double throughput = delta[RECORDS] * 1000.0 / elapsed;
+        double byteThroughput = delta[BYTES] * 1000.0 / elapsed;
+        double errorRate = delta[WRITE_RECEIVED] > 0 ? (double) delta[WRITE_FAILED] / delta[WRITE_RECEIVED] : 0;
+        // 平均每个 channel 在这段时间内等待的比例
+        double channelNanos = (double) TimeUnit.MILLISECONDS.toNanos(elapsed) * Math.max(this.running.get(), 1);
+        double waitWriterRatio = delta[WAIT_WRITER] / channelNanos;
+        double waitReaderRatio = delta[WAIT_READER] / channelNanos;
+
+        int oldLimit = this.limit;
+        int newLimit = oldLimit;
+        String reason = null;
+        if (errorRate > MAX_ERROR_RATE) {
+            newLimit = (int) (oldLimit * DECREASE_FACTOR);
+            reason = "writer error rate is too high";
+        }
+        else if (this.lastChange >= 0 && this.lastThroughput > 0 && throughput < this.lastThroughput * (1 - MAX_THROUGHPUT_DROP) && waitWriterRatio > waitReaderRatio) {
+            newLimit = (int) (oldLimit * DECREASE_FACTOR);
+            reason = "writer slowed down";
+        }
+        else if (this.lastChange > 0 && throughput < this.lastThroughput * (1 + MIN_THROUGHPUT_GAIN)) {
+            newLimit = oldLimit - 1;
+            reason = "no throughput gain";
+        }
+        else if (this.starved && !isRateLimited(throughput, byteThroughput)) {
+            newLimit = oldLimit + 1;
+            reason = "tasks are waiting";
+        }
+        newLimit = Math.max(this.minLimit, Math.min(newLimit, this.maxLimit));
+
+        if (newLimit != oldLimit) {
+            LOG.info("Adaptive concurrency changed the channel limit from {} to {} ({}): {} records/s, error rate {}%, wait writer {}%, wait reader {}%.",
+                    oldLimit, newLimit, reason, (long) throughput, String.format("%.2f", errorRate * 100),
+                    String.format("%.1f", waitWriterRatio * 100), String.format("%.1f", waitReaderRatio * 100));
+            this.limit = newLimit;
+        }
+        this.lastChange = newLimit - oldLimit;
+        this.lastThroughput = throughput;
+        this.lastSample = sample;
+        this.lastTimestamp = now;
+        this.starved = false;
+    }
+
+    private static boolean isRateLimited(double throughput, double byteThroughput)
+    {
+        FlowControl flowControl = FlowControl.getInstance();
+        long recordSpeed = flowControl.getRecordSpeed();
+        long byteSpeed = flowControl.getByteSpeed();
+        return (recordSpeed > 0 && throughput >= recordSpeed * RATE_LIMIT_USAGE)
+                || (byteSpeed > 0 && byteThroughput >= byteSpeed * RATE_LIMIT_USAGE);
+    }
+}
@@ -40,10 +40,13 @@ import com.wgzhao.addax.core.transport.channel.Channel;
 import com.wgzhao.addax.core.transport.channel.memory.MemoryChannel;
 import com.wgzhao.addax.core.transport.exchanger.BufferedRecordExchanger;
 import com.wgzhao.addax.core.transport.exchanger.BufferedRecordTransformerExchanger;
+import com.wgzhao.addax.core.transport.exchanger.ParallelRecordTransformerExchanger;
+import com.wgzhao.addax.core.transport.record.RecordFactory;
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
 import com.wgzhao.addax.core.util.ClassUtil;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import com.wgzhao.addax.core.util.TransformerUtil;
+import com.wgzhao.addax.core.util.VirtualThreads;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import com.wgzhao.addax.core.util.container.LoadUtil;
 import org.apache.commons.lang3.Validate;
@@ -51,10 +54,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class TaskGroupContainer
         extends AbstractContainer
@@ -74,6 +81,16 @@ public class TaskGroupContainer
 
     private final TaskMonitor taskMonitor = TaskMonitor.getInstance();
 
+    private final TaskWorkQueue taskWorkQueue = TaskWorkQueue.getInstance();
+
+    private final ConcurrencyController concurrencyController = ConcurrencyController.getInstance();
+
+    // reader 和 writer 是否运行在虚拟线程中
+    private final boolean virtualThread;
+
+    // reader 和 writer 线程退出时放入对应的 taskId，用来唤醒调度循环
+    private final BlockingQueue<Integer> taskEvents = new LinkedBlockingQueue<>();
+
     public TaskGroupContainer(Configuration configuration)
     {
         super(configuration);
@@ -83,6 +100,7 @@ public class TaskGroupContainer
         this.taskGroupId = this.configuration.getInt(CoreConstant.CORE_CONTAINER_TASK_GROUP_ID);
         this.channelClazz = this.configuration.getString(CoreConstant.CORE_TRANSPORT_CHANNEL_CLASS, MemoryChannel.class.getName());
         this.taskCollectorClass = this.configuration.getString(CoreConstant.CORE_STATISTICS_COLLECTOR_PLUGIN_TASK_CLASS, StdoutPluginCollector.class.getName());
+        this.virtualThread = this.configuration.getBool(CoreConstant.CORE_CONTAINER_THREAD_VIRTUAL, false) && VirtualThreads.isSupported();
     }
 
     private void initCommunicator(Configuration configuration)
@@ -100,7 +118,7 @@ public class TaskGroupContainer
     {
         try {
 
-            // 状态check时间间隔，较短，可以把任务及时分发到对应channel中
+            // 失败重试以及自适应并发时检查状态的时间间隔，其他情况下由任务结束的信号唤醒
             int sleepIntervalInMillSec = this.configuration.getInt(CoreConstant.CORE_CONTAINER_TASK_GROUP_SLEEP_INTERVAL, 100);
 
             // 状态汇报时间间隔，稍长，避免大量汇报
@@ -124,10 +142,17 @@ public class TaskGroupContainer
             int taskCountInThisTaskGroup = taskConfigs.size();
             LOG.info("The taskGroupId=[{}] started [{}] channels for [{}] tasks.", this.taskGroupId, channelNumber, taskCountInThisTaskGroup);
 
-            this.containerCommunicator.registerCommunication(taskConfigs);
+            // 动态切分模式下，任务从共享队列中按需获取，获取到之后才注册
+            boolean dynamicSplit = this.configuration.getBool(CoreConstant.JOB_SETTING_DYNAMIC_SPLIT, false)
+                    && taskWorkQueue.isRegistered(this.taskGroupId);
+            if (!dynamicSplit) {
+                this.containerCommunicator.registerCommunication(taskConfigs);
+            }
+            // 动态切分模式下，taskGroup 负责的任务数是已经获取的任务(包括窃取的)加上自己队列中还未被取走的任务，汇报进度时以此为准
+            int acquiredTaskCount = 0;
 
-            Map<Integer, Configuration> taskConfigMap = buildTaskConfigMap(taskConfigs); //taskId与task配置
-            List<Configuration> taskQueue = buildRemainTasks(taskConfigs); //待运行task列表
+            Map<Integer, Configuration> taskConfigMap = dynamicSplit ? new HashMap<>() : buildTaskConfigMap(taskConfigs); //taskId与task配置
+            List<Configuration> taskQueue = dynamicSplit ? new ArrayList<>() : buildRemainTasks(taskConfigs); //待运行task列表
             Map<Integer, TaskExecutor> taskFailedExecutorMap = new HashMap<>(); //taskId与上次失败实例
             List<TaskExecutor> runTasks = new ArrayList<>(channelNumber); //正在运行task
             Map<Integer, Long> taskStartTimeMap = new HashMap<>(); //任务开始时间
@@ -135,13 +160,15 @@ public class TaskGroupContainer
             long lastReportTimeStamp = 0;
             Communication lastTaskGroupContainerCommunication = new Communication();
 
+            // 自适应并发模式下，channelNumber 只是上限，整个作业同时运行的任务数由 ConcurrencyController 决定
+            boolean adaptive = concurrencyController.isEnabled();
+
             while (true) {
-                //1.判断task状态
+                //1.判断task状态，只有正在运行的task状态会发生变化
                 boolean failedOrKilled = false;
-                Map<Integer, Communication> communicationMap = containerCommunicator.getCommunicationMap();
-                for (Map.Entry<Integer, Communication> entry : communicationMap.entrySet()) {
-                    Integer taskId = entry.getKey();
-                    Communication taskCommunication = entry.getValue();
+                for (TaskExecutor runTask : new ArrayList<>(runTasks)) {
+                    Integer taskId = runTask.getTaskId();
+                    Communication taskCommunication = containerCommunicator.getCommunication(taskId);
                     if (!taskCommunication.isFinished()) {
                         continue;
                     }
@@ -149,6 +176,9 @@ public class TaskGroupContainer
 
                     //上面从runTasks里移除了，因此对应在monitor里移除
                     taskMonitor.removeTask(taskId);
+                    if (adaptive && taskExecutor != null) {
+                        concurrencyController.release(taskId);
+                    }
 
                     //失败，看task是否支持failover，重试次数未超过最大限制
                     if (taskCommunication.getState() == State.FAILED) {
@@ -188,7 +218,27 @@ public class TaskGroupContainer
                     throw AddaxException.asAddaxException(FrameworkErrorCode.PLUGIN_RUNTIME_ERROR, lastTaskGroupContainerCommunication.getThrowable());
                 }
 
-                //3.有任务未执行，且正在运行的任务数小于最大通道限制
+                //3.动态切分模式下，有空闲通道时从共享队列获取任务，自己的任务运行完后会窃取其他taskGroup的任务
+                if (dynamicSplit) {
+                    int idleChannels = channelNumber - runTasks.size() - taskQueue.size();
+                    for (; idleChannels > 0; idleChannels--) {
+                        Configuration taskConfig = taskWorkQueue.poll(this.taskGroupId);
+                        if (taskConfig == null) {
+                            break;
+                        }
+                        this.containerCommunicator.registerCommunication(Collections.singletonList(taskConfig));
+                        taskConfigMap.put(taskConfig.getInt(CoreConstant.TASK_ID), taskConfig);
+                        taskQueue.add(taskConfig);
+                        acquiredTaskCount++;
+                    }
+                    taskCountInThisTaskGroup = Math.max(1, acquiredTaskCount + taskWorkQueue.size(this.taskGroupId));
+                }
+
+                if (adaptive) {
+                    concurrencyController.adjust();
+                }
+
+                //有任务未执行，且正在运行的任务数小于最大通道限制
                 Iterator<Configuration> iterator = taskQueue.iterator();
                 while (iterator.hasNext() && runTasks.size() < channelNumber) {
                     Configuration taskConfig = iterator.next();
@@ -218,10 +268,25 @@ public class TaskGroupContainer
                                     this.taskGroupId, taskId, lastExecutor.getAttemptCount());
                         }
                     }
+                    if (adaptive && !concurrencyController.tryAcquire()) {
+                        break;
+                    }
                     Configuration taskConfigForRun = taskMaxRetryTimes > 1 ? taskConfig.clone() : taskConfig;
                     TaskExecutor taskExecutor = new TaskExecutor(taskConfigForRun, attemptCount);
                     taskStartTimeMap.put(taskId, System.currentTimeMillis());
-                    taskExecutor.doStart();
+                    try {
+                        taskExecutor.doStart();
+                        if (adaptive) {
+                            concurrencyController.register(taskId, this.containerCommunicator.getCommunication(taskId));
+                        }
+                    }
+                    catch (Throwable e) {
+                        // 任务没有加入 runTasks，不会在结束时归还，启动失败时需要在这里归还许可
+                        if (adaptive) {
+                            concurrencyController.release(taskId);
+                        }
+                        throw e;
+                    }
 
                     iterator.remove();
                     runTasks.add(taskExecutor);
@@ -235,7 +300,7 @@ public class TaskGroupContainer
                 }
 
                 //4.任务列表为空，executor已结束, 搜集状态为success--->成功
-                if (taskQueue.isEmpty() && isAllTaskDone(runTasks) && containerCommunicator.collectState() == State.SUCCEEDED) {
+                if (taskQueue.isEmpty() && (!dynamicSplit || taskWorkQueue.isEmpty()) && isAllTaskDone(runTasks) && containerCommunicator.collectState() == State.SUCCEEDED) {
                     // 成功的情况下，也需要汇报一次。否则在任务结束非常快的情况下，采集的信息将会不准确
                     lastTaskGroupContainerCommunication = reportTaskGroupCommunication(lastTaskGroupContainerCommunication, taskCountInThisTaskGroup);
 
@@ -256,7 +321,15 @@ public class TaskGroupContainer
                     }
                 }
 
-                Thread.sleep(sleepIntervalInMillSec);
+                // 等待task结束的信号，没有需要定时检查的状态时，最多等待到下一次汇报
+                long waitInMillSec = sleepIntervalInMillSec;
+                if (!adaptive && taskFailedExecutorMap.isEmpty()) {
+                    waitInMillSec = Math.max(reportIntervalInMillSec - (System.currentTimeMillis() - lastReportTimeStamp), sleepIntervalInMillSec);
+                }
+                if (taskEvents.poll(waitInMillSec, TimeUnit.MILLISECONDS) != null) {
+                    // 下一轮会检查所有正在运行的task，剩余的信号不需要逐个处理
+                    taskEvents.clear();
+                }
             }
 
             //6.最后还要汇报一次
@@ -344,6 +417,9 @@ public class TaskGroupContainer
 
         private final Channel channel;
 
+        // reader 和 writer 共用，开启记录复用时 writer 释放的记录可以回到 reader 端
+        private final RecordFactory recordFactory;
+
         private final Thread readerThread;
 
         private final Thread writerThread;
@@ -383,6 +459,7 @@ public class TaskGroupContainer
             this.channel = ClassUtil.instantiate(channelClazz,
                     Channel.class, configuration);
             this.channel.setCommunication(this.taskCommunication);
+            this.recordFactory = new RecordFactory(configuration);
 
             /*
              * 获取transformer的参数
@@ -394,7 +471,7 @@ public class TaskGroupContainer
              * 生成writerThread
              */
             writerRunner = (WriterRunner) generateRunner(PluginType.WRITER);
-            this.writerThread = new Thread(writerRunner, String.format("writer-%d-%d", taskGroupId, this.taskId));
+            this.writerThread = VirtualThreads.newThread(virtualThread, signalOnExit(writerRunner), String.format("writer-%d-%d", taskGroupId, this.taskId));
             //通过设置thread的contextClassLoader，即可实现同步和主程序不通的加载器
             this.writerThread.setContextClassLoader(LoadUtil.getJarLoader(PluginType.WRITER, this.taskConfig.getString(CoreConstant.JOB_WRITER_NAME)));
 
@@ -402,7 +479,7 @@ public class TaskGroupContainer
              * 生成readerThread
              */
             readerRunner = (ReaderRunner) generateRunner(PluginType.READER, transformerInfoExecs);
-            this.readerThread = new Thread(readerRunner, String.format("reader-%d-%d", taskGroupId, this.taskId));
+            this.readerThread = VirtualThreads.newThread(virtualThread, signalOnExit(readerRunner), String.format("reader-%d-%d", taskGroupId, this.taskId));
             /*
              * 通过设置thread的contextClassLoader，即可实现同步和主程序不同的加载器
              */
@@ -413,8 +490,8 @@ public class TaskGroupContainer
         {
             this.writerThread.start();
 
-            // reader没有起来，writer不可能结束
-            if (!this.writerThread.isAlive() || this.taskCommunication.getState() == State.FAILED) {
+            // reader没有起来，writer只可能是启动失败了（也可能是不读取数据的writer已经正常结束）
+            if (!this.writerThread.isAlive() && this.taskCommunication.getState() == State.FAILED) {
                 throw AddaxException.asAddaxException(FrameworkErrorCode.RUNTIME_ERROR, this.taskCommunication.getThrowable());
             }
 
@@ -427,6 +504,18 @@ public class TaskGroupContainer
             }
         }
 
+        private Runnable signalOnExit(Runnable runner)
+        {
+            return () -> {
+                try {
+                    runner.run();
+                }
+                finally {
+                    taskEvents.offer(this.taskId);
+                }
+            };
+        }
+
         private AbstractRunner generateRunner(PluginType pluginType)
         {
             return generateRunner(pluginType, null);
@@ -445,11 +534,15 @@ public class TaskGroupContainer
                     pluginCollector = ClassUtil.instantiate(taskCollectorClass, AbstractTaskPluginCollector.class, configuration, this.taskCommunication, PluginType.READER);
 
                     RecordSender recordSender;
-                    if (transformerInfoExecs != null && !transformerInfoExecs.isEmpty()) {
-                        recordSender = new BufferedRecordTransformerExchanger(taskGroupId, this.taskId, this.channel, this.taskCommunication, pluginCollector, transformerInfoExecs);
+                    if (transformerInfoExecs != null && !transformerInfoExecs.isEmpty()
+                            && configuration.getInt(CoreConstant.CORE_TRANSPORT_TRANSFORMER_PARALLELISM, 1) > 1) {
+                        recordSender = new ParallelRecordTransformerExchanger(taskGroupId, this.taskId, this.channel, this.taskCommunication, pluginCollector, transformerInfoExecs, this.recordFactory);
+                    }
+                    else if (transformerInfoExecs != null && !transformerInfoExecs.isEmpty()) {
+                        recordSender = new BufferedRecordTransformerExchanger(taskGroupId, this.taskId, this.channel, this.taskCommunication, pluginCollector, transformerInfoExecs, this.recordFactory);
                     }
                     else {
-                        recordSender = new BufferedRecordExchanger(this.channel, pluginCollector);
+                        recordSender = new BufferedRecordExchanger(this.channel, pluginCollector, this.recordFactory);
                     }
 
                     ((ReaderRunner) newRunner).setRecordSender(recordSender);
@@ -464,7 +557,7 @@ public class TaskGroupContainer
                     newRunner.setJobConf(this.taskConfig.getConfiguration(CoreConstant.JOB_WRITER_PARAMETER));
 
                     pluginCollector = ClassUtil.instantiate(taskCollectorClass, AbstractTaskPluginCollector.class, configuration, this.taskCommunication, PluginType.WRITER);
-                    ((WriterRunner) newRunner).setRecordReceiver(new BufferedRecordExchanger(this.channel, pluginCollector));
+                    ((WriterRunner) newRunner).setRecordReceiver(new BufferedRecordExchanger(this.channel, pluginCollector, this.recordFactory));
                     /*
                      * 设置taskPlugin的collector，用来处理脏数据和job/task通信
                      */
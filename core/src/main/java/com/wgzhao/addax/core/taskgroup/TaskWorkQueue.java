@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.core.taskgroup;
+
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * 开启 {@code job.setting.dynamicSplit} 后，各个 taskGroup 共享的待运行任务队列。
+ * <p>
+ * 每个 taskGroup 依然按照 JobAssignUtil 的分配结果拥有自己的队列，并从队列头部获取任务；
+ * 当自己的队列为空而还有空闲的 channel 时，从剩余任务最多的 taskGroup 的队列尾部窃取任务，
+ * 避免某个 taskGroup 还有大量任务时其他 taskGroup 的 channel 已经空闲。
+ */
+public class TaskWorkQueue
+{
+    private static final TaskWorkQueue instance = new TaskWorkQueue();
+
+    // taskGroupId -> 该 taskGroup 尚未开始运行的任务
+    private final Map<Integer, Deque<Configuration>> queues = new ConcurrentHashMap<>();
+
+    private TaskWorkQueue()
+    {
+    }
+
+    public static TaskWorkQueue getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * 在启动 taskGroup 之前注册所有的任务，保证每个 taskGroup 启动时都能看到全部的队列
+     *
+     * @param taskGroupConfigs the configurations of all task groups
+     */
+    public void register(List<Configuration> taskGroupConfigs)
+    {
+        this.queues.clear();
+        for (Configuration taskGroupConfig : taskGroupConfigs) {
+            int taskGroupId = taskGroupConfig.getInt(CoreConstant.CORE_CONTAINER_TASK_GROUP_ID);
+            this.queues.put(taskGroupId, new ConcurrentLinkedDeque<>(taskGroupConfig.getListConfiguration(CoreConstant.JOB_CONTENT)));
+        }
+    }
+
+    public boolean isRegistered(int taskGroupId)
+    {
+        return this.queues.containsKey(taskGroupId);
+    }
+
+    /**
+     * 获取下一个任务，优先从自己的队列获取，否则从其他 taskGroup 窃取
+     *
+     * @param taskGroupId the task group which asks for a task
+     * @return the task configuration, or null if there is no task left in all queues
+     */
+    public Configuration poll(int taskGroupId)
+    {
+        Deque<Configuration> own = this.queues.get(taskGroupId);
+        if (own != null) {
+            Configuration taskConfig = own.pollFirst();
+            if (taskConfig != null) {
+                return taskConfig;
+            }
+        }
+        while (true) {
+            Deque<Configuration> victim = null;
+            int victimSize = 0;
+            for (Deque<Configuration> queue : this.queues.values()) {
+                // ConcurrentLinkedDeque.size() 需要遍历，但是队列中的任务数量很少
+                int size = queue.size();
+                if (size > victimSize) {
+                    victim = queue;
+                    victimSize = size;
+                }
+            }
+            if (victim == null) {
+                return null;
+            }
+            Configuration taskConfig = victim.pollLast();
+            if (taskConfig != null) {
+                return taskConfig;
+            }
+            // 被其他 taskGroup 抢先取走，重新选择
+        }
+    }
+
+    /**
+     * 指定 taskGroup 的队列中尚未被取走的任务数，包括之后可能被其他 taskGroup 窃取的任务
+     *
+     * @param taskGroupId the task group id
+     * @return the number of tasks waiting in its own queue
+     */
+    public int size(int taskGroupId)
+    {
+        Deque<Configuration> own = this.queues.get(taskGroupId);
+        return own == null ? 0 : own.size();
+    }
+
+    /**
+     * 所有队列是否都已经为空，任务只会被取走，不会再放回，因此为空后会一直为空
+     *
+     * @return true if no task is waiting
+     */
+    public boolean isEmpty()
+    {
+        for (Deque<Configuration> queue : this.queues.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -22,7 +22,8 @@ package com.wgzhao.addax.core.transport.channel;
 import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
-import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.statistics.communication.CommunicationCounter;
+import com.wgzhao.addax.core.transport.record.BatchRecord;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import org.apache.commons.lang3.Validate;
@@ -41,7 +42,6 @@ public abstract class Channel
 
     private static final Logger LOG = LoggerFactory.getLogger(Channel.class);
     private static Boolean isFirstPrint = true;
-    private final Communication lastCommunication = new Communication();
     protected int taskGroupId;
     protected int capacity;
     protected int byteCapacity;
@@ -53,6 +53,11 @@ public abstract class Channel
     protected volatile long waitReaderTime = 0;
     protected volatile long waitWriterTime = 0;
     private Communication currentCommunication;
+    // 单个 channel 的限速
+    private final TokenBucket byteBucket;
+    private final TokenBucket recordBucket;
+    // 作业级别的限速，所有 channel 共用
+    private final FlowControl flowControl;
 
     public Channel(Configuration configuration)
     {
@@ -79,6 +84,10 @@ public abstract class Channel
         //channel的queue默认大小为8M，原来为64M
         this.byteCapacity = configuration.getInt(CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
         this.configuration = configuration;
+        // flowControlInterval 作为令牌桶可以积攒令牌的时长
+        this.byteBucket = new TokenBucket(byteSpeed, this.flowControlInterval);
+        this.recordBucket = new TokenBucket(recordSpeed, this.flowControlInterval);
+        this.flowControl = FlowControl.getInstance();
     }
 
     public void close()
@@ -109,14 +118,13 @@ public abstract class Channel
     public void setCommunication(final Communication communication)
     {
         this.currentCommunication = communication;
-        this.lastCommunication.reset();
     }
 
     public void push(Record r)
     {
         Validate.notNull(r, "The record cannot be empty.");
         this.doPush(r);
-        this.statPush(1L, r.getByteSize());
+        this.statPush(getRecordNumber(r), r.getByteSize());
     }
 
     public void pushTerminate(TerminateRecord r)
@@ -130,13 +138,13 @@ public abstract class Channel
         Validate.notNull(rs);
         Validate.noNullElements(rs);
         this.doPushAll(rs);
-        this.statPush(rs.size(), this.getByteSize(rs));
+        this.statPush(this.getRecordNumber(rs), this.getByteSize(rs));
     }
 
     public Record pull()
     {
         Record record = this.doPull();
-        this.statPull(1L, record.getByteSize());
+        this.statPull(getRecordNumber(record), record.getByteSize());
         return record;
     }
 
@@ -144,7 +152,7 @@ public abstract class Channel
     {
         Validate.notNull(rs);
         this.doPullAll(rs);
-        this.statPull(rs.size(), this.getByteSize(rs));
+        this.statPull(this.getRecordNumber(rs), this.getByteSize(rs));
     }
 
     protected abstract void doPush(Record r);
@@ -170,71 +178,50 @@ public abstract class Channel
         return size;
     }
 
+    // 列式批次在 channel 中只占一个位置，但要按实际行数统计
+    private long getRecordNumber(Record r)
+    {
+        return r instanceof BatchRecord ? ((BatchRecord) r).getBatch().size() : 1L;
+    }
+
+    private long getRecordNumber(Collection<Record> rs)
+    {
+        long number = 0;
+        for (Record each : rs) {
+            number += getRecordNumber(each);
+        }
+        return number;
+    }
+
     private void statPush(long recordSize, long byteSize)
     {
-        currentCommunication.increaseCounter(CommunicationTool.READ_SUCCEED_RECORDS, recordSize);
-        currentCommunication.increaseCounter(CommunicationTool.READ_SUCCEED_BYTES, byteSize);
+        currentCommunication.increaseCounter(CommunicationCounter.READ_SUCCEED_RECORDS, recordSize);
+        currentCommunication.increaseCounter(CommunicationCounter.READ_SUCCEED_BYTES, byteSize);
         //在读的时候进行统计waitCounter即可，因为写（pull）的时候可能正在阻塞，但读的时候已经能读到这个阻塞的counter数
 
-        currentCommunication.setLongCounter(CommunicationTool.WAIT_READER_TIME, waitReaderTime);
-        currentCommunication.setLongCounter(CommunicationTool.WAIT_WRITER_TIME, waitWriterTime);
+        currentCommunication.setLongCounter(CommunicationCounter.WAIT_READER_TIME, waitReaderTime);
+        currentCommunication.setLongCounter(CommunicationCounter.WAIT_WRITER_TIME, waitWriterTime);
 
-        boolean isChannelByteSpeedLimit = (this.byteSpeed > 0);
-        boolean isChannelRecordSpeedLimit = (this.recordSpeed > 0);
-        if (!isChannelByteSpeedLimit && !isChannelRecordSpeedLimit) {
-            return;
+        // 先按照所有令牌桶中最长的等待时间挂起，再同时从所有桶中扣除令牌，
+        // 避免在等待其他桶的期间提前占用某个桶(尤其是作业级别共享的桶)的令牌，使实际速度低于限制
+        boolean jobLimited = this.flowControl.isLimited();
+        long waitNanos = Math.max(this.byteBucket.peek(byteSize), this.recordBucket.peek(recordSize));
+        if (jobLimited) {
+            waitNanos = Math.max(waitNanos, this.flowControl.peek(recordSize, byteSize));
         }
+        TokenBucket.park(waitNanos);
 
-        long lastTimestamp = lastCommunication.getTimestamp();
-        long nowTimestamp = System.currentTimeMillis();
-        long interval = nowTimestamp - lastTimestamp;
-        if (interval - this.flowControlInterval >= 0) {
-            long byteLimitSleepTime = 0;
-            long recordLimitSleepTime = 0;
-            if (isChannelByteSpeedLimit) {
-                long currentByteSpeed = (CommunicationTool.getTotalReadBytes(currentCommunication) -
-                        CommunicationTool.getTotalReadBytes(lastCommunication)) * 1000 / interval;
-                if (currentByteSpeed > this.byteSpeed) {
-                    // 计算根据byteLimit得到的休眠时间
-                    byteLimitSleepTime = currentByteSpeed * interval / this.byteSpeed - interval;
-                }
-            }
-
-            if (isChannelRecordSpeedLimit) {
-                long currentRecordSpeed = (CommunicationTool.getTotalReadRecords(currentCommunication) -
-                        CommunicationTool.getTotalReadRecords(lastCommunication)) * 1000 / interval;
-                if (currentRecordSpeed > this.recordSpeed) {
-                    // 计算根据recordLimit得到的休眠时间
-                    recordLimitSleepTime = currentRecordSpeed * interval / this.recordSpeed - interval;
-                }
-            }
-
-            // 休眠时间取较大值
-            long sleepTime = Math.max(byteLimitSleepTime, recordLimitSleepTime);
-            if (sleepTime > 0) {
-                try {
-                    Thread.sleep(sleepTime);
-                }
-                catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-
-            lastCommunication.setLongCounter(CommunicationTool.READ_SUCCEED_BYTES,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_SUCCEED_BYTES));
-            lastCommunication.setLongCounter(CommunicationTool.READ_FAILED_BYTES,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_FAILED_BYTES));
-            lastCommunication.setLongCounter(CommunicationTool.READ_SUCCEED_RECORDS,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_SUCCEED_RECORDS));
-            lastCommunication.setLongCounter(CommunicationTool.READ_FAILED_RECORDS,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_FAILED_RECORDS));
-            lastCommunication.setTimestamp(nowTimestamp);
+        // 作业级别的桶由多个 channel 共享，等待期间可能被其他 channel 取走令牌，此时只需再等待自己预支的部分
+        waitNanos = Math.max(this.byteBucket.reserve(byteSize), this.recordBucket.reserve(recordSize));
+        if (jobLimited) {
+            waitNanos = Math.max(waitNanos, this.flowControl.reserve(recordSize, byteSize));
         }
+        TokenBucket.park(waitNanos);
     }
 
     private void statPull(long recordSize, long byteSize)
     {
-        currentCommunication.increaseCounter(CommunicationTool.WRITE_RECEIVED_RECORDS, recordSize);
-        currentCommunication.increaseCounter(CommunicationTool.WRITE_RECEIVED_BYTES, byteSize);
+        currentCommunication.increaseCounter(CommunicationCounter.WRITE_RECEIVED_RECORDS, recordSize);
+        currentCommunication.increaseCounter(CommunicationCounter.WRITE_RECEIVED_BYTES, byteSize);
     }
 }
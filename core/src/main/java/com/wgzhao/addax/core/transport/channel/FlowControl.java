@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel;
+
+/**
+ * 作业级别的限速，所有 channel 共用同一组令牌桶，速度来自 job.setting.speed.byte 和 job.setting.speed.record。
+ * 某些 channel 阻塞或者已经结束时，剩余的额度会被其他 channel 使用。
+ * 速度可以在运行期间通过 {@link #setByteSpeed(long)} 和 {@link #setRecordSpeed(long)} 调整。
+ */
+public class FlowControl
+{
+    // 空闲时最多积攒 1 秒的令牌
+    private static final long DEFAULT_BURST_MILLIS = 1000L;
+
+    private static FlowControl instance;
+
+    private final TokenBucket byteBucket;
+    private final TokenBucket recordBucket;
+
+    private FlowControl()
+    {
+        this.byteBucket = new TokenBucket(-1, DEFAULT_BURST_MILLIS);
+        this.recordBucket = new TokenBucket(-1, DEFAULT_BURST_MILLIS);
+    }
+
+    public static synchronized FlowControl getInstance()
+    {
+        if (instance == null) {
+            instance = new FlowControl();
+        }
+        return instance;
+    }
+
+    public long getByteSpeed()
+    {
+        return this.byteBucket.getRate();
+    }
+
+    public void setByteSpeed(long byteSpeed)
+    {
+        this.byteBucket.setRate(byteSpeed);
+    }
+
+    public long getRecordSpeed()
+    {
+        return this.recordBucket.getRate();
+    }
+
+    public void setRecordSpeed(long recordSpeed)
+    {
+        this.recordBucket.setRate(recordSpeed);
+    }
+
+    public boolean isLimited()
+    {
+        return this.byteBucket.isLimited() || this.recordBucket.isLimited();
+    }
+
+    /**
+     * @param records the number of records to push
+     * @param bytes the size of records to push
+     * @return nanoseconds the caller should wait before the records can be pushed, no permit is reserved
+     */
+    public long peek(long records, long bytes)
+    {
+        return Math.max(this.byteBucket.peek(bytes), this.recordBucket.peek(records));
+    }
+
+    /**
+     * @param records the number of records just pushed
+     * @param bytes the size of records just pushed
+     * @return nanoseconds the caller should wait
+     */
+    public long reserve(long records, long bytes)
+    {
+        return Math.max(this.byteBucket.reserve(bytes), this.recordBucket.reserve(records));
+    }
+}
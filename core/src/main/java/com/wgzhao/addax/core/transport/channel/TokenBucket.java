@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 无锁的令牌桶，按照每秒 rate 个令牌的速度发放，空闲时最多积攒 burst 时间内的令牌。
+ * <p>
+ * 内部只记录桶被取空的时间点，获取令牌时通过 CAS 向后推进这个时间点，
+ * 推进后的时间点如果晚于当前时间，调用者需要等待对应的纳秒数。
+ * 多个线程共用同一个桶时，空闲线程不会占用令牌，令牌会全部流向正在读取的线程。
+ */
+public class TokenBucket
+{
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // 令牌被取空的时间点，早于当前时间表示桶里还有令牌
+    private final AtomicLong emptyAt;
+    private final long burstNanos;
+    private volatile long rate;
+
+    /**
+     * @param rate permits per second, non-positive means unlimited
+     * @param burstMillis how long an idle bucket keeps accumulating permits
+     */
+    public TokenBucket(long rate, long burstMillis)
+    {
+        this.rate = rate;
+        this.burstNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(burstMillis, 0));
+        this.emptyAt = new AtomicLong(System.nanoTime() - this.burstNanos);
+    }
+
+    public boolean isLimited()
+    {
+        return this.rate > 0;
+    }
+
+    public long getRate()
+    {
+        return this.rate;
+    }
+
+    /**
+     * 运行期间调整速度，已经预支的令牌不受影响
+     *
+     * @param rate permits per second, non-positive means unlimited
+     */
+    public void setRate(long rate)
+    {
+        this.rate = rate;
+    }
+
+    /**
+     * 预支令牌，不阻塞
+     *
+     * @param permits the number of permits
+     * @return nanoseconds the caller should wait before going on
+     */
+    public long reserve(long permits)
+    {
+        long currentRate = this.rate;
+        if (currentRate <= 0 || permits <= 0) {
+            return 0;
+        }
+        long cost = cost(permits, currentRate);
+        while (true) {
+            long now = System.nanoTime();
+            long prev = this.emptyAt.get();
+            long next = Math.max(prev, now - this.burstNanos) + cost;
+            if (this.emptyAt.compareAndSet(prev, next)) {
+                return Math.max(next - now, 0);
+            }
+        }
+    }
+
+    /**
+     * 计算令牌足够之前需要等待的时间，不预支令牌
+     *
+     * @param permits the number of permits
+     * @return nanoseconds the caller should wait before the permits are available
+     */
+    public long peek(long permits)
+    {
+        long currentRate = this.rate;
+        if (currentRate <= 0 || permits <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long next = Math.max(this.emptyAt.get(), now - this.burstNanos) + cost(permits, currentRate);
+        return Math.max(next - now, 0);
+    }
+
+    /**
+     * 获取令牌，令牌不足时挂起当前线程直到令牌足够或者线程被中断
+     *
+     * @param permits the number of permits
+     */
+    public void acquire(long permits)
+    {
+        park(reserve(permits));
+    }
+
+    private static long cost(long permits, long rate)
+    {
+        return permits >= Long.MAX_VALUE / NANOS_PER_SECOND
+                ? permits / rate * NANOS_PER_SECOND
+                : permits * NANOS_PER_SECOND / rate;
+    }
+
+    static void park(long waitNanos)
+    {
+        if (waitNanos <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining = waitNanos;
+        while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel.memory;
+
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.record.TerminateRecord;
+import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于环形数组的无锁 Channel 实现，适用于单生产者(reader)单消费者(writer)的场景。
+ * <p>
+ * 生产者一次申请(claim)一批槽位，写入后通过 lazySet 发布(publish)尾指针；
+ * 消费者一次取走一批已发布的记录并推进头指针。等待时按照
+ * {@code core.transport.channel.waitStrategy} 指定的策略忙等、让出或挂起。
+ * 与 {@link MemoryChannel} 一样遵守 byteCapacity 的内存限制。
+ * 头指针只由消费者线程修改，尾指针只由生产者线程修改，其他线程(如任务 shutdown 时的 {@link #clear()})只能设置 cleared 标记。
+ * <p>
+ * 可以通过 {@code "core.transport.channel.class": "com.wgzhao.addax.core.transport.channel.memory.RingBufferChannel"} 启用
+ */
+public class RingBufferChannel
+        extends Channel
+{
+    private final int bufferSize;
+
+    private final Record[] ring;
+
+    private final int mask;
+
+    private final WaitStrategy waitStrategy;
+
+    // 下一个可写入的位置，只有生产者修改
+    private final Sequence tail = new Sequence();
+
+    // 下一个可读取的位置，只有消费者修改
+    private final Sequence head = new Sequence();
+
+    private final AtomicLong memoryBytes = new AtomicLong(0);
+
+    // 生产者缓存的消费者位置，避免每次都读取 volatile 变量
+    private long cachedHead = 0;
+
+    // 消费者缓存的生产者位置
+    private long cachedTail = 0;
+
+    // 通道已被清空，生产者不再等待并丢弃之后写入的记录，消费者负责丢弃环上剩余的记录
+    private volatile boolean cleared = false;
+
+    public RingBufferChannel(Configuration configuration)
+    {
+        super(configuration);
+        int size = 1;
+        while (size < this.getCapacity()) {
+            size <<= 1;
+        }
+        this.ring = new Record[size];
+        this.mask = size - 1;
+        this.bufferSize = configuration.getInt(CoreConstant.CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
+        this.waitStrategy = WaitStrategy.parse(configuration.getString(CoreConstant.CORE_TRANSPORT_CHANNEL_WAIT_STRATEGY, "park"));
+    }
+
+    @Override
+    public void close()
+    {
+        super.close();
+        this.doPush(TerminateRecord.get());
+    }
+
+    /**
+     * 在任务 shutdown 时由 TaskGroupContainer 线程调用，此时生产者和消费者可能仍在运行，
+     * 因此这里只设置标记，不修改头尾指针：阻塞在申请槽位上的生产者会立即返回并丢弃记录，
+     * 消费者在下一次读取时丢弃环上剩余的记录
+     */
+    @Override
+    public void clear()
+    {
+        this.cleared = true;
+    }
+
+    @Override
+    protected void doPush(Record r)
+    {
+        long startTime = System.nanoTime();
+        long next = claim(1, r.getMemorySize());
+        if (next < 0) {
+            return;
+        }
+        this.ring[(int) next & mask] = r;
+        this.memoryBytes.addAndGet(r.getMemorySize());
+        this.tail.lazySet(next + 1);
+        waitWriterTime += System.nanoTime() - startTime;
+    }
+
+    @Override
+    protected void doPushAll(Collection<Record> rs)
+    {
+        long startTime = System.nanoTime();
+        Iterator<Record> iterator = rs.iterator();
+        int remain = rs.size();
+        while (remain > 0) {
+            // 单批数量不能超过环的大小，否则永远申请不到足够的槽位
+            int batch = Math.min(remain, this.ring.length);
+            Record[] records = new Record[batch];
+            long bytes = 0;
+            for (int i = 0; i < batch; i++) {
+                records[i] = iterator.next();
+                bytes += records[i].getMemorySize();
+            }
+            long next = claim(batch, bytes);
+            if (next < 0) {
+                break;
+            }
+            for (int i = 0; i < batch; i++) {
+                this.ring[(int) (next + i) & mask] = records[i];
+            }
+            this.memoryBytes.addAndGet(bytes);
+            this.tail.lazySet(next + batch);
+            remain -= batch;
+        }
+        waitWriterTime += System.nanoTime() - startTime;
+    }
+
+    @Override
+    protected Record doPull()
+    {
+        long startTime = System.nanoTime();
+        long current = discardIfCleared();
+        waitAvailable(current);
+        int index = (int) current & mask;
+        Record r = this.ring[index];
+        this.ring[index] = null;
+        this.memoryBytes.addAndGet(-r.getMemorySize());
+        this.head.lazySet(current + 1);
+        waitReaderTime += System.nanoTime() - startTime;
+        return r;
+    }
+
+    @Override
+    protected void doPullAll(Collection<Record> rs)
+    {
+        assert rs != null;
+        rs.clear();
+        long startTime = System.nanoTime();
+        long current = discardIfCleared();
+        long available = waitAvailable(current);
+        int batch = (int) Math.min(available - current, this.bufferSize);
+        long bytes = 0;
+        for (int i = 0; i < batch; i++) {
+            int index = (int) (current + i) & mask;
+            Record r = this.ring[index];
+            this.ring[index] = null;
+            bytes += r.getMemorySize();
+            rs.add(r);
+        }
+        this.memoryBytes.addAndGet(-bytes);
+        this.head.lazySet(current + batch);
+        waitReaderTime += System.nanoTime() - startTime;
+    }
+
+    /**
+     * 生产者申请 n 个连续槽位，直到环上有足够的空位并且内存占用不超过 byteCapacity
+     *
+     * @param n the number of slots to claim
+     * @param bytes the memory size of the records to be published
+     * @return the first claimed sequence, or -1 if the channel was cleared
+     */
+    private long claim(int n, long bytes)
+    {
+        long next = this.tail.get();
+        long wrapPoint = next + n - this.ring.length;
+        int counter = 0;
+        while (wrapPoint > this.cachedHead || !hasMemory(bytes)) {
+            if (this.cleared) {
+                return -1;
+            }
+            this.cachedHead = this.head.get();
+            if (wrapPoint <= this.cachedHead && hasMemory(bytes)) {
+                break;
+            }
+            counter = idle(counter);
+        }
+        return next;
+    }
+
+    /**
+     * 通道被清空后，由消费者丢弃已发布但还未读取的记录
+     *
+     * @return the sequence of the next record to read
+     */
+    private long discardIfCleared()
+    {
+        long current = this.head.get();
+        if (!this.cleared) {
+            return current;
+        }
+        long end = this.tail.get();
+        long bytes = 0;
+        for (; current < end; current++) {
+            int index = (int) current & mask;
+            bytes += this.ring[index].getMemorySize();
+            this.ring[index] = null;
+        }
+        this.memoryBytes.addAndGet(-bytes);
+        this.head.lazySet(end);
+        return end;
+    }
+
+    private boolean hasMemory(long bytes)
+    {
+        long used = this.memoryBytes.get();
+        // 通道为空时总是允许写入，避免单批超过 byteCapacity 时永久阻塞
+        return used == 0 || used + bytes <= this.byteCapacity;
+    }
+
+    /**
+     * 消费者等待至少有一条已发布的记录
+     *
+     * @param current the sequence of the next record to read
+     * @return the published tail sequence
+     */
+    private long waitAvailable(long current)
+    {
+        int counter = 0;
+        while (current >= this.cachedTail) {
+            this.cachedTail = this.tail.get();
+            if (current < this.cachedTail) {
+                break;
+            }
+            counter = idle(counter);
+        }
+        return this.cachedTail;
+    }
+
+    private int idle(int counter)
+    {
+        if (Thread.currentThread().isInterrupted()) {
+            throw AddaxException.asAddaxException(FrameworkErrorCode.RUNTIME_ERROR,
+                    new InterruptedException("The channel was interrupted while waiting."));
+        }
+        return this.waitStrategy.idle(counter);
+    }
+
+    @Override
+    public int size()
+    {
+        return (int) (this.tail.get() - this.head.get());
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.tail.get() == this.head.get();
+    }
+
+    /**
+     * 等待策略
+     * busySpin: 一直自旋，延迟最低，但会占满一个 CPU 核
+     * yield: 先自旋一段时间，然后调用 Thread.yield() 让出 CPU
+     * park: 先自旋和让出，仍然等不到时通过 LockSupport.parkNanos 挂起，逐步增加挂起时间
+     */
+    enum WaitStrategy
+    {
+        BUSY_SPIN {
+            @Override
+            int idle(int counter)
+            {
+                return counter;
+            }
+        },
+        YIELD {
+            @Override
+            int idle(int counter)
+            {
+                if (counter < SPIN_TRIES) {
+                    return counter + 1;
+                }
+                Thread.yield();
+                return counter;
+            }
+        },
+        PARK {
+            @Override
+            int idle(int counter)
+            {
+                if (counter < SPIN_TRIES) {
+                    return counter + 1;
+                }
+                if (counter < SPIN_TRIES * 2) {
+                    Thread.yield();
+                    return counter + 1;
+                }
+                // 最长挂起 1ms
+                int shift = Math.min(counter - SPIN_TRIES * 2, 10);
+                LockSupport.parkNanos(1000L << shift);
+                return Math.min(counter + 1, SPIN_TRIES * 2 + 10);
+            }
+        };
+
+        private static final int SPIN_TRIES = 100;
+
+        abstract int idle(int counter);
+
+        static WaitStrategy parse(String name)
+        {
+            switch (name.toLowerCase()) {
+                case "busyspin":
+                    return BUSY_SPIN;
+                case "yield":
+                    return YIELD;
+                case "park":
+                    return PARK;
+                default:
+                    throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR,
+                            String.format("The wait strategy [%s] is not supported, only busySpin, yield and park are supported.", name));
+            }
+        }
+    }
+
+    /**
+     * 在序号前后填充，避免头尾指针落在同一缓存行上产生伪共享
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence
+            extends AtomicLong
+    {
+        private static final long serialVersionUID = 1L;
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
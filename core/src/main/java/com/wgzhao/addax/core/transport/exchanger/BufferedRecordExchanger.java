@@ -20,6 +20,7 @@
 package com.wgzhao.addax.core.transport.exchanger;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.batch.RecordBatch;
 import com.wgzhao.addax.common.exception.CommonErrorCode;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
@@ -27,8 +28,9 @@ import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.record.BatchRecord;
+import com.wgzhao.addax.core.transport.record.RecordFactory;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
-import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -42,20 +44,27 @@ public class BufferedRecordExchanger
         implements RecordSender, RecordReceiver
 {
 
-    private static Class<? extends Record> recordClass;
     protected final int byteCapacity;
     private final Channel channel;
     private final List<Record> buffer;
     private final AtomicInteger memoryBytes = new AtomicInteger(0);
     private final TaskPluginCollector pluginCollector;
+    private final RecordFactory recordFactory;
 
     private static final Logger logger = LoggerFactory.getLogger(BufferedRecordExchanger.class);
     private int bufferSize;
     private int bufferIndex = 0;
     private volatile boolean shutdown = false;
+    // 当前正在以行的方式读取的列式批次
+    private RecordBatch currentBatch;
+    private int currentBatchRow = 0;
 
-    @SuppressWarnings("unchecked")
     public BufferedRecordExchanger(Channel channel, TaskPluginCollector pluginCollector)
+    {
+        this(channel, pluginCollector, new RecordFactory(channel.getConfiguration()));
+    }
+
+    public BufferedRecordExchanger(Channel channel, TaskPluginCollector pluginCollector, RecordFactory recordFactory)
     {
         assert null != channel;
         assert null != channel.getConfiguration();
@@ -71,26 +80,13 @@ public class BufferedRecordExchanger
         this.byteCapacity = configuration.getInt(
                 CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
 
-        try {
-            BufferedRecordExchanger.recordClass = ((Class<? extends Record>) Class
-                    .forName(configuration.getString(
-                            CoreConstant.CORE_TRANSPORT_RECORD_CLASS,
-                            "com.wgzhao.addax.core.transport.record.DefaultRecord")));
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR, e);
-        }
+        this.recordFactory = recordFactory;
     }
 
     @Override
     public Record createRecord()
     {
-        try {
-            return BufferedRecordExchanger.recordClass.getConstructor().newInstance();
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR, e);
-        }
+        return this.recordFactory.createRecord();
     }
 
     @Override
@@ -114,11 +110,31 @@ public class BufferedRecordExchanger
             flush();
         }
 
+        this.recordFactory.retain(record);
         this.buffer.add(record);
         this.bufferIndex++;
         memoryBytes.addAndGet(record.getMemorySize());
     }
 
+    @Override
+    public void sendToWriter(RecordBatch batch)
+    {
+        if (shutdown) {
+            throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "");
+        }
+
+        Validate.notNull(batch, "The record batch cannot be empty.");
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // 保持和之前发送的单条记录的顺序
+        if (!this.buffer.isEmpty()) {
+            flush();
+        }
+        this.channel.push(new BatchRecord(batch));
+    }
+
     @Override
     public void flush()
     {
@@ -147,6 +163,17 @@ public class BufferedRecordExchanger
         if (shutdown) {
             throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "");
         }
+        if (this.currentBatch != null) {
+            // 对于不支持列式批次的 writer，逐行返回批次的行视图，
+            // 行视图没有经过通道，这里增加一次引用，writer 释放后才能归还到对象池
+            if (this.currentBatchRow < this.currentBatch.size()) {
+                Record row = this.currentBatch.fillRecord(this.currentBatchRow++, createRecord());
+                this.recordFactory.retain(row);
+                return row;
+            }
+            this.currentBatch = null;
+        }
+
         boolean isEmpty = (this.bufferIndex >= this.buffer.size());
         if (isEmpty) {
             receive();
@@ -156,9 +183,62 @@ public class BufferedRecordExchanger
         if (record instanceof TerminateRecord) {
             record = null;
         }
+        else if (record instanceof BatchRecord) {
+            this.currentBatch = ((BatchRecord) record).getBatch();
+            this.currentBatchRow = 0;
+            return getFromReader();
+        }
         return record;
     }
 
+    @Override
+    public RecordBatch getBatchFromReader()
+    {
+        if (shutdown) {
+            throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "");
+        }
+
+        List<Record> rows = new ArrayList<>();
+        if (this.currentBatch != null) {
+            while (this.currentBatchRow < this.currentBatch.size()) {
+                rows.add(this.currentBatch.fillRecord(this.currentBatchRow++, createRecord()));
+            }
+            this.currentBatch = null;
+            if (!rows.isEmpty()) {
+                return RecordBatch.fromRecords(rows);
+            }
+        }
+
+        if (this.bufferIndex >= this.buffer.size()) {
+            receive();
+        }
+
+        // 列式批次直接返回，连续的单条记录打包成一个批次返回
+        while (this.bufferIndex < this.buffer.size()) {
+            Record record = this.buffer.get(this.bufferIndex);
+            if (record instanceof BatchRecord) {
+                if (rows.isEmpty()) {
+                    this.bufferIndex++;
+                    return ((BatchRecord) record).getBatch();
+                }
+                break;
+            }
+            if (record instanceof TerminateRecord) {
+                // 保留结束标记，下次调用时返回 null
+                break;
+            }
+            rows.add(record);
+            this.bufferIndex++;
+        }
+        return rows.isEmpty() ? null : RecordBatch.fromRecords(rows);
+    }
+
+    @Override
+    public void release(Record record)
+    {
+        this.recordFactory.release(record);
+    }
+
     @Override
     public void shutdown()
     {
@@ -28,9 +28,9 @@ import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.record.RecordFactory;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
-import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import org.apache.commons.lang3.Validate;
 
@@ -43,20 +43,29 @@ public class BufferedRecordTransformerExchanger
         implements RecordSender, RecordReceiver
 {
 
-    private static Class<? extends Record> RECORD_CLASS;
     protected final int byteCapacity;
     private final Channel channel;
     private final List<Record> buffer;
     private final AtomicInteger memoryBytes = new AtomicInteger(0);
+    private final RecordFactory recordFactory;
     private int bufferSize;
     private int bufferIndex = 0;
     private volatile boolean shutdown = false;
 
-    @SuppressWarnings("unchecked")
     public BufferedRecordTransformerExchanger(int taskGroupId, int taskId,
             Channel channel, Communication communication,
             TaskPluginCollector pluginCollector,
             List<TransformerExecution> tInfoExecs)
+    {
+        this(taskGroupId, taskId, channel, communication, pluginCollector, tInfoExecs,
+                new RecordFactory(channel.getConfiguration()));
+    }
+
+    public BufferedRecordTransformerExchanger(int taskGroupId, int taskId,
+            Channel channel, Communication communication,
+            TaskPluginCollector pluginCollector,
+            List<TransformerExecution> tInfoExecs,
+            RecordFactory recordFactory)
     {
         super(taskGroupId, taskId, communication, tInfoExecs, pluginCollector);
         assert null != channel;
@@ -72,28 +81,13 @@ public class BufferedRecordTransformerExchanger
         this.byteCapacity = configuration.getInt(
                 CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
 
-        try {
-            BufferedRecordTransformerExchanger.RECORD_CLASS = ((Class<? extends Record>) Class
-                    .forName(configuration.getString(
-                            CoreConstant.CORE_TRANSPORT_RECORD_CLASS,
-                            "com.wgzhao.addax.core.transport.record.DefaultRecord")));
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
+        this.recordFactory = recordFactory;
     }
 
     @Override
     public Record createRecord()
     {
-        try {
-            return BufferedRecordTransformerExchanger.RECORD_CLASS.getConstructor().newInstance();
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
+        return this.recordFactory.createRecord();
     }
 
     @Override
@@ -123,6 +117,7 @@ public class BufferedRecordTransformerExchanger
             flush();
         }
 
+        this.recordFactory.retain(record);
         this.buffer.add(record);
         this.bufferIndex++;
         memoryBytes.addAndGet(record.getMemorySize());
@@ -170,6 +165,12 @@ public class BufferedRecordTransformerExchanger
         return record;
     }
 
+    @Override
+    public void release(Record record)
+    {
+        this.recordFactory.release(record);
+    }
+
     @Override
     public void shutdown()
     {
@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.exchanger;
+
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.exception.CommonErrorCode;
+import com.wgzhao.addax.common.plugin.RecordSender;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.statistics.communication.Communication;
+import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.record.RecordFactory;
+import com.wgzhao.addax.core.transport.record.TerminateRecord;
+import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
+import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 使用多个工作线程执行 transformer 的 RecordSender。
+ * <p>
+ * reader 线程把记录攒成批次后交给工作线程转换，转换完成的批次仍然由 reader 线程写入通道，
+ * 因此通道始终只有一个生产者。{@code ordered} 为 true 时按照提交顺序写入通道，否则按照完成顺序写入。
+ * 在途批次(已提交但还没有写入通道)的总字节数不超过 byteCapacity，超过时 reader 线程等待最早提交(或最先完成)的批次。
+ * <p>
+ * 每个批次从空闲的 transformer 实例中取出一组使用，没有空闲实例时重新编译一组，因此同一个实例不会被多个线程同时调用，
+ * 实例的数量不超过 parallelism。
+ * <p>
+ * 可以通过 {@code core.transport.transformer.parallelism} 启用
+ */
+public class ParallelRecordTransformerExchanger
+        extends TransformerExchanger
+        implements RecordSender
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelRecordTransformerExchanger.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final Channel channel;
+    private final RecordFactory recordFactory;
+    private final int bufferSize;
+    private final int byteCapacity;
+    private final int parallelism;
+    private final boolean ordered;
+    // 在途批次的数量上限，保证每个工作线程都有一个批次在处理，同时有一个批次在排队
+    private final int maxPending;
+    // 空闲的 transformer 实例，工作线程处理批次时独占一组
+    private final Queue<List<TransformerExecution>> idleTransformerExecs = new ConcurrentLinkedQueue<>();
+
+    // 以下字段只由 reader 线程访问
+    private final Deque<Future<Batch>> pending = new ArrayDeque<>();
+    private List<Record> buffer;
+    private long bufferBytes = 0;
+    private int pendingCount = 0;
+    private long pendingBytes = 0;
+    private ThreadPoolExecutor executor;
+    private CompletionService<Batch> completionService;
+
+    private volatile boolean shutdown = false;
+
+    public ParallelRecordTransformerExchanger(int taskGroupId, int taskId,
+            Channel channel, Communication communication,
+            TaskPluginCollector pluginCollector,
+            List<TransformerExecution> tInfoExecs,
+            RecordFactory recordFactory)
+    {
+        super(taskGroupId, taskId, communication, tInfoExecs, pluginCollector);
+        this.channel = channel;
+        this.recordFactory = recordFactory;
+
+        Configuration configuration = channel.getConfiguration();
+        this.bufferSize = configuration.getInt(CoreConstant.CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
+        this.byteCapacity = configuration.getInt(CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
+        this.parallelism = configuration.getInt(CoreConstant.CORE_TRANSPORT_TRANSFORMER_PARALLELISM, 1);
+        this.ordered = configuration.getBool(CoreConstant.CORE_TRANSPORT_TRANSFORMER_ORDERED, true);
+        this.maxPending = this.parallelism * 2;
+        this.buffer = new ArrayList<>(this.bufferSize);
+        this.idleTransformerExecs.add(tInfoExecs);
+    }
+
+    @Override
+    public Record createRecord()
+    {
+        return this.recordFactory.createRecord();
+    }
+
+    @Override
+    public void sendToWriter(Record record)
+    {
+        checkShutdown();
+        Validate.notNull(record, "The record cannot be empty.");
+
+        this.buffer.add(record);
+        this.bufferBytes += record.getMemorySize();
+        if (this.buffer.size() >= this.bufferSize || this.bufferBytes >= this.byteCapacity) {
+            submit();
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        checkShutdown();
+        submit();
+        while (this.pendingCount > 0) {
+            push(nextBatch(true));
+        }
+        doStat();
+    }
+
+    @Override
+    public void terminate()
+    {
+        checkShutdown();
+        flush();
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        this.channel.pushTerminate(TerminateRecord.get());
+    }
+
+    @Override
+    public void shutdown()
+    {
+        shutdown = true;
+        try {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+            }
+            this.buffer.clear();
+            this.channel.clear();
+        }
+        catch (Throwable t) {
+            LOG.error("Failed to shut down the transformer exchanger", t);
+        }
+    }
+
+    private void checkShutdown()
+    {
+        if (shutdown) {
+            throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "");
+        }
+    }
+
+    /**
+     * 把当前缓冲区作为一个批次提交给工作线程，在途批次过多或者占用的内存超过 byteCapacity 时先等待已提交的批次完成
+     */
+    private void submit()
+    {
+        if (this.buffer.isEmpty()) {
+            return;
+        }
+        if (this.executor == null) {
+            startExecutor();
+        }
+
+        long bytes = this.bufferBytes;
+        while (this.pendingCount > 0
+                && (this.pendingCount >= this.maxPending || this.pendingBytes + bytes > this.byteCapacity)) {
+            push(nextBatch(true));
+        }
+
+        List<Record> records = this.buffer;
+        // 有序模式只从 pending 中按照提交顺序取出批次，不使用 completionService，否则其完成队列中的批次永远不会被取出
+        if (this.ordered) {
+            this.pending.add(this.executor.submit(() -> transform(records, bytes)));
+        }
+        else {
+            this.completionService.submit(() -> transform(records, bytes));
+        }
+        this.pendingCount++;
+        this.pendingBytes += bytes;
+        this.buffer = new ArrayList<>(this.bufferSize);
+        this.bufferBytes = 0;
+
+        // 顺便把已经完成的批次写入通道，避免转换完成的记录在内存中停留过久
+        Batch batch;
+        while ((batch = nextBatch(false)) != null) {
+            push(batch);
+        }
+    }
+
+    /*
+     * 工作线程使用 reader 线程的 contextClassLoader，和在 reader 线程中直接转换时保持一致
+     * 空闲的工作线程超时后自动退出，reader 异常退出而没有调用 terminate 时也不会残留线程
+     */
+    private void startExecutor()
+    {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, String.format("transformer-%d-%d-%d", taskGroupId, taskId,
+                    threadNumber.getAndIncrement()));
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        if (!this.ordered) {
+            this.completionService = new ExecutorCompletionService<>(this.executor);
+        }
+    }
+
+    /**
+     * 在工作线程中执行，被过滤的记录、转换失败的记录以及超过 byteCapacity 的记录不会写入通道
+     *
+     * @param records the records to transform
+     * @param bytes the memory size of the records before transformation
+     * @return the transformed batch
+     */
+    private Batch transform(List<Record> records, long bytes)
+    {
+        List<TransformerExecution> executions = acquireTransformerExecs();
+        try {
+            List<Record> result = new ArrayList<>(records.size());
+            for (Record record : records) {
+                checkShutdown();
+                Record transformed = doTransformer(record, executions);
+                if (transformed == null) {
+                    continue;
+                }
+                if (transformed.getMemorySize() > this.byteCapacity) {
+                    this.pluginCollector.collectDirtyRecord(transformed,
+                            new Exception(String.format("A single record exceeds the size limit. The current limit is %d", this.byteCapacity)));
+                    continue;
+                }
+                result.add(transformed);
+            }
+            return new Batch(result, bytes);
+        }
+        finally {
+            this.idleTransformerExecs.add(executions);
+        }
+    }
+
+    private List<TransformerExecution> acquireTransformerExecs()
+    {
+        List<TransformerExecution> executions = this.idleTransformerExecs.poll();
+        if (executions != null) {
+            return executions;
+        }
+        List<TransformerExecution> origin = getTransformerExecs();
+        executions = new ArrayList<>(origin.size());
+        for (TransformerExecution execution : origin) {
+            executions.add(execution.copy());
+        }
+        addCompileTime(executions);
+        return executions;
+    }
+
+    /**
+     * 取出下一个完成的批次，有序模式下为最早提交的批次
+     *
+     * @param wait 是否等待批次完成
+     * @return the next transformed batch, or null if there is no finished batch and wait is false
+     */
+    private Batch nextBatch(boolean wait)
+    {
+        if (this.pendingCount == 0) {
+            return null;
+        }
+        Future<Batch> future;
+        try {
+            if (this.ordered) {
+                future = this.pending.peek();
+                if (!wait && !future.isDone()) {
+                    return null;
+                }
+                this.pending.poll();
+            }
+            else {
+                future = wait ? this.completionService.take() : this.completionService.poll();
+                if (future == null) {
+                    return null;
+                }
+            }
+            Batch batch = future.get();
+            this.pendingCount--;
+            this.pendingBytes -= batch.bytes;
+            return batch;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AddaxException.asAddaxException(FrameworkErrorCode.RUNTIME_ERROR, e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof AddaxException) {
+                throw (AddaxException) e.getCause();
+            }
+            throw AddaxException.asAddaxException(FrameworkErrorCode.RUNTIME_ERROR, e.getCause());
+        }
+    }
+
+    private void push(Batch batch)
+    {
+        if (!batch.records.isEmpty()) {
+            for (Record record : batch.records) {
+                this.recordFactory.retain(record);
+            }
+            this.channel.pushAll(batch.records);
+        }
+        //和channel的统计保持同步
+        doStat();
+    }
+
+    private static final class Batch
+    {
+        private final List<Record> records;
+        // 转换前的内存占用，用来计算在途批次的内存
+        private final long bytes;
+
+        Batch(List<Record> records, long bytes)
+        {
+            this.records = records;
+            this.bytes = bytes;
+        }
+    }
+}
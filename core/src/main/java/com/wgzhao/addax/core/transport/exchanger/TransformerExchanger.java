@@ -23,12 +23,13 @@ import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.core.statistics.communication.Communication;
-import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.statistics.communication.CommunicationCounter;
 import com.wgzhao.addax.core.transport.transformer.TransformerErrorCode;
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
 import com.wgzhao.addax.core.util.container.ClassLoaderSwapper;
 
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * no comments.
@@ -43,11 +44,12 @@ public abstract class TransformerExchanger
     protected final int taskId;
     protected final Communication currentCommunication;
     private final List<TransformerExecution> transformerExecs;
-    private final ClassLoaderSwapper classLoaderSwapper = ClassLoaderSwapper.newCurrentThreadClassLoaderSwapper();
-    private long totalExhaustedTime = 0;
-    private long totalFilterRecords = 0;
-    private long totalSuccessRecords = 0;
-    private long totalFailedRecords = 0;
+    // 开启并行转换时 doTransformer 会被多个线程同时调用
+    private final LongAdder totalExhaustedTime = new LongAdder();
+    private final LongAdder totalFilterRecords = new LongAdder();
+    private final LongAdder totalSuccessRecords = new LongAdder();
+    private final LongAdder totalFailedRecords = new LongAdder();
+    private final LongAdder totalCompileTime = new LongAdder();
 
     public TransformerExchanger(int taskGroupId, int taskId, Communication communication,
             List<TransformerExecution> transformerExecs,
@@ -59,9 +61,30 @@ public abstract class TransformerExchanger
         this.taskGroupId = taskGroupId;
         this.taskId = taskId;
         this.currentCommunication = communication;
+
+        addCompileTime(transformerExecs);
+    }
+
+    protected List<TransformerExecution> getTransformerExecs()
+    {
+        return transformerExecs;
+    }
+
+    protected void addCompileTime(List<TransformerExecution> executions)
+    {
+        if (executions != null) {
+            for (TransformerExecution transformerExec : executions) {
+                totalCompileTime.add(transformerExec.getCompileTime());
+            }
+        }
     }
 
     public Record doTransformer(Record record)
+    {
+        return doTransformer(record, transformerExecs);
+    }
+
+    protected Record doTransformer(Record record, List<TransformerExecution> transformerExecs)
     {
         if (transformerExecs == null || transformerExecs.isEmpty()) {
             return record;
@@ -69,76 +92,81 @@ public abstract class TransformerExchanger
 
         Record result = record;
 
-        long diffExhaustedTime = 0;
+        long startTs = System.nanoTime();
         String errorMsg = null;
         boolean failed = false;
-        for (TransformerExecution transformerInfoExec : transformerExecs) {
-            long startTs = System.nanoTime();
+        // 当前已经切换到的 classLoader，null 表示未切换。相邻的 transformer 属于同一个插件时不再重复切换
+        ClassLoader swappedClassLoader = null;
+        ClassLoaderSwapper classLoaderSwapper = null;
+        try {
+            for (TransformerExecution transformerInfoExec : transformerExecs) {
+                ClassLoader classLoader = transformerInfoExec.getClassLoader();
+                if (classLoader != swappedClassLoader) {
+                    if (swappedClassLoader != null) {
+                        classLoaderSwapper.restoreCurrentThreadClassLoader();
+                    }
+                    if (classLoader != null) {
+                        if (classLoaderSwapper == null) {
+                            classLoaderSwapper = ClassLoaderSwapper.newCurrentThreadClassLoaderSwapper();
+                        }
+                        classLoaderSwapper.setCurrentThreadClassLoader(classLoader);
+                    }
+                    swappedClassLoader = classLoader;
+                }
 
-            if (transformerInfoExec.getClassLoader() != null) {
-                classLoaderSwapper.setCurrentThreadClassLoader(transformerInfoExec.getClassLoader());
-            }
+                /*
+                 * 延迟检查transformer参数的有效性，直接抛出异常，不作为脏数据
+                 * 不需要在插件中检查参数的有效性。但参数的个数等和插件相关的参数，在插件内部检查
+                 */
+                if (!transformerInfoExec.isChecked()) {
+
+                    if (transformerInfoExec.getColumnIndex() != null
+                            && transformerInfoExec.getColumnIndex() >= record.getColumnNumber()) {
+                        throw AddaxException.asAddaxException(TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
+                                String.format("columnIndex[%s] out of bound[%s]. name=%s",
+                                        transformerInfoExec.getColumnIndex(), record.getColumnNumber(),
+                                        transformerInfoExec.getTransformerName()));
+                    }
+                    transformerInfoExec.setIsChecked(true);
+                }
 
-            /*
-             * 延迟检查transformer参数的有效性，直接抛出异常，不作为脏数据
-             * 不需要在插件中检查参数的有效性。但参数的个数等和插件相关的参数，在插件内部检查
-             */
-            if (!transformerInfoExec.isChecked()) {
-
-                if (transformerInfoExec.getColumnIndex() != null
-                        && transformerInfoExec.getColumnIndex() >= record.getColumnNumber()) {
-                    throw AddaxException.asAddaxException(TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
-                            String.format("columnIndex[%s] out of bound[%s]. name=%s",
-                                    transformerInfoExec.getColumnIndex(), record.getColumnNumber(),
-                                    transformerInfoExec.getTransformerName()));
+                try {
+                    result = transformerInfoExec.getCompiledTransformer().evaluate(result);
+                }
+                catch (Exception e) {
+                    errorMsg = String.format("The transformer(%s) has encountered an exception(%s)",
+                            transformerInfoExec.getTransformerName(),
+                            e.getMessage());
+                    failed = true;
+                    //脏数据不再进行后续transformer处理，按脏数据处理，并过滤该record。
+                    break;
                 }
-                transformerInfoExec.setIsChecked(true);
-            }
 
-            try {
-                result = transformerInfoExec
-                        .getTransformer()
-                        .evaluate(result, transformerInfoExec.getContext(),
-                                transformerInfoExec.getFinalParas());
-            }
-            catch (Exception e) {
-                errorMsg = String.format("The transformer(%s) has encountered an exception(%s)",
-                        transformerInfoExec.getTransformerName(),
-                        e.getMessage());
-                failed = true;
-                //LOG.error(errorMsg, e);
-                // transformerInfoExec.addFailedRecords(1);
-                //脏数据不再进行后续transformer处理，按脏数据处理，并过滤该record。
-                break;
-            }
-            finally {
-                if (transformerInfoExec.getClassLoader() != null) {
-                    classLoaderSwapper.restoreCurrentThreadClassLoader();
+                if (result == null) {
+                    /*
+                     * 这个null不能传到writer，必须消化掉
+                     */
+                    totalFilterRecords.increment();
+                    break;
                 }
             }
-
-            if (result == null) {
-                /*
-                 * 这个null不能传到writer，必须消化掉
-                 */
-                totalFilterRecords++;
-                //transformerInfoExec.addFilterRecords(1);
-                break;
+        }
+        finally {
+            if (swappedClassLoader != null) {
+                classLoaderSwapper.restoreCurrentThreadClassLoader();
             }
-
-            long diff = System.nanoTime() - startTs;
-            diffExhaustedTime += diff;
         }
 
-        totalExhaustedTime += diffExhaustedTime;
+        long diffExhaustedTime = System.nanoTime() - startTs;
+        totalExhaustedTime.add(diffExhaustedTime);
 
         if (failed) {
-            totalFailedRecords++;
+            totalFailedRecords.increment();
             this.pluginCollector.collectDirtyRecord(record, errorMsg);
             return null;
         }
         else {
-            totalSuccessRecords++;
+            totalSuccessRecords.increment();
             return result;
         }
     }
@@ -152,9 +180,10 @@ public abstract class TransformerExchanger
 //                currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_NAME_PREFIX + transformerInfoExec.getTransformerName(), transformerInfoExec.getExaustedTime());
 //            }
 //        }
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_SUCCEED_RECORDS, totalSuccessRecords);
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_FAILED_RECORDS, totalFailedRecords);
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_FILTER_RECORDS, totalFilterRecords);
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_USED_TIME, totalExhaustedTime);
+        currentCommunication.setLongCounter(CommunicationCounter.TRANSFORMER_SUCCEED_RECORDS, totalSuccessRecords.sum());
+        currentCommunication.setLongCounter(CommunicationCounter.TRANSFORMER_FAILED_RECORDS, totalFailedRecords.sum());
+        currentCommunication.setLongCounter(CommunicationCounter.TRANSFORMER_FILTER_RECORDS, totalFilterRecords.sum());
+        currentCommunication.setLongCounter(CommunicationCounter.TRANSFORMER_USED_TIME, totalExhaustedTime.sum());
+        currentCommunication.setLongCounter(CommunicationCounter.TRANSFORMER_COMPILE_TIME, totalCompileTime.sum());
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.record;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.batch.RecordBatch;
+
+import java.util.Map;
+
+/**
+ * 用于在 channel 中传输一整批列式数据的载体，channel 在统计时按批内的行数计算记录数
+ */
+public class BatchRecord
+        implements Record
+{
+    private final RecordBatch batch;
+
+    private Map<String, String> meta;
+
+    public BatchRecord(RecordBatch batch)
+    {
+        this.batch = batch;
+    }
+
+    public RecordBatch getBatch()
+    {
+        return batch;
+    }
+
+    @Override
+    public void addColumn(Column column)
+    {
+        throw unsupported();
+    }
+
+    @Override
+    public void setColumn(int i, Column column)
+    {
+        throw unsupported();
+    }
+
+    @Override
+    public Column getColumn(int i)
+    {
+        throw unsupported();
+    }
+
+    /*
+     * 一个 BatchRecord 包含多行数据，没有单独的列，只能通过 getBatch() 按行列访问
+     */
+    private UnsupportedOperationException unsupported()
+    {
+        return new UnsupportedOperationException(String.format(
+                "%s holds %d rows, access the columns through getBatch() or split it into rows", this, batch.size()));
+    }
+
+    @Override
+    public int getColumnNumber()
+    {
+        return batch.getColumnNumber();
+    }
+
+    @Override
+    public int getByteSize()
+    {
+        return batch.getByteSize();
+    }
+
+    @Override
+    public int getMemorySize()
+    {
+        return batch.getMemorySize();
+    }
+
+    @Override
+    public void setMeta(Map<String, String> meta)
+    {
+        this.meta = meta;
+    }
+
+    @Override
+    public Map<String, String> getMeta()
+    {
+        return this.meta;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("RecordBatch[rows=%d, columns=%d]", batch.size(), batch.getColumnNumber());
+    }
+}
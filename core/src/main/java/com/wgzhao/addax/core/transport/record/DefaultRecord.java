@@ -25,11 +25,14 @@ import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.core.util.ClassSize;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Created by jingxing on 14-8-24.
@@ -38,6 +41,7 @@ import java.util.Map;
 public class DefaultRecord
         implements Record
 {
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultRecord.class);
 
     private static final int RECORD_AVERAGE_COLUMN_NUMBER = 16;
 
@@ -50,6 +54,15 @@ public class DefaultRecord
 
     private Map<String, String> meta;
 
+    private static final AtomicIntegerFieldUpdater<DefaultRecord> REFERENCES =
+            AtomicIntegerFieldUpdater.newUpdater(DefaultRecord.class, "references");
+
+    // 仍在通道中或被 writer 持有的次数，只有开启记录复用时才会维护
+    private volatile int references = 0;
+
+    // 是否已经归还到对象池
+    private volatile boolean pooled = false;
+
     public DefaultRecord()
     {
         this.columns = new ArrayList<>(RECORD_AVERAGE_COLUMN_NUMBER);
@@ -126,6 +139,63 @@ public class DefaultRecord
         return this.meta;
     }
 
+    /**
+     * 清空列和元数据，保留列表的容量，以便从对象池中取出后重新使用
+     */
+    public void reset()
+    {
+        this.columns.clear();
+        this.byteSize = 0;
+        this.memorySize = ClassSize.DEFAULT_RECORD_HEAD;
+        this.meta = null;
+    }
+
+    void retain()
+    {
+        REFERENCES.incrementAndGet(this);
+    }
+
+    /**
+     * 释放一次引用。没有引用的记录(例如不经过通道的记录，或者被重复释放的记录)不会被释放，
+     * 引用计数不会小于 0，也不会被归还到对象池
+     *
+     * @return true 表示已经没有引用，调用方应当把记录归还到对象池
+     */
+    boolean release()
+    {
+        int current;
+        do {
+            current = REFERENCES.get(this);
+            if (current <= 0) {
+                LOG.debug("Ignore releasing a record without references: {}", this);
+                return false;
+            }
+        }
+        while (!REFERENCES.compareAndSet(this, current, current - 1));
+
+        if (current == 1 && !this.pooled) {
+            this.pooled = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 从对象池中取出时调用。reader 可能在记录归还后仍然重复发送同一个对象，
+     * 此时记录又被引用，不能重置，直接丢弃
+     *
+     * @return true 表示记录可以复用
+     */
+    boolean recycle()
+    {
+        this.pooled = false;
+        if (REFERENCES.get(this) != 0) {
+            return false;
+        }
+        reset();
+        return true;
+    }
+
     private void decrByteSize(Column column)
     {
         if (null == column) {
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.wgzhao.addax.core.transport.record;
+
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 负责创建 Record 的工厂，每个 Task 创建一个，由 reader 和 writer 两端的 exchanger 共享。
+ * <p>
+ * Record 的类型在构造时解析一次，默认的 {@link DefaultRecord} 直接 new 出来，避免每条记录都走反射。
+ * 当 {@code core.transport.record.recycle} 为 true 时，writer 处理完的记录会通过
+ * {@link #release(Record)} 归还到一个有界的对象池中，reader 再次创建记录时优先从池中取出并重置，
+ * 以降低高吞吐任务下的 GC 压力。插件如果在写出后仍然持有记录，不应开启该选项。
+ */
+public class RecordFactory
+{
+    private final Class<? extends Record> recordClass;
+
+    private final Constructor<? extends Record> constructor;
+
+    // 未开启复用或者记录类型不是 DefaultRecord 时为 null
+    private final ArrayBlockingQueue<DefaultRecord> pool;
+
+    @SuppressWarnings("unchecked")
+    public RecordFactory(Configuration configuration)
+    {
+        try {
+            this.recordClass = (Class<? extends Record>) Class.forName(configuration.getString(
+                    CoreConstant.CORE_TRANSPORT_RECORD_CLASS,
+                    "com.wgzhao.addax.core.transport.record.DefaultRecord"));
+            this.constructor = this.recordClass.getConstructor();
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR, e);
+        }
+
+        boolean recycle = configuration.getBool(CoreConstant.CORE_TRANSPORT_RECORD_RECYCLE, false);
+        if (recycle && this.recordClass == DefaultRecord.class) {
+            // 池中最多保留通道容量加上两端缓冲区大小的记录，足够覆盖所有在途的记录
+            int capacity = configuration.getInt(CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY, 2048)
+                    + 2 * configuration.getInt(CoreConstant.CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
+            this.pool = new ArrayBlockingQueue<>(capacity);
+        }
+        else {
+            this.pool = null;
+        }
+    }
+
+    public Record createRecord()
+    {
+        if (this.pool != null) {
+            DefaultRecord record;
+            while ((record = this.pool.poll()) != null) {
+                if (record.recycle()) {
+                    return record;
+                }
+            }
+        }
+        if (this.recordClass == DefaultRecord.class) {
+            return new DefaultRecord();
+        }
+        try {
+            return this.constructor.newInstance();
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR, e);
+        }
+    }
+
+    public boolean isRecycle()
+    {
+        return this.pool != null;
+    }
+
+    /**
+     * 记录进入通道前调用，增加一次引用
+     *
+     * @param record the record sent to the writer
+     */
+    public void retain(Record record)
+    {
+        if (this.pool != null && record instanceof DefaultRecord) {
+            ((DefaultRecord) record).retain();
+        }
+    }
+
+    /**
+     * writer 处理完记录后调用，引用归零时将记录归还到对象池
+     *
+     * @param record the record consumed by the writer
+     */
+    public void release(Record record)
+    {
+        if (this.pool != null && record instanceof DefaultRecord && ((DefaultRecord) record).release()) {
+            this.pool.offer((DefaultRecord) record);
+        }
+    }
+}
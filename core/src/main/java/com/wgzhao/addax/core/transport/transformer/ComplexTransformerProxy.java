@@ -20,6 +20,7 @@
 package com.wgzhao.addax.core.transport.transformer;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.ComplexTransformer;
 import com.wgzhao.addax.transformer.Transformer;
 
@@ -42,4 +43,9 @@ public class ComplexTransformerProxy
     public Record evaluate(Record record, Map<String, Object> tContext, Object... paras) {
         return this.realTransformer.evaluate(record, paras);
     }
+
+    @Override
+    public CompiledTransformer compile(Map<String, Object> tContext, Object... paras) {
+        return this.realTransformer.compile(paras);
+    }
 }
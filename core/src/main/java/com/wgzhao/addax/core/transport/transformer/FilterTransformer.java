@@ -28,10 +28,12 @@ import com.wgzhao.addax.common.element.LongColumn;
 import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.Transformer;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
+import java.util.regex.Pattern;
 
 /**
  * no comments.
@@ -48,10 +50,16 @@ public class FilterTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
+        return compile(paras).evaluate(record);
+    }
 
+    @Override
+    public CompiledTransformer compile(Object... paras)
+    {
         int columnIndex;
-        String code;
+        Operator operator;
         String value;
+        Pattern pattern = null;
 
         try {
             if (paras.length != 3) {
@@ -59,347 +67,225 @@ public class FilterTransformer
             }
 
             columnIndex = (Integer) paras[0];
-            code = (String) paras[1];
+            operator = Operator.parse((String) paras[1]);
             value = (String) paras[2];
 
             if (StringUtils.isEmpty(value)) {
                 throw new RuntimeException("The second parameter of dx_filter cannot be null");
             }
+            if (operator == Operator.LIKE || operator == Operator.NOT_LIKE) {
+                pattern = Pattern.compile(value);
+            }
         }
         catch (Exception e) {
             throw AddaxException.asAddaxException(TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
                     "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
         }
 
-        Column column = record.getColumn(columnIndex);
+        return new CompiledFilter(columnIndex, operator, value, pattern);
+    }
 
-        try {
+    private enum Operator
+    {
+        LIKE("like"),
+        NOT_LIKE("not like"),
+        GT(">=,>"),
+        GE(">=,>"),
+        LT("<=,<"),
+        LE("<=,<"),
+        EQ("=="),
+        NE("==");
+
+        // 不支持的字段类型的错误信息中使用
+        private final String label;
+
+        Operator(String label)
+        {
+            this.label = label;
+        }
 
+        static Operator parse(String code)
+        {
             if ("like".equalsIgnoreCase(code)) {
-                return doLike(record, value, column);
+                return LIKE;
             }
             else if ("not like".equalsIgnoreCase(code)) {
-                return doNotLike(record, value, column);
+                return NOT_LIKE;
             }
-            else if (">".equalsIgnoreCase(code)) {
-                return doGreat(record, value, column, false);
+            else if (">".equals(code)) {
+                return GT;
             }
-            else if ("<".equalsIgnoreCase(code)) {
-                return doLess(record, value, column, false);
+            else if ("<".equals(code)) {
+                return LT;
             }
-            else if ("=".equalsIgnoreCase(code) || "==".equalsIgnoreCase(code)) {
-                return doEqual(record, value, column);
+            else if ("=".equals(code) || "==".equals(code)) {
+                return EQ;
             }
-            else if ("!=".equalsIgnoreCase(code)) {
-                return doNotEqual(record, value, column);
+            else if ("!=".equals(code)) {
+                return NE;
             }
-            else if (">=".equalsIgnoreCase(code)) {
-                return doGreat(record, value, column, true);
+            else if (">=".equals(code)) {
+                return GE;
             }
-            else if ("<=".equalsIgnoreCase(code)) {
-                return doLess(record, value, column, true);
+            else if ("<=".equals(code)) {
+                return LE;
             }
             else {
                 throw new RuntimeException("dx_filter code:" + code + " is unsupported");
             }
         }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    TransformerErrorCode.TRANSFORMER_RUN_EXCEPTION, e.getMessage(), e);
-        }
-    }
-
-    private Record doGreat(Record record, String value, Column column, boolean hasEqual)
-    {
-
-        //如果字段为空，直接不参与比较。即空也属于无穷小
-        if (column.getRawData() == null) {
-            return record;
-        }
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
 
-            if (hasEqual) {
-                if (ori >= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori > val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
+        boolean test(int compareResult)
+        {
+            switch (this) {
+                case GT:
+                    return compareResult > 0;
+                case GE:
+                    return compareResult >= 0;
+                case LT:
+                    return compareResult < 0;
+                case LE:
+                    return compareResult <= 0;
+                case EQ:
+                    return compareResult == 0;
+                default:
+                    return compareResult != 0;
             }
         }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
 
-            if (hasEqual) {
-                if (ori >= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori > val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-        }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (hasEqual) {
-                if (ori.compareTo(value) >= 0) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori.compareTo(value) > 0) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
+        boolean test(double ori, double val)
+        {
+            switch (this) {
+                case GT:
+                    return ori > val;
+                case GE:
+                    return ori >= val;
+                case LT:
+                    return ori < val;
+                case LE:
+                    return ori <= val;
+                case EQ:
+                    return ori == val;
+                default:
+                    return ori != val;
             }
         }
-        else {
-            throw new RuntimeException(">=,> can't support this columnType:"
-                    + column.getClass().getSimpleName());
-        }
-    }
-
-    private Record doLess(Record record, String value, Column column, boolean hasEqual)
-    {
-
-        //如果字段为空，直接不参与比较。即空也属于无穷大
-        if (column.getRawData() == null) {
-            return record;
-        }
-
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
 
-            if (hasEqual) {
-                if (ori <= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori < val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
+        boolean test(long ori, long val)
+        {
+            switch (this) {
+                case GT:
+                    return ori > val;
+                case GE:
+                    return ori >= val;
+                case LT:
+                    return ori < val;
+                case LE:
+                    return ori <= val;
+                case EQ:
+                    return ori == val;
+                default:
+                    return ori != val;
             }
         }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
-
-            if (hasEqual) {
-                if (ori <= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori < val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-        }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (hasEqual) {
-                if (ori.compareTo(value) <= 0) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori.compareTo(value) < 0) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-        }
-        else {
-            throw new RuntimeException("<=,< can't support this columnType:"
-                    + column.getClass().getSimpleName());
-        }
     }
 
     /**
-     * DateColumn将比较long值，StringColumn，ByteColumn以及BooleanColumn比较其String值
-     * @param record message record
-     * @param value value to compared
-     * @param column the column of record
-     * @return Record
+     * 满足条件的记录被过滤(返回 null)。
+     * DoubleColumn 比较 double 值，LongColumn 和 DateColumn 比较 long 值，StringColumn，BytesColumn 以及 BoolColumn 比较其 String 值
      */
-    private Record doEqual(Record record, String value, Column column)
+    private static final class CompiledFilter
+            implements CompiledTransformer
     {
+        private final int columnIndex;
+        private final Operator operator;
+        private final String value;
+        private final Pattern pattern;
+        private final boolean nullValue;
+        // 预先解析的数值，解析失败时为 null，只有和数值类型的字段比较时才报错
+        private final Double doubleValue;
+        private final Long longValue;
+
+        CompiledFilter(int columnIndex, Operator operator, String value, Pattern pattern)
+        {
+            this.columnIndex = columnIndex;
+            this.operator = operator;
+            this.value = value;
+            this.pattern = pattern;
+            this.nullValue = "null".equalsIgnoreCase(value);
+            this.doubleValue = parseDouble(value);
+            this.longValue = parseLong(value);
+        }
 
-        //如果字段为空，只比较目标字段为"null"，否则null字段均不过滤
-        if (column.getRawData() == null) {
-            if ("null".equalsIgnoreCase(value)) {
-                return null;
+        @Override
+        public Record evaluate(Record record)
+        {
+            Column column = record.getColumn(columnIndex);
+            try {
+                return isFiltered(column) ? null : record;
             }
-            else {
-                return record;
+            catch (Exception e) {
+                throw AddaxException.asAddaxException(
+                        TransformerErrorCode.TRANSFORMER_RUN_EXCEPTION, e.getMessage(), e);
             }
         }
 
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
-
-            if (ori == val) {
-                return null;
+        private boolean isFiltered(Column column)
+        {
+            if (operator == Operator.LIKE || operator == Operator.NOT_LIKE) {
+                String originalValue = column.asString();
+                boolean matched = originalValue != null && pattern.matcher(originalValue).matches();
+                return (operator == Operator.LIKE) == matched;
             }
-            else {
-                return record;
+
+            if (column.getRawData() == null) {
+                //如果字段为空，等于和不等于只比较目标字段为"null"，大于和小于不参与比较
+                if (operator == Operator.EQ) {
+                    return nullValue;
+                }
+                else if (operator == Operator.NE) {
+                    return !nullValue;
+                }
+                return false;
             }
-        }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
 
-            if (ori == val) {
-                return null;
+            if (column instanceof DoubleColumn) {
+                double val = doubleValue != null ? doubleValue : Double.parseDouble(value);
+                return operator.test(column.asDouble(), val);
             }
-            else {
-                return record;
+            else if (column instanceof LongColumn || column instanceof DateColumn) {
+                long val = longValue != null ? longValue : Long.parseLong(value);
+                return operator.test(column.asLong(), val);
             }
-        }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (ori.compareTo(value) == 0) {
-                return null;
+            else if (column instanceof StringColumn
+                    || column instanceof BytesColumn
+                    || column instanceof BoolColumn) {
+                return operator.test(column.asString().compareTo(value));
             }
             else {
-                return record;
+                throw new RuntimeException(operator.label + " can't support this columnType:"
+                        + column.getClass().getSimpleName());
             }
         }
-        else {
-            throw new RuntimeException("== can't support this columnType:"
-                    + column.getClass().getSimpleName());
-        }
-    }
 
-    /**
-     * DateColumn将比较long值，StringColumn，ByteColumn以及BooleanColumn比较其String值
-     *
-     * @param record message record
-     * @param value value to compared
-     * @param column the column of record
-     * @return Record
-     */
-    private Record doNotEqual(Record record, String value, Column column)
-    {
-
-        //如果字段为空，只比较目标字段为"null", 否则null字段均过滤。
-        if (column.getRawData() == null) {
-            if ("null".equalsIgnoreCase(value)) {
-                return record;
+        private static Double parseDouble(String value)
+        {
+            try {
+                return Double.parseDouble(value);
             }
-            else {
-                return null;
-            }
-        }
-
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
-
-            if (ori != val) {
+            catch (NumberFormatException e) {
                 return null;
             }
-            else {
-                return record;
-            }
         }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
 
-            if (ori != val) {
-                return null;
+        private static Long parseLong(String value)
+        {
+            try {
+                return Long.parseLong(value);
             }
-            else {
-                return record;
-            }
-        }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (ori.compareTo(value) != 0) {
+            catch (NumberFormatException e) {
                 return null;
             }
-            else {
-                return record;
-            }
-        }
-        else {
-            throw new RuntimeException("== can't support this columnType:"
-                    + column.getClass().getSimpleName());
-        }
-    }
-
-    private Record doLike(Record record, String value, Column column)
-    {
-        String originalValue = column.asString();
-        if (originalValue != null && originalValue.matches(value)) {
-            return null;
-        }
-        else {
-            return record;
-        }
-    }
-
-    private Record doNotLike(Record record, String value, Column column)
-    {
-        String originalValue = column.asString();
-        if (originalValue != null && originalValue.matches(value)) {
-            return record;
-        }
-        else {
-            return null;
         }
     }
 }
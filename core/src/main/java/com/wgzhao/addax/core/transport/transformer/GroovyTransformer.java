@@ -21,6 +21,7 @@ package com.wgzhao.addax.core.transport.transformer;
 
 import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.Transformer;
 import groovy.lang.GroovyClassLoader;
 import org.apache.commons.lang3.StringUtils;
@@ -28,6 +29,8 @@ import org.codehaus.groovy.control.CompilationFailedException;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * no comments.
@@ -36,7 +39,11 @@ import java.util.List;
 public class GroovyTransformer
         extends Transformer
 {
-    private Transformer groovyTransformer;
+    /*
+     * 编译后的脚本类在整个 JVM 中共享，key 为生成的完整脚本(包含 extraPackage 以及是否静态编译)
+     * 同一个作业的所有 task 只编译一次
+     */
+    private static final Map<String, Class<?>> SCRIPT_CACHE = new ConcurrentHashMap<>();
 
     public GroovyTransformer()
     {
@@ -46,42 +53,43 @@ public class GroovyTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
+        return compile(paras).evaluate(record);
+    }
 
-        if (groovyTransformer == null) {
-            //全局唯一
-            if (paras.length < 1 || paras.length > 2) {
-                throw AddaxException.asAddaxException(
-                        TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
-                        "The dx_groovy parameters must be 1 or 2. The current parameter is: " + Arrays.asList(paras));
-            }
-            synchronized (this) {
-
-                if (groovyTransformer == null) {
-                    String code = (String) paras[0];
-                    @SuppressWarnings("unchecked") List<String> extraPackage = paras.length == 2 ?
-                            (List<String>) paras[1] : null;
-                    initGroovyTransformer(code, extraPackage);
-                }
-            }
+    @Override
+    public CompiledTransformer compile(Object... paras)
+    {
+        if (paras.length < 1 || paras.length > 3) {
+            throw AddaxException.asAddaxException(
+                    TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
+                    "The dx_groovy parameters must be 1 to 3. The current parameter is: " + Arrays.asList(paras));
         }
 
-        return this.groovyTransformer.evaluate(record);
+        String code = (String) paras[0];
+        @SuppressWarnings("unchecked") List<String> extraPackage = paras.length >= 2 ?
+                (List<String>) paras[1] : null;
+        boolean compileStatic = paras.length == 3 && Boolean.TRUE.equals(paras[2]);
+        String groovyRule = getGroovyRule(code, extraPackage, compileStatic);
+
+        // 每个 task 使用独立的实例，脚本中的成员变量不会在 task 之间共享
+        Transformer groovyTransformer = newInstance(SCRIPT_CACHE.computeIfAbsent(groovyRule, GroovyTransformer::parseClass));
+        return record -> groovyTransformer.evaluate(record);
     }
 
-    private void initGroovyTransformer(String code, List<String> extraPackage)
+    private static Class<?> parseClass(String groovyRule)
     {
         GroovyClassLoader loader = new GroovyClassLoader(GroovyTransformer.class.getClassLoader());
-        String groovyRule = getGroovyRule(code, extraPackage);
-
-        Class groovyClass;
         try {
-            groovyClass = loader.parseClass(groovyRule);
+            return loader.parseClass(groovyRule);
         }
         catch (CompilationFailedException cfe) {
             throw AddaxException.asAddaxException(
                     TransformerErrorCode.TRANSFORMER_GROOVY_INIT_EXCEPTION, cfe);
         }
+    }
 
+    private static Transformer newInstance(Class<?> groovyClass)
+    {
         try {
             Object t = groovyClass.getConstructor().newInstance();
             if (!(t instanceof Transformer)) {
@@ -89,7 +97,7 @@ public class GroovyTransformer
                         TransformerErrorCode.TRANSFORMER_GROOVY_INIT_EXCEPTION,
                         "Addax bug! ");
             }
-            this.groovyTransformer = (Transformer) t;
+            return (Transformer) t;
         }
         catch (Throwable ex) {
             throw AddaxException.asAddaxException(
@@ -97,7 +105,7 @@ public class GroovyTransformer
         }
     }
 
-    private String getGroovyRule(String expression, List<String> extraPackagesStrList)
+    private static String getGroovyRule(String expression, List<String> extraPackagesStrList, boolean compileStatic)
     {
         StringBuilder sb = new StringBuilder();
         if (extraPackagesStrList != null) {
@@ -112,6 +120,10 @@ public class GroovyTransformer
         sb.append("import com.wgzhao.addax.common.exception.AddaxException;");
         sb.append("import com.wgzhao.addax.transformer.Transformer;");
         sb.append("import java.util.*;");
+        if (compileStatic) {
+            // 静态编译，方法调用在编译期确定，不再经过 groovy 的动态分派
+            sb.append("@groovy.transform.CompileStatic ");
+        }
         sb.append("public class RULE extends Transformer").append("{");
         sb.append("public Record evaluate(Record record, Object... paras) {");
         sb.append(expression);
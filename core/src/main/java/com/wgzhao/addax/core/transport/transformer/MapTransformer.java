@@ -23,6 +23,7 @@ import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.Transformer;
 
 import java.util.Arrays;
@@ -49,13 +50,15 @@ public class MapTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
+        return compile(paras).evaluate(record);
+    }
 
+    @Override
+    public CompiledTransformer compile(Object... paras)
+    {
         int columnIndex;
-        String code;
+        Operation operation;
         String value;
-        String newValue;
-        Column column;
-        int scale = 2; //默认精度
 
         try {
             if (paras.length != 3) {
@@ -63,14 +66,8 @@ public class MapTransformer
             }
 
             columnIndex = (Integer) paras[0];
-            code = (String) paras[1];
+            operation = Operation.parse((String) paras[1]);
             value = (String) paras[2];
-            column = record.getColumn(columnIndex);
-            if (column.getRawData() == null) {
-                return record;
-            }
-
-            Double.valueOf(column.asString());
             Double.valueOf(value);
         }
         catch (Exception e) {
@@ -79,39 +76,113 @@ public class MapTransformer
                     "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
         }
 
-        if (column.asString().split("\\.").length >= 2) {
-            scale = column.asString().split("\\.")[1].length();
+        return record -> doMap(record, columnIndex, operation, value, paras);
+    }
+
+    private static Record doMap(Record record, int columnIndex, Operation operation, String value, Object[] paras)
+    {
+        Column column = record.getColumn(columnIndex);
+        if (column.getRawData() == null) {
+            return record;
+        }
+        String oriValue = column.asString();
+        try {
+            Double.valueOf(oriValue);
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(
+                    TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
+                    "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
         }
 
         try {
+            record.setColumn(columnIndex, new StringColumn(operation.apply(oriValue, value, scaleOf(oriValue))));
+            return record;
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(
+                    TransformerErrorCode.TRANSFORMER_RUN_EXCEPTION, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 除法的精度取字段值的小数位数，没有小数部分时默认为 2
+     */
+    private static int scaleOf(String value)
+    {
+        int dot = value.indexOf('.');
+        if (dot < 0 || dot == value.length() - 1) {
+            return 2;
+        }
+        int end = value.indexOf('.', dot + 1);
+        return (end < 0 ? value.length() : end) - dot - 1;
+    }
+
+    private enum Operation
+    {
+        ADD {
+            @Override
+            String apply(String ori, String value, int scale)
+            {
+                return add(ori, value);
+            }
+        },
+        SUBTRACT {
+            @Override
+            String apply(String ori, String value, int scale)
+            {
+                return subtract(ori, value);
+            }
+        },
+        MULTIPLY {
+            @Override
+            String apply(String ori, String value, int scale)
+            {
+                return multiply(ori, value);
+            }
+        },
+        DIVIDE {
+            @Override
+            String apply(String ori, String value, int scale)
+            {
+                return divide(ori, value, scale);
+            }
+        },
+        MOD {
+            @Override
+            String apply(String ori, String value, int scale)
+            {
+                return mod(ori, value);
+            }
+        },
+        POW {
+            @Override
+            String apply(String ori, String value, int scale)
+            {
+                return pow(ori, value);
+            }
+        };
+
+        abstract String apply(String ori, String value, int scale);
+
+        static Operation parse(String code)
+        {
             switch (code) {
                 case "+":
-                    newValue = add(column.asString(), value);
-                    break;
+                    return ADD;
                 case "-":
-                    newValue = subtract(column.asString(), value);
-                    break;
+                    return SUBTRACT;
                 case "*":
-                    newValue = multiply(column.asString(), value);
-                    break;
+                    return MULTIPLY;
                 case "/":
-                    newValue = divide(column.asString(), value, scale);
-                    break;
+                    return DIVIDE;
                 case "%":
-                    newValue = mod(column.asString(), value);
-                    break;
+                    return MOD;
                 case "^":
-                    newValue = pow(column.asString(), value);
-                    break;
+                    return POW;
                 default:
                     throw new RuntimeException("dx_map can't support code:" + code);
             }
-            record.setColumn(columnIndex, new StringColumn(newValue));
-            return record;
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    TransformerErrorCode.TRANSFORMER_RUN_EXCEPTION, e.getMessage(), e);
         }
     }
 }
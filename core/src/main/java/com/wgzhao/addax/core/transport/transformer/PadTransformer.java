@@ -23,6 +23,7 @@ import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.Transformer;
 
 import java.util.Arrays;
@@ -42,7 +43,12 @@ public class PadTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
+        return compile(paras).evaluate(record);
+    }
 
+    @Override
+    public CompiledTransformer compile(Object... paras)
+    {
         int columnIndex;
         String padType;
         int length;
@@ -57,6 +63,11 @@ public class PadTransformer
             padType = (String) paras[1];
             length = Integer.parseInt((String) paras[2]);
             padString = (String) paras[3];
+
+            if (!"r".equalsIgnoreCase(padType) && !"l".equalsIgnoreCase(padType)) {
+                throw new RuntimeException(String.format("The first parameter of dx_pad must be either l or r, " +
+                        "The current parameter is %s", padType));
+            }
         }
         catch (Exception e) {
             throw AddaxException.asAddaxException(
@@ -64,6 +75,12 @@ public class PadTransformer
                     "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
         }
 
+        boolean leftPad = "l".equalsIgnoreCase(padType);
+        return record -> doPad(record, columnIndex, leftPad, length, padString);
+    }
+
+    private static Record doPad(Record record, int columnIndex, boolean leftPad, int length, String padString)
+    {
         Column column = record.getColumn(columnIndex);
 
         try {
@@ -74,16 +91,12 @@ public class PadTransformer
                 oriValue = "";
             }
             String newValue;
-            if (!"r".equalsIgnoreCase(padType) && !"l".equalsIgnoreCase(padType)) {
-                throw new RuntimeException(String.format("The first parameter of dx_pad must be either l or r, " +
-                        "The current parameter is %s", padType));
-            }
             if (length <= oriValue.length()) {
                 newValue = oriValue.substring(0, length);
             }
             else {
 
-                newValue = doPad(padType, oriValue, length, padString);
+                newValue = pad(leftPad, oriValue, length, padString);
             }
 
             record.setColumn(columnIndex, new StringColumn(newValue));
@@ -95,7 +108,7 @@ public class PadTransformer
         return record;
     }
 
-    private String doPad(String padType, String oriValue, int length, String padString)
+    private static String pad(boolean leftPad, String oriValue, int length, String padString)
     {
 
         StringBuilder finalPad = new StringBuilder();
@@ -112,7 +125,7 @@ public class PadTransformer
             }
         }
 
-        if ("l".equalsIgnoreCase(padType)) {
+        if (leftPad) {
             return finalPad + oriValue;
         }
         else {
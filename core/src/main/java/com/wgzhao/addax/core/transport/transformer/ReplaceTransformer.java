@@ -23,6 +23,7 @@ import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.Transformer;
 
 import java.util.Arrays;
@@ -42,7 +43,12 @@ public class ReplaceTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
+        return compile(paras).evaluate(record);
+    }
 
+    @Override
+    public CompiledTransformer compile(Object... paras)
+    {
         int columnIndex;
         int startIndex;
         int length;
@@ -62,6 +68,11 @@ public class ReplaceTransformer
                     "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
         }
 
+        return record -> doReplace(record, columnIndex, startIndex, length, replaceString);
+    }
+
+    private static Record doReplace(Record record, int columnIndex, int startIndex, int length, String replaceString)
+    {
         Column column = record.getColumn(columnIndex);
 
         try {
@@ -23,6 +23,7 @@ import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.Record;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.Transformer;
 
 import java.util.Arrays;
@@ -42,7 +43,12 @@ public class SubstrTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
+        return compile(paras).evaluate(record);
+    }
 
+    @Override
+    public CompiledTransformer compile(Object... paras)
+    {
         int columnIndex;
         int startIndex;
         int length;
@@ -61,6 +67,11 @@ public class SubstrTransformer
                     "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
         }
 
+        return record -> doSubstr(record, columnIndex, startIndex, length);
+    }
+
+    private static Record doSubstr(Record record, int columnIndex, int startIndex, int length)
+    {
         Column column = record.getColumn(columnIndex);
 
         try {
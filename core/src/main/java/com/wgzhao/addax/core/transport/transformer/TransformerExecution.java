@@ -19,6 +19,8 @@
 
 package com.wgzhao.addax.core.transport.transformer;
 
+import com.wgzhao.addax.core.util.container.ClassLoaderSwapper;
+import com.wgzhao.addax.transformer.CompiledTransformer;
 import com.wgzhao.addax.transformer.ComplexTransformer;
 
 import java.util.Map;
@@ -33,6 +35,8 @@ public class TransformerExecution
     private final TransformerExecutionParas transformerExecutionParas;
     private final TransformerInfo transformerInfo;
     private Object[] finalParas;
+    private CompiledTransformer compiledTransformer;
+    private long compileTime = 0;
     /**
      * 参数采取延迟检查
      */
@@ -53,9 +57,10 @@ public class TransformerExecution
          * groovy不支持传参
          */
         if ("dx_groovy".equals(transformerInfo.getTransformer().getTransformerName())) {
-            finalParas = new Object[2];
+            finalParas = new Object[3];
             finalParas[0] = transformerExecutionParas.getCode();
             finalParas[1] = transformerExecutionParas.getExtraPackage();
+            finalParas[2] = transformerExecutionParas.isCompileStatic();
             return;
         }
         /*
@@ -88,6 +93,62 @@ public class TransformerExecution
         return finalParas;
     }
 
+    /**
+     * 预先解析参数，每个task只调用一次，需要在 {@link #genFinalParas()} 之后调用
+     */
+    public void compile()
+    {
+        long startTs = System.nanoTime();
+        try {
+            doCompile();
+        }
+        finally {
+            compileTime = System.nanoTime() - startTs;
+        }
+    }
+
+    private void doCompile()
+    {
+        ClassLoader classLoader = getClassLoader();
+        if (classLoader == null) {
+            compiledTransformer = getTransformer().compile(getContext(), finalParas);
+            return;
+        }
+        ClassLoaderSwapper classLoaderSwapper = ClassLoaderSwapper.newCurrentThreadClassLoaderSwapper();
+        classLoaderSwapper.setCurrentThreadClassLoader(classLoader);
+        try {
+            compiledTransformer = getTransformer().compile(getContext(), finalParas);
+        }
+        finally {
+            classLoaderSwapper.restoreCurrentThreadClassLoader();
+        }
+    }
+
+    /**
+     * 使用相同的参数重新编译一个实例，并行转换时每个工作线程使用各自的实例，
+     * 有状态的 transformer(例如带有成员变量的 groovy 脚本)不会被多个线程同时调用
+     *
+     * @return a new compiled execution with the same parameters
+     */
+    public TransformerExecution copy()
+    {
+        TransformerExecution execution = new TransformerExecution(transformerInfo, transformerExecutionParas);
+        execution.genFinalParas();
+        execution.compile();
+        execution.setIsChecked(isChecked);
+        return execution;
+    }
+
+    public CompiledTransformer getCompiledTransformer()
+    {
+        return compiledTransformer;
+    }
+
+    public long getCompileTime()
+    {
+        return compileTime;
+    }
+
     public void setIsChecked(boolean isChecked)
     {
         this.isChecked = isChecked;
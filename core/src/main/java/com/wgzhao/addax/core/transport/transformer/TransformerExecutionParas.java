@@ -38,6 +38,7 @@ public class TransformerExecutionParas
     private Map<String, Object> tContext;
     private String code;
     private List<String> extraPackage;
+    private boolean compileStatic;
 
     public Integer getColumnIndex()
     {
@@ -88,4 +89,14 @@ public class TransformerExecutionParas
     {
         this.extraPackage = extraPackage;
     }
+
+    public boolean isCompileStatic()
+    {
+        return compileStatic;
+    }
+
+    public void setCompileStatic(boolean compileStatic)
+    {
+        this.compileStatic = compileStatic;
+    }
 }
@@ -117,6 +117,8 @@ public class TransformerUtil
                 if (extraPackage != null && !extraPackage.isEmpty()) {
                     transformerExecutionParas.setExtraPackage(extraPackage);
                 }
+                transformerExecutionParas.setCompileStatic(
+                        configuration.getBool(CoreConstant.TRANSFORMER_PARAMETER_COMPILE_STATIC, false));
             }
             transformerExecutionParas.settContext(configuration.getMap(CoreConstant.TRANSFORMER_PARAMETER_CONTEXT)
             );
@@ -125,6 +127,7 @@ public class TransformerUtil
                     transformerExecutionParas);
 
             transformerExecution.genFinalParas();
+            transformerExecution.compile();
             result.add(transformerExecution);
             i++;
             LOG.info(String.format(" %s of transformer init success. name=%s, isNative=%s parameter = %s"
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 在 JDK 21 及以上版本创建虚拟线程，项目按照 Java 8 编译，因此通过反射调用 {@code Thread.ofVirtual()}。
+ * 运行在不支持虚拟线程的 JDK 上时，退回到普通线程。
+ */
+public final class VirtualThreads
+{
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreads.class);
+
+    // JDK 21 到 23 中，虚拟线程在 synchronized 代码块中阻塞会占住载体线程，开启后会打印这种情况的堆栈
+    private static final String TRACE_PINNED_THREADS = "jdk.tracePinnedThreads";
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_UNSTARTED;
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method unstarted = null;
+        Method factory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class);
+            unstarted = builder.getMethod("unstarted", Runnable.class);
+            factory = builder.getMethod("factory");
+        }
+        catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_UNSTARTED = unstarted;
+        BUILDER_FACTORY = factory;
+    }
+
+    private VirtualThreads()
+    {
+    }
+
+    public static boolean isSupported()
+    {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 检查当前 JDK 是否支持虚拟线程，并在需要时开启固定载体线程的检查
+     *
+     * @param virtual whether virtual threads are requested
+     * @param tracePinned whether to print the stack of virtual threads blocked while pinned
+     * @return true if virtual threads will be used
+     */
+    public static boolean enable(boolean virtual, boolean tracePinned)
+    {
+        if (!virtual) {
+            return false;
+        }
+        if (!isSupported()) {
+            LOG.warn("Virtual threads require JDK 21 or later, the current JDK is {}, fall back to platform threads.",
+                    System.getProperty("java.version"));
+            return false;
+        }
+        if (tracePinned && System.getProperty(TRACE_PINNED_THREADS) == null) {
+            System.setProperty(TRACE_PINNED_THREADS, "short");
+        }
+        LOG.info("Run readers, writers and task groups in virtual threads.");
+        return true;
+    }
+
+    /**
+     * @param virtual whether to create a virtual thread
+     * @param runnable the task
+     * @param name the thread name
+     * @return an unstarted thread
+     */
+    public static Thread newThread(boolean virtual, Runnable runnable, String name)
+    {
+        if (!virtual || !isSupported()) {
+            return new Thread(runnable, name);
+        }
+        try {
+            return (Thread) BUILDER_UNSTARTED.invoke(BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name), runnable);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread " + name, e);
+        }
+    }
+
+    /**
+     * @param virtual whether to run the tasks in virtual threads
+     * @param nThreads the number of threads for platform threads
+     * @return an executor
+     */
+    public static ExecutorService newFixedThreadPool(boolean virtual, int nThreads)
+    {
+        if (!virtual || !isSupported()) {
+            return Executors.newFixedThreadPool(nThreads);
+        }
+        try {
+            ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(OF_VIRTUAL.invoke(null));
+            return Executors.newFixedThreadPool(nThreads, factory);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+}
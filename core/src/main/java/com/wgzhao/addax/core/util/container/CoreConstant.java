@@ -52,6 +52,10 @@ public class CoreConstant
 
     public static final String CORE_CONTAINER_TASK_FAIL_OVER_MAX_WAIT_IN_MSEC = "core.container.task.failOver.maxWaitInMsec";
 
+    public static final String CORE_CONTAINER_THREAD_VIRTUAL = "core.container.thread.virtual";
+
+    public static final String CORE_CONTAINER_THREAD_TRACE_PINNED = "core.container.thread.tracePinned";
+
     public static final String CORE_SERVER_ADDRESS = "core.server.address";
 
     public static final String CORE_SERVER_TIMEOUT_SEC = "core.server.timeout";
@@ -68,10 +72,18 @@ public class CoreConstant
 
     public static final String CORE_TRANSPORT_CHANNEL_FLOW_CONTROL_INTERVAL = "core.transport.channel.flowControlInterval";
 
+    public static final String CORE_TRANSPORT_CHANNEL_WAIT_STRATEGY = "core.transport.channel.waitStrategy";
+
     public static final String CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE = "core.transport.exchanger.bufferSize";
 
+    public static final String CORE_TRANSPORT_TRANSFORMER_PARALLELISM = "core.transport.transformer.parallelism";
+
+    public static final String CORE_TRANSPORT_TRANSFORMER_ORDERED = "core.transport.transformer.ordered";
+
     public static final String CORE_TRANSPORT_RECORD_CLASS = "core.transport.record.class";
 
+    public static final String CORE_TRANSPORT_RECORD_RECYCLE = "core.transport.record.recycle";
+
     public static final String CORE_STATISTICS_COLLECTOR_PLUGIN_TASK_CLASS = "core.statistics.collector.plugin.taskClass";
 
     public static final String CORE_STATISTICS_COLLECTOR_PLUGIN_MAX_DIRTY_NUMBER = "core.statistics.collector.plugin.maxDirtyNumber";
@@ -106,6 +118,18 @@ public class CoreConstant
 
     public static final String JOB_SETTING_DRY_RUN = "job.setting.dryRun";
 
+    public static final String JOB_SETTING_DYNAMIC_SPLIT = "job.setting.dynamicSplit";
+
+    public static final String JOB_SETTING_SPLIT_FACTOR = "job.setting.splitFactor";
+
+    public static final String JOB_SETTING_ADAPTIVE_ENABLED = "job.setting.adaptive.enabled";
+
+    public static final String JOB_SETTING_ADAPTIVE_MIN_CHANNEL = "job.setting.adaptive.minChannel";
+
+    public static final String JOB_SETTING_ADAPTIVE_MAX_CHANNEL = "job.setting.adaptive.maxChannel";
+
+    public static final String JOB_SETTING_ADAPTIVE_INTERVAL = "job.setting.adaptive.interval";
+
     public static final String JOB_PRE_HANDLER_PLUGIN_TYPE = "job.preHandler.pluginType";
 
     public static final String JOB_PRE_HANDLER_PLUGIN_NAME = "job.preHandler.pluginName";
@@ -135,6 +159,7 @@ public class CoreConstant
     public static final String TRANSFORMER_PARAMETER_CONTEXT = "parameter.context";
     public static final String TRANSFORMER_PARAMETER_CODE = "parameter.code";
     public static final String TRANSFORMER_PARAMETER_EXTRA_PACKAGE = "parameter.extraPackage";
+    public static final String TRANSFORMER_PARAMETER_COMPILE_STATIC = "parameter.compileStatic";
 
     public static final String TASK_ID = "taskId";
 
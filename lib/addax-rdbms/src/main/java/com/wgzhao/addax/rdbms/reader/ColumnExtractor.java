@@ -0,0 +1,39 @@
+/*
+ *
+ *  * Licensed to the Apache Software Foundation (ASF) under one
+ *  * or more contributor license agreements.  See the NOTICE file
+ *  * distributed with this work for additional information
+ *  * regarding copyright ownership.  The ASF licenses this file
+ *  * to you under the Apache License, Version 2.0 (the
+ *  * "License"); you may not use this file except in compliance
+ *  * with the License.  You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing,
+ *  * software distributed under the License is distributed on an
+ *  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  * KIND, either express or implied.  See the License for the
+ *  * specific language governing permissions and limitations
+ *  * under the License.
+ *
+ */
+
+package com.wgzhao.addax.rdbms.reader;
+
+import com.wgzhao.addax.common.element.Column;
+
+import java.io.UnsupportedEncodingException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 从 ResultSet 的某一列读取数据并转换为 {@link Column}。
+ * 每次查询根据 ResultSetMetaData 为每一列生成一个 extractor，读取每一行时不再查询元数据
+ */
+@FunctionalInterface
+public interface ColumnExtractor
+{
+    Column extract(ResultSet rs, int i)
+            throws SQLException, UnsupportedEncodingException;
+}
@@ -29,9 +29,17 @@ import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.DateColumn;
 import com.wgzhao.addax.common.element.DoubleColumn;
 import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.PrimitiveDoubleColumn;
+import com.wgzhao.addax.common.element.PrimitiveLongColumn;
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.ScaledDecimalColumn;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.element.TimestampColumn;
+import com.wgzhao.addax.common.element.batch.BytesVector;
+import com.wgzhao.addax.common.element.batch.LongVector;
+import com.wgzhao.addax.common.element.batch.ObjectVector;
+import com.wgzhao.addax.common.element.batch.RecordBatch;
+import com.wgzhao.addax.common.element.batch.ValueVector;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
@@ -46,12 +54,13 @@ import com.wgzhao.addax.rdbms.reader.util.SingleTableSplitUtil;
 import com.wgzhao.addax.rdbms.util.DBUtil;
 import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
+import com.wgzhao.addax.rdbms.util.JdbcConnectionPool;
 import com.wgzhao.addax.rdbms.util.RdbmsException;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -82,8 +91,8 @@ public class CommonRdbmsReader
 
         public Configuration init(Configuration originalConfig)
         {
-
             OriginalConfPretreatmentUtil.doPretreatment(originalConfig);
+            JdbcConnectionPool.configure(originalConfig);
             if (originalConfig.getString(Key.SPLIT_PK) == null && originalConfig.getBool(Key.AUTO_PK, false)) {
                 LOG.info("The primary key used for splitting is not configured, try to guess the primary key that can be split.");
                 String splitPK = GetPrimaryKeyUtil.getPrimaryKey(originalConfig);
@@ -145,7 +154,11 @@ public class CommonRdbmsReader
 
         public List<Configuration> split(Configuration originalConfig, int adviceNumber)
         {
-            return ReaderSplitUtil.doSplit(originalConfig, adviceNumber);
+            List<Configuration> splitConfigs = ReaderSplitUtil.doSplit(originalConfig, adviceNumber);
+            // 每个任务在运行期间持有一个连接
+            int channelNumber = originalConfig.getInt(Key.CHANNEL_NUMBER, adviceNumber);
+            JdbcConnectionPool.checkPoolSize(originalConfig, Math.min(channelNumber, splitConfigs.size()), 1);
+            return splitConfigs;
         }
 
         public void post(Configuration originalConfig)
@@ -155,7 +168,7 @@ public class CommonRdbmsReader
 
         public void destroy(Configuration originalConfig)
         {
-            // do nothing
+            JdbcConnectionPool.close();
         }
     }
 
@@ -163,7 +176,15 @@ public class CommonRdbmsReader
     {
         private static final Logger LOG = LoggerFactory.getLogger(Task.class);
         private static final boolean IS_DEBUG = LOG.isDebugEnabled();
+        // the number of rows in each record batch when columnar mode is enabled
+        private static final int COLUMNAR_BATCH_SIZE = 1024;
         protected final byte[] EMPTY_CHAR_ARRAY = new byte[0];
+        // 列式模式下，只有使用这两个默认 extractor 的列才直接写入 LongVector 和 BytesVector，其他列(包括插件覆盖的类型)依然通过 extractor 读取
+        private static final ColumnExtractor STRING_EXTRACTOR = (rs, index) -> new StringColumn(rs.getString(index));
+        private static final ColumnExtractor LONG_EXTRACTOR = (rs, index) -> {
+            long longValue = rs.getLong(index);
+            return rs.wasNull() ? new LongColumn() : new PrimitiveLongColumn(longValue);
+        };
 
         private final DataBaseType dataBaseType;
         private final int taskGroupId;
@@ -174,6 +195,9 @@ public class CommonRdbmsReader
         private String jdbcUrl;
         private String mandatoryEncoding;
 
+        // 当前查询每一列的 extractor，在读取数据前根据 ResultSetMetaData 生成一次
+        private ColumnExtractor[] columnExtractors;
+
         // 作为日志显示信息时，需要附带的通用信息。比如信息所对应的数据库连接等信息，针对哪个表做的操作
         private String basicMsg;
 
@@ -199,6 +223,7 @@ public class CommonRdbmsReader
             this.jdbcUrl = readerSliceConfig.getString(Key.JDBC_URL);
 
             this.mandatoryEncoding = readerSliceConfig.getString(Key.MANDATORY_ENCODING, "");
+            JdbcConnectionPool.configure(readerSliceConfig);
 
             basicMsg = String.format("jdbcUrl:[%s]", this.jdbcUrl);
         }
@@ -208,6 +233,12 @@ public class CommonRdbmsReader
         {
             String querySql = readerSliceConfig.getString(Key.QUERY_SQL);
 
+            if (readerSliceConfig.getBool(Key.DRY_RUN, false)) {
+                // dry run only checks how the table is split, the estimated rows are printed by the job
+                LOG.info("Dry run is enabled, skip executing SQL query: [{}].", querySql);
+                return;
+            }
+
             LOG.info("Begin reading records by executing SQL query: [{}].", querySql);
             PerfRecord queryPerfRecord = new PerfRecord(taskGroupId, taskId, PerfRecord.PHASE.SQL_QUERY);
             queryPerfRecord.start();
@@ -225,6 +256,7 @@ public class CommonRdbmsReader
 
                 ResultSetMetaData metaData = rs.getMetaData();
                 columnNumber = metaData.getColumnCount();
+                this.columnExtractors = buildColumnExtractors(metaData, columnNumber);
 
                 // 这个统计干净的result_Next时间
                 PerfRecord allResultPerfRecord = new PerfRecord(taskGroupId, taskId, PerfRecord.PHASE.RESULT_NEXT_ALL);
@@ -232,10 +264,15 @@ public class CommonRdbmsReader
 
                 long rsNextUsedTime = 0;
                 long lastTime = System.nanoTime();
-                while (rs.next()) {
-                    rsNextUsedTime += (System.nanoTime() - lastTime);
-                    transportOneRecord(recordSender, rs, metaData, columnNumber, taskPluginCollector);
-                    lastTime = System.nanoTime();
+                if (readerSliceConfig.getBool(Key.COLUMNAR, false) && supportsColumnar()) {
+                    rsNextUsedTime = transportBatches(recordSender, rs, columnNumber, taskPluginCollector);
+                }
+                else {
+                    while (rs.next()) {
+                        rsNextUsedTime += (System.nanoTime() - lastTime);
+                        transportOneRecord(recordSender, rs, metaData, columnNumber, taskPluginCollector);
+                        lastTime = System.nanoTime();
+                    }
                 }
 
                 allResultPerfRecord.end(rsNextUsedTime);
@@ -267,8 +304,160 @@ public class CommonRdbmsReader
             recordSender.sendToWriter(record);
         }
 
-        protected Column createColumn(ResultSet rs, ResultSetMetaData metaData, int i)
-                throws SQLException, UnsupportedEncodingException
+        /**
+         * Read the result set into columnar batches.
+         * The columns using the default signed integral or character extractor are stored as primitive long and UTF-8 bytes,
+         * the other columns, including the types overridden by {@link #createColumnExtractor}, still go through the column extractors
+         *
+         * @return the time used by ResultSet.next() in nanoseconds
+         */
+        private long transportBatches(RecordSender recordSender, ResultSet rs, int columnNumber,
+                TaskPluginCollector taskPluginCollector)
+                throws SQLException
+        {
+            int[] types = new int[columnNumber];
+            for (int i = 0; i < columnNumber; i++) {
+                types[i] = getVectorType(this.columnExtractors[i]);
+            }
+
+            long rsNextUsedTime = 0;
+            long lastTime = System.nanoTime();
+            RecordBatch batch = newBatch(types);
+            while (rs.next()) {
+                rsNextUsedTime += (System.nanoTime() - lastTime);
+                int row = batch.addRow();
+                int i = 1;
+                try {
+                    for (; i <= columnNumber; i++) {
+                        ValueVector vector = batch.getVector(i - 1);
+                        switch (types[i - 1]) {
+                            case Types.BIGINT:
+                                long l = rs.getLong(i);
+                                if (rs.wasNull()) {
+                                    vector.setNull(row);
+                                }
+                                else {
+                                    ((LongVector) vector).set(row, l);
+                                }
+                                break;
+                            case Types.VARCHAR:
+                                String str = rs.getString(i);
+                                if (str == null) {
+                                    vector.setNull(row);
+                                }
+                                else {
+                                    ((BytesVector) vector).setString(row, str);
+                                }
+                                break;
+                            default:
+                                ((ObjectVector) vector).set(row, this.columnExtractors[i - 1].extract(rs, i));
+                                break;
+                        }
+                    }
+                }
+                catch (Exception e) {
+                    // the rest columns of the bad row are filled with null, just like the row mode
+                    for (; i <= columnNumber; i++) {
+                        batch.getVector(i - 1).setNull(row);
+                    }
+                    Record record = batch.fillRecord(row, recordSender.createRecord());
+                    if (IS_DEBUG) {
+                        LOG.debug("Exception occurred while reading {} : {}", record, e.getMessage());
+                    }
+                    taskPluginCollector.collectDirtyRecord(record, e);
+                    if (e instanceof AddaxException) {
+                        throw (AddaxException) e;
+                    }
+                }
+                if (batch.isFull()) {
+                    recordSender.sendToWriter(batch);
+                    batch = newBatch(types);
+                }
+                lastTime = System.nanoTime();
+            }
+            if (!batch.isEmpty()) {
+                recordSender.sendToWriter(batch);
+            }
+            return rsNextUsedTime;
+        }
+
+        /*
+         * Types.BIGINT means LongVector, Types.VARCHAR means BytesVector, Types.OTHER means ObjectVector
+         */
+        private static int getVectorType(ColumnExtractor extractor)
+        {
+            if (extractor == LONG_EXTRACTOR) {
+                return Types.BIGINT;
+            }
+            if (extractor == STRING_EXTRACTOR) {
+                return Types.VARCHAR;
+            }
+            return Types.OTHER;
+        }
+
+        /*
+         * 列式模式不经过 transportOneRecord 和 buildRecord，如果子类覆盖了它们，只能按行读取
+         */
+        private boolean supportsColumnar()
+        {
+            for (Class<?> clazz = getClass(); clazz != Task.class; clazz = clazz.getSuperclass()) {
+                for (Method method : clazz.getDeclaredMethods()) {
+                    if ("transportOneRecord".equals(method.getName()) || "buildRecord".equals(method.getName())) {
+                        LOG.warn("The columnar mode is disabled because {} overrides {}().", getClass().getName(), method.getName());
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private RecordBatch newBatch(int[] types)
+        {
+            ValueVector[] vectors = new ValueVector[types.length];
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] == Types.BIGINT) {
+                    vectors[i] = new LongVector(COLUMNAR_BATCH_SIZE);
+                }
+                else if (types[i] == Types.VARCHAR) {
+                    vectors[i] = new BytesVector(COLUMNAR_BATCH_SIZE, true);
+                }
+                else {
+                    vectors[i] = new ObjectVector(COLUMNAR_BATCH_SIZE);
+                }
+            }
+            return new RecordBatch(vectors, COLUMNAR_BATCH_SIZE);
+        }
+
+        /**
+         * Build the extractors of all columns, it is called once per query before reading the rows
+         *
+         * @param metaData the metadata of the result set
+         * @param columnNumber the number of columns
+         * @return the extractors, the i-th column uses the (i-1)-th extractor
+         * @throws SQLException if failed to get the metadata
+         */
+        protected ColumnExtractor[] buildColumnExtractors(ResultSetMetaData metaData, int columnNumber)
+                throws SQLException
+        {
+            ColumnExtractor[] extractors = new ColumnExtractor[columnNumber];
+            for (int i = 1; i <= columnNumber; i++) {
+                extractors[i - 1] = createColumnExtractor(metaData, i);
+            }
+            return extractors;
+        }
+
+        /**
+         * Create the extractor of the i-th column according to its metadata.
+         * The readers which support vendor specific types should override it,
+         * return their own extractor for the vendor types and delegate the others to super
+         *
+         * @param metaData the metadata of the result set
+         * @param i the column index, starting from 1
+         * @return the extractor of the column
+         * @throws SQLException if failed to get the metadata
+         */
+        protected ColumnExtractor createColumnExtractor(ResultSetMetaData metaData, int i)
+                throws SQLException
         {
             switch (metaData.getColumnType(i)) {
                 case Types.CHAR:
@@ -277,86 +466,108 @@ public class CommonRdbmsReader
                 case Types.LONGVARCHAR:
                 case Types.NVARCHAR:
                 case Types.LONGNVARCHAR:
-                    String rawData;
                     if (StringUtils.isBlank(mandatoryEncoding)) {
-                        rawData = rs.getString(i);
+                        return STRING_EXTRACTOR;
                     }
-                    else {
-                        rawData = new String((rs.getBytes(i) == null ? EMPTY_CHAR_ARRAY : rs.getBytes(i)), mandatoryEncoding);
-                    }
-                    return new StringColumn(rawData);
+                    final String encoding = mandatoryEncoding;
+                    return (rs, index) -> {
+                        byte[] bytes = rs.getBytes(index);
+                        return new StringColumn(new String(bytes == null ? EMPTY_CHAR_ARRAY : bytes, encoding));
+                    };
 
                 case Types.CLOB:
                 case Types.NCLOB:
-                    return new StringColumn(rs.getString(i));
+                    return (rs, index) -> new StringColumn(rs.getString(index));
 
                 case Types.SMALLINT:
                 case Types.TINYINT:
                 case Types.INTEGER:
                 case Types.BIGINT:
-                    return new LongColumn(rs.getString(i));
+                    // unsigned bigint may overflow long
+                    if (metaData.getColumnType(i) == Types.BIGINT && !metaData.isSigned(i)) {
+                        return (rs, index) -> new LongColumn(rs.getString(index));
+                    }
+                    return LONG_EXTRACTOR;
 
                 case Types.NUMERIC:
                 case Types.DECIMAL:
+                    return (rs, index) -> {
+                        try {
+                            return ScaledDecimalColumn.of(rs.getBigDecimal(index));
+                        }
+                        catch (SQLException | NumberFormatException e) {
+                            // BigDecimal can not hold special values such as 'NaN' and 'Infinity' of PostgreSQL numeric
+                            return new DoubleColumn(rs.getString(index));
+                        }
+                    };
+
+                case Types.DOUBLE:
+                    return (rs, index) -> {
+                        double doubleValue = rs.getDouble(index);
+                        return rs.wasNull() ? new DoubleColumn() : new PrimitiveDoubleColumn(doubleValue);
+                    };
+
                 case Types.FLOAT:
                 case Types.REAL:
-                case Types.DOUBLE:
-                    return new DoubleColumn(rs.getString(i));
+                    // keep the string representation, widening a real to double would expose the binary error
+                    return (rs, index) -> new DoubleColumn(rs.getString(index));
 
                 case Types.TIME:
-                    return new DateColumn(rs.getTime(i));
+                    return (rs, index) -> new DateColumn(rs.getTime(index));
 
                 case Types.DATE:
-                    return new DateColumn(rs.getDate(i));
+                    return (rs, index) -> new DateColumn(rs.getDate(index));
 
                 case Types.TIMESTAMP:
-                    return new TimestampColumn(rs.getTimestamp(i, Calendar.getInstance()));
+                    return (rs, index) -> new TimestampColumn(rs.getTimestamp(index, Calendar.getInstance()));
 
                 case Types.BINARY:
                 case Types.VARBINARY:
                 case Types.BLOB:
                 case Types.LONGVARBINARY:
-                    return new BytesColumn(rs.getBytes(i));
+                    return (rs, index) -> new BytesColumn(rs.getBytes(index));
 
                 case Types.BOOLEAN:
-                    return new BoolColumn(rs.getBoolean(i));
+                    return (rs, index) -> new BoolColumn(rs.getBoolean(index));
 
                 case Types.BIT:
                     // bit(1) -> Types.BIT 可使用BoolColumn
                     // bit(>1) -> Types.VARBINARY 可使用BytesColumn
                     if (metaData.getPrecision(i) == 1) {
-                        return new BoolColumn(rs.getBoolean(i));
+                        return (rs, index) -> new BoolColumn(rs.getBoolean(index));
                     }
                     else {
-                        return new BytesColumn(rs.getBytes(i));
+                        return (rs, index) -> new BytesColumn(rs.getBytes(index));
                     }
 
                 case Types.NULL:
-                    String stringData = null;
-                    if (rs.getObject(i) != null) {
-                        stringData = rs.getObject(i).toString();
-                    }
-                    return new StringColumn(stringData);
+                    return (rs, index) -> {
+                        Object object = rs.getObject(index);
+                        return new StringColumn(object == null ? null : object.toString());
+                    };
 
                 case Types.ARRAY:
-                    return new StringColumn(rs.getArray(i).toString());
+                    return (rs, index) -> new StringColumn(rs.getArray(index).toString());
 
                 case Types.JAVA_OBJECT:
 
                 case Types.OTHER:
-                    return new StringColumn(rs.getObject(i).toString());
+                    return (rs, index) -> new StringColumn(rs.getObject(index).toString());
 
                 case Types.SQLXML:
-                    return new StringColumn(rs.getSQLXML(i).getString());
+                    return (rs, index) -> new StringColumn(rs.getSQLXML(index).getString());
 
                 default:
-                    throw AddaxException.asAddaxException(DBUtilErrorCode.UNSUPPORTED_TYPE,
-                            String.format("The column configuration is incorrect, The database does not support reading this field type."
-                                            + "Field name:[%s], Field type:[%s], "
-                                            + "Field typename:[%s], Field java type:[%s]. Please try using database " +
-                                            "functions to convert it to a supported type or ignore the field.",
-                                    metaData.getColumnName(i), metaData.getColumnType(i),
-                                    metaData.getColumnTypeName(i), metaData.getColumnClassName(i)));
+                    // report the unsupported type only when there is data to read
+                    final String message = String.format("The column configuration is incorrect, The database does not support reading this field type."
+                                    + "Field name:[%s], Field type:[%s], "
+                                    + "Field typename:[%s], Field java type:[%s]. Please try using database " +
+                                    "functions to convert it to a supported type or ignore the field.",
+                            metaData.getColumnName(i), metaData.getColumnType(i),
+                            metaData.getColumnTypeName(i), metaData.getColumnClassName(i));
+                    return (rs, index) -> {
+                        throw AddaxException.asAddaxException(DBUtilErrorCode.UNSUPPORTED_TYPE, message);
+                    };
             }
         }
 
@@ -366,8 +577,11 @@ public class CommonRdbmsReader
             Record record = recordSender.createRecord();
 
             try {
+                if (this.columnExtractors == null) {
+                    this.columnExtractors = buildColumnExtractors(metaData, columnNumber);
+                }
                 for (int i = 1; i <= columnNumber; i++) {
-                    record.addColumn(createColumn(rs, metaData, i));
+                    record.addColumn(this.columnExtractors[i - 1].extract(rs, i));
                 }
             }
             catch (Exception e) {
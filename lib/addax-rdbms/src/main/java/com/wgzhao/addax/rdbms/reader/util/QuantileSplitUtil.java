@@ -0,0 +1,254 @@
+/*
+ *
+ *  * Licensed to the Apache Software Foundation (ASF) under one
+ *  * or more contributor license agreements.  See the NOTICE file
+ *  * distributed with this work for additional information
+ *  * regarding copyright ownership.  The ASF licenses this file
+ *  * to you under the Apache License, Version 2.0 (the
+ *  * "License"); you may not use this file except in compliance
+ *  * with the License.  You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing,
+ *  * software distributed under the License is distributed on an
+ *  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  * KIND, either express or implied.  See the License for the
+ *  * specific language governing permissions and limitations
+ *  * under the License.
+ *
+ */
+
+package com.wgzhao.addax.rdbms.reader.util;
+
+import com.wgzhao.addax.common.base.Key;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.util.DBUtil;
+import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
+import com.wgzhao.addax.rdbms.util.DataBaseType;
+import com.wgzhao.addax.rdbms.util.RdbmsRangeSplitWrap;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于分位数的切分，用于 splitPk 分布稀疏或者倾斜的表。
+ * <p>
+ * 等宽切分只根据 MIN/MAX 把区间平均分成若干份，数据倾斜时某一个分片可能包含绝大部分的数据。
+ * 这里先对表进行采样，通过 NTILE 窗口函数（ClickHouse 使用 quantiles 聚合函数）得到各个分位点，
+ * 使每个分片的行数大致相同，同时根据采样结果估算每个分片的行数。
+ * <p>
+ * 目前支持 MySQL(8.0+)、PostgreSQL、SQL Server 和 ClickHouse，采样失败或者没有采样到数据时返回 null，由调用方退回到等宽切分
+ */
+public final class QuantileSplitUtil
+{
+    private static final Logger LOG = LoggerFactory.getLogger(QuantileSplitUtil.class);
+
+    // 采样比例，单位为百分比
+    private static final double DEFAULT_SAMPLE_PERCENTAGE = 1.0;
+
+    private QuantileSplitUtil()
+    {
+    }
+
+    public static boolean isSupported(DataBaseType dataBaseType, boolean isLongType)
+    {
+        switch (dataBaseType) {
+            case MySql:
+            case PostgreSQL:
+            case SQLServer:
+                return true;
+            case ClickHouse:
+                // quantiles only works on numeric values
+                return isLongType;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 按照分位点切分
+     *
+     * @param configuration the slice configuration
+     * @param dataBaseType the database type
+     * @param minVal the minimal value of split key
+     * @param maxVal the maximal value of split key
+     * @param isLongType whether the split key is integer or string
+     * @param adviceNum the expected number of slices
+     * @return the ranges and their estimated row count, or null if failed to sample
+     */
+    public static Result split(Configuration configuration, DataBaseType dataBaseType, String minVal, String maxVal,
+            boolean isLongType, int adviceNum)
+    {
+        if (adviceNum < 2) {
+            return null;
+        }
+        String splitPk = configuration.getString(Key.SPLIT_PK).trim();
+        String table = configuration.getString(Key.TABLE).trim();
+        String where = configuration.getString(Key.WHERE, null);
+        double percentage = configuration.getDouble(Key.SAMPLE_PERCENTAGE, DEFAULT_SAMPLE_PERCENTAGE);
+
+        String filter = String.format("%s IS NOT NULL", splitPk);
+        if (StringUtils.isNotBlank(where)) {
+            filter = String.format("(%s) AND (%s)", filter, where);
+        }
+
+        String sql = buildQuantileSql(dataBaseType, splitPk, table, filter, percentage, adviceNum);
+        LOG.info("quantile split [sql={}] is running... ", sql);
+
+        // points[i] 是第 i 个分片的起始值，counts[i] 为其采样的行数
+        List<String> points = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        String jdbcURL = configuration.getString(Key.JDBC_URL);
+        String username = configuration.getString(Key.USERNAME);
+        String password = configuration.getString(Key.PASSWORD);
+        try (Connection conn = DBUtil.getConnection(dataBaseType, jdbcURL, username, password);
+                Statement statement = conn.createStatement();
+                ResultSet rs = statement.executeQuery(sql)) {
+            if (dataBaseType == DataBaseType.ClickHouse) {
+                if (rs.next() && rs.getLong(2) > 0) {
+                    long total = rs.getLong(2);
+                    String[] quantiles = StringUtils.split(rs.getString(1), ',');
+                    points.add(minVal);
+                    for (String quantile : quantiles) {
+                        points.add(quantile);
+                    }
+                    for (int i = 0; i < points.size(); i++) {
+                        counts.add(total / points.size());
+                    }
+                }
+                // quantiles 是对全表的计算，不需要按照采样比例放大
+                percentage = 100.0;
+            }
+            else {
+                while (rs.next()) {
+                    points.add(rs.getString(1));
+                    counts.add(rs.getLong(2));
+                }
+                if (!points.isEmpty()) {
+                    // 第一个分片从最小值开始
+                    points.set(0, minVal);
+                }
+            }
+        }
+        catch (Exception e) {
+            LOG.warn("Failed to split the table [{}] by quantile, fall back to the even range split: {}", table, e.getMessage());
+            return null;
+        }
+        if (points.isEmpty()) {
+            LOG.warn("No rows are sampled from the table [{}], fall back to the even range split.", table);
+            return null;
+        }
+
+        // 合并相同的分位点，重复值较多时不会产生空的分片
+        List<String> boundaries = new ArrayList<>();
+        List<Long> estimatedRows = new ArrayList<>();
+        double scale = 100.0 / percentage;
+        for (int i = 0; i < points.size(); i++) {
+            String point = points.get(i);
+            long rows = Math.round(counts.get(i) * scale);
+            if (!boundaries.isEmpty() && compare(boundaries.get(boundaries.size() - 1), point, isLongType) >= 0) {
+                int last = estimatedRows.size() - 1;
+                estimatedRows.set(last, estimatedRows.get(last) + rows);
+                continue;
+            }
+            boundaries.add(point);
+            estimatedRows.add(rows);
+        }
+        if (compare(boundaries.get(boundaries.size() - 1), maxVal, isLongType) >= 0) {
+            // the last boundary is the max value, merge it into the previous slice
+            if (boundaries.size() > 1) {
+                boundaries.remove(boundaries.size() - 1);
+                long rows = estimatedRows.remove(estimatedRows.size() - 1);
+                int last = estimatedRows.size() - 1;
+                estimatedRows.set(last, estimatedRows.get(last) + rows);
+            }
+        }
+        boundaries.add(maxVal);
+
+        List<String> ranges;
+        if (isLongType) {
+            BigInteger[] integerPoints = new BigInteger[boundaries.size()];
+            for (int i = 0; i < boundaries.size(); i++) {
+                integerPoints[i] = new BigInteger(boundaries.get(i));
+            }
+            ranges = RdbmsRangeSplitWrap.wrapRange(integerPoints, splitPk);
+        }
+        else {
+            ranges = RdbmsRangeSplitWrap.wrapRange(boundaries.toArray(new String[0]), splitPk, "'", dataBaseType);
+        }
+        return new Result(ranges, estimatedRows);
+    }
+
+    private static String buildQuantileSql(DataBaseType dataBaseType, String splitPk, String table, String filter,
+            double percentage, int adviceNum)
+    {
+        String ntileTemplate = "SELECT MIN(%1$s), COUNT(*) FROM (SELECT %1$s, NTILE(%2$d) OVER (ORDER BY %1$s) AS addax_bucket FROM %3$s) t "
+                + "GROUP BY addax_bucket ORDER BY addax_bucket";
+        switch (dataBaseType) {
+            case MySql:
+                return String.format(ntileTemplate, splitPk, adviceNum,
+                        String.format("%s WHERE %s AND RAND() < %s", table, filter, percentage / 100));
+            case PostgreSQL:
+                return String.format(ntileTemplate, splitPk, adviceNum,
+                        String.format("%s TABLESAMPLE SYSTEM (%s) WHERE %s", table, percentage, filter));
+            case SQLServer:
+                return String.format(ntileTemplate, splitPk, adviceNum,
+                        String.format("%s TABLESAMPLE (%s PERCENT) WHERE %s", table, percentage, filter));
+            case ClickHouse:
+                StringBuilder levels = new StringBuilder();
+                for (int i = 1; i < adviceNum; i++) {
+                    if (i > 1) {
+                        levels.append(',');
+                    }
+                    levels.append((double) i / adviceNum);
+                }
+                return String.format("SELECT arrayStringConcat(arrayMap(x -> toString(toInt64(x)), quantiles(%s)(%s)), ','), count() FROM %s WHERE %s",
+                        levels, splitPk, table, filter);
+            default:
+                throw AddaxException.asAddaxException(DBUtilErrorCode.ILLEGAL_SPLIT_PK,
+                        String.format("The quantile split does not support the database [%s].", dataBaseType));
+        }
+    }
+
+    private static int compare(String left, String right, boolean isLongType)
+    {
+        if (isLongType) {
+            return new BigInteger(left).compareTo(new BigInteger(right));
+        }
+        return left.compareTo(right);
+    }
+
+    /**
+     * the ranges of quantile split and the estimated row count of each range
+     */
+    public static class Result
+    {
+        private final List<String> ranges;
+        private final List<Long> estimatedRows;
+
+        Result(List<String> ranges, List<Long> estimatedRows)
+        {
+            this.ranges = ranges;
+            this.estimatedRows = estimatedRows;
+        }
+
+        public List<String> getRanges()
+        {
+            return ranges;
+        }
+
+        public List<Long> getEstimatedRows()
+        {
+            return estimatedRows;
+        }
+    }
+}
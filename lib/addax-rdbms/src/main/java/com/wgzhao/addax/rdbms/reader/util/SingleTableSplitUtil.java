@@ -87,7 +87,11 @@ public class SingleTableSplitUtil
             boolean isStringType = Constant.PK_TYPE_STRING.equals(configuration.getString(Constant.PK_TYPE));
             boolean isLongType = Constant.PK_TYPE_LONG.equals(configuration.getString(Constant.PK_TYPE));
 
-            if (isStringType) {
+            List<String> quantileRanges = splitByQuantile(configuration, minMaxPK, isStringType, isLongType, adviceNum);
+            if (quantileRanges != null) {
+                rangeList = quantileRanges;
+            }
+            else if (isStringType) {
                 rangeList = splitStringPk(configuration, table, where, minMaxPK.getLeft().toString(), minMaxPK.getRight().toString(),
                         adviceNum, splitPkName);
             }
@@ -141,6 +145,43 @@ public class SingleTableSplitUtil
         return pluginParams;
     }
 
+    /**
+     * 当 splitMode 为 quantile 时按照分位点切分，不支持或者采样失败时返回 null，退回到等宽切分
+     */
+    private static List<String> splitByQuantile(Configuration configuration, Pair<Object, Object> minMaxPK,
+            boolean isStringType, boolean isLongType, int adviceNum)
+    {
+        if (!"quantile".equalsIgnoreCase(configuration.getString(Key.SPLIT_MODE, "range"))
+                || !(isStringType || isLongType)) {
+            return null;
+        }
+        if (!QuantileSplitUtil.isSupported(dataBaseType, isLongType)) {
+            LOG.warn("The quantile split does not support [{}] with the split key type [{}], use the range split instead.",
+                    dataBaseType, configuration.getString(Constant.PK_TYPE));
+            return null;
+        }
+        QuantileSplitUtil.Result result = QuantileSplitUtil.split(configuration, dataBaseType, minMaxPK.getLeft().toString(),
+                minMaxPK.getRight().toString(), isLongType, adviceNum);
+        if (result == null) {
+            return null;
+        }
+        logEstimatedRows(result);
+        return result.getRanges();
+    }
+
+    private static void logEstimatedRows(QuantileSplitUtil.Result result)
+    {
+        List<String> ranges = result.getRanges();
+        List<Long> estimatedRows = result.getEstimatedRows();
+        StringBuilder sb = new StringBuilder();
+        long total = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            sb.append(String.format("%n  [%d] %s => ~%d rows", i, ranges.get(i), estimatedRows.get(i)));
+            total += estimatedRows.get(i);
+        }
+        LOG.info("The estimated rows of each slice (~{} rows in total):{}", total, sb);
+    }
+
     public static String buildQuerySql(String column, String table, String where)
     {
         String querySql;
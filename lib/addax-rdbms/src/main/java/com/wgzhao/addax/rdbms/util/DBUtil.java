@@ -255,12 +255,31 @@ public final class DBUtil
         return DBUtil.connect(dataBaseType, jdbcUrl, username, password, socketTimeout);
     }
 
-    private static synchronized Connection connect(DataBaseType dataBaseType, String url, String user, String pass)
+    private static Connection connect(DataBaseType dataBaseType, String url, String user, String pass)
     {
         return connect(dataBaseType, url, user, pass, DEFAULT_SOCKET_TIMEOUT_SEC);
     }
 
-    private static synchronized Connection connect(DataBaseType dataBaseType, String url, String user, String pass, int socketTimeout)
+    /*
+     * 不再加全局锁，多个任务可以并行建立连接
+     */
+    private static Connection connect(DataBaseType dataBaseType, String url, String user, String pass, int socketTimeout)
+    {
+        try {
+            if (JdbcConnectionPool.isEnabled(url, user)) {
+                return JdbcConnectionPool.getConnection(dataBaseType, url, user, pass, socketTimeout);
+            }
+            long start = System.nanoTime();
+            Connection connection = newDataSource(dataBaseType, url, user, pass, socketTimeout).getConnection();
+            JdbcConnectionPool.recordConnectTime(System.nanoTime() - start);
+            return connection;
+        }
+        catch (Exception e) {
+            throw RdbmsException.asConnException(e);
+        }
+    }
+
+    static BasicDataSource newDataSource(DataBaseType dataBaseType, String url, String user, String pass, int socketTimeout)
     {
         BasicDataSource bds = new BasicDataSource();
         bds.setUrl(url);
@@ -282,15 +301,10 @@ public final class DBUtil
             LOG.debug("Connecting to database with driver {}", dataBaseType.getDriverClassName());
             bds.setDriverClassName(dataBaseType.getDriverClassName());
         }
-        try {
-            bds.setMinIdle(2);
-            bds.setMaxIdle(5);
-            bds.setMaxOpenPreparedStatements(200);
-            return bds.getConnection();
-        }
-        catch (Exception e) {
-            throw RdbmsException.asConnException(e);
-        }
+        bds.setMinIdle(2);
+        bds.setMaxIdle(5);
+        bds.setMaxOpenPreparedStatements(200);
+        return bds;
     }
 
     /**
@@ -0,0 +1,220 @@
+/*
+ *
+ *  * Licensed to the Apache Software Foundation (ASF) under one
+ *  * or more contributor license agreements.  See the NOTICE file
+ *  * distributed with this work for additional information
+ *  * regarding copyright ownership.  The ASF licenses this file
+ *  * to you under the Apache License, Version 2.0 (the
+ *  * "License"); you may not use this file except in compliance
+ *  * with the License.  You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing,
+ *  * software distributed under the License is distributed on an
+ *  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  * KIND, either express or implied.  See the License for the
+ *  * specific language governing permissions and limitations
+ *  * under the License.
+ *
+ */
+
+package com.wgzhao.addax.rdbms.util;
+
+import com.wgzhao.addax.common.base.Key;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.util.Configuration;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 作业级别的 JDBC 连接池，以 jdbcUrl 和用户名为 key，由同一个插件的 Job 和所有 Task 共享。
+ * <p>
+ * 通过插件参数 {@code poolSize} 开启，默认不开启，每次获取连接都会重新建立连接。
+ * 开启后切分时的探测查询（主键范围、字段元数据、preCheck 等）和任务的连接都会复用池中的连接，
+ * 对于建立连接开销很大的数据库（TLS、Kerberos 等）可以明显减少作业的启动时间。
+ * 每个数据源的连接池大小由配置了该数据源的插件参数决定，读写两端使用同一个数据源时取较大的值。
+ * <p>
+ * 任务在运行期间一直持有从池中获取的连接，因此切分时会检查 {@code poolSize} 是否足够同时运行的任务使用，
+ * 不够时直接报错，而不是让任务在获取连接时等待超时。
+ * <p>
+ * 同时统计建立连接的耗时和从连接池获取连接的等待时间，在作业结束时输出
+ */
+public final class JdbcConnectionPool
+{
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+    // 从连接池获取连接的最长等待时间
+    private static final long MAX_WAIT_SECONDS = 300L;
+
+    private static final Map<String, BasicDataSource> DATA_SOURCES = new ConcurrentHashMap<>();
+
+    private static final Map<String, Integer> POOL_SIZES = new ConcurrentHashMap<>();
+
+    private static final LongAdder CONNECT_COUNT = new LongAdder();
+    private static final LongAdder CONNECT_TIME = new LongAdder();
+    private static final AtomicLong MAX_CONNECT_TIME = new AtomicLong(0);
+    private static final LongAdder BORROW_COUNT = new LongAdder();
+    private static final LongAdder BORROW_WAIT_TIME = new LongAdder();
+    private static final AtomicLong MAX_BORROW_WAIT_TIME = new AtomicLong(0);
+
+    private JdbcConnectionPool()
+    {
+    }
+
+    /**
+     * 根据插件配置为配置中的数据源开启连接池，在 Job 和 Task 初始化时调用
+     *
+     * @param configuration the plugin configuration
+     */
+    public static void configure(Configuration configuration)
+    {
+        int size = configuration.getInt(Key.POOL_SIZE, 0);
+        if (size <= 0) {
+            return;
+        }
+        String user = configuration.getString(Key.USERNAME);
+        for (String url : getJdbcUrls(configuration)) {
+            String key = toKey(url, user);
+            int poolSize = POOL_SIZES.merge(key, size, Math::max);
+            BasicDataSource dataSource = DATA_SOURCES.get(key);
+            if (dataSource != null && dataSource.getMaxTotal() < poolSize) {
+                dataSource.setMaxIdle(poolSize);
+                dataSource.setMaxTotal(poolSize);
+            }
+        }
+    }
+
+    /**
+     * 检查连接池是否足够同时运行的任务使用，在 Job 切分时调用
+     *
+     * @param configuration the plugin configuration
+     * @param concurrentTasks the max number of tasks running at the same time
+     * @param connectionsPerTask the number of connections each task holds
+     */
+    public static void checkPoolSize(Configuration configuration, int concurrentTasks, int connectionsPerTask)
+    {
+        int size = configuration.getInt(Key.POOL_SIZE, 0);
+        int required = concurrentTasks * connectionsPerTask;
+        if (size > 0 && size < required) {
+            throw AddaxException.asAddaxException(DBUtilErrorCode.CONF_ERROR,
+                    String.format("The poolSize [%d] is too small, [%d] tasks run at the same time and each task holds [%d] connection(s), "
+                                    + "please set poolSize to at least [%d], or decrease the channel number or flushThreads.",
+                            size, concurrentTasks, connectionsPerTask, required));
+        }
+    }
+
+    public static boolean isEnabled(String url, String user)
+    {
+        return POOL_SIZES.containsKey(toKey(url, user));
+    }
+
+    static Connection getConnection(DataBaseType dataBaseType, String url, String user, String pass, int socketTimeout)
+            throws SQLException
+    {
+        String key = toKey(url, user);
+        BasicDataSource dataSource = DATA_SOURCES.computeIfAbsent(key, k -> {
+            int poolSize = POOL_SIZES.get(k);
+            LOG.info("Create the JDBC connection pool for [{}], the max size is {}", url, poolSize);
+            BasicDataSource bds = DBUtil.newDataSource(dataBaseType, url, user, pass, socketTimeout);
+            bds.setMinIdle(0);
+            bds.setMaxIdle(poolSize);
+            bds.setMaxTotal(poolSize);
+            bds.setMaxWaitMillis(TimeUnit.SECONDS.toMillis(MAX_WAIT_SECONDS));
+            return bds;
+        });
+        long start = System.nanoTime();
+        try {
+            return dataSource.getConnection();
+        }
+        finally {
+            long elapsed = System.nanoTime() - start;
+            BORROW_COUNT.increment();
+            BORROW_WAIT_TIME.add(elapsed);
+            MAX_BORROW_WAIT_TIME.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    /*
+     * 任务的配置中 jdbcUrl 位于顶层，作业的配置中位于 connection 下，reader 的 jdbcUrl 还可能是多个候选地址
+     */
+    private static List<String> getJdbcUrls(Configuration configuration)
+    {
+        List<String> urls = new ArrayList<>();
+        addJdbcUrls(urls, configuration.get(Key.JDBC_URL));
+        List<Configuration> connections = configuration.getListConfiguration(Key.CONNECTION);
+        if (connections != null) {
+            for (Configuration connection : connections) {
+                addJdbcUrls(urls, connection.get(Key.JDBC_URL));
+            }
+        }
+        return urls;
+    }
+
+    private static void addJdbcUrls(List<String> urls, Object jdbcUrl)
+    {
+        if (jdbcUrl instanceof String) {
+            urls.add((String) jdbcUrl);
+        }
+        else if (jdbcUrl instanceof List) {
+            for (Object url : (List<?>) jdbcUrl) {
+                if (url != null) {
+                    urls.add(url.toString());
+                }
+            }
+        }
+    }
+
+    private static String toKey(String url, String user)
+    {
+        return url + "\u0001" + user;
+    }
+
+    static void recordConnectTime(long elapsedNanos)
+    {
+        CONNECT_COUNT.increment();
+        CONNECT_TIME.add(elapsedNanos);
+        MAX_CONNECT_TIME.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    /**
+     * 输出连接的统计信息并关闭所有连接池，在 Job 销毁时调用
+     */
+    public static void close()
+    {
+        if (CONNECT_COUNT.sum() > 0) {
+            LOG.info("Opened {} JDBC connections, total connect time {} ms, max {} ms",
+                    CONNECT_COUNT.sum(), toMillis(CONNECT_TIME.sum()), toMillis(MAX_CONNECT_TIME.get()));
+        }
+        if (BORROW_COUNT.sum() > 0) {
+            LOG.info("Borrowed {} JDBC connections from the pool, total wait time {} ms, max {} ms",
+                    BORROW_COUNT.sum(), toMillis(BORROW_WAIT_TIME.sum()), toMillis(MAX_BORROW_WAIT_TIME.get()));
+        }
+        for (Map.Entry<String, BasicDataSource> entry : DATA_SOURCES.entrySet()) {
+            try {
+                entry.getValue().close();
+            }
+            catch (SQLException e) {
+                LOG.warn("Failed to close the connection pool of {}: {}", entry.getValue().getUrl(), e.getMessage());
+            }
+        }
+        DATA_SOURCES.clear();
+        POOL_SIZES.clear();
+    }
+
+    private static long toMillis(long nanos)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
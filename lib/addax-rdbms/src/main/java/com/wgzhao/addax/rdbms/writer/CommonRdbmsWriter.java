@@ -21,10 +21,14 @@
 
 package com.wgzhao.addax.rdbms.writer;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.wgzhao.addax.common.base.Constant;
 import com.wgzhao.addax.common.base.Key;
 import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.PrimitiveDoubleColumn;
+import com.wgzhao.addax.common.element.PrimitiveLongColumn;
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.ScaledDecimalColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
@@ -32,6 +36,7 @@ import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.rdbms.util.DBUtil;
 import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
+import com.wgzhao.addax.rdbms.util.JdbcConnectionPool;
 import com.wgzhao.addax.rdbms.util.RdbmsException;
 import com.wgzhao.addax.rdbms.writer.util.OriginalConfPretreatmentUtil;
 import com.wgzhao.addax.rdbms.writer.util.WriterUtil;
@@ -40,14 +45,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class CommonRdbmsWriter
 {
@@ -65,6 +84,7 @@ public class CommonRdbmsWriter
         public void init(Configuration originalConfig)
         {
             OriginalConfPretreatmentUtil.doPretreatment(originalConfig, this.dataBaseType);
+            JdbcConnectionPool.configure(originalConfig);
             LOG.debug("After job init(), originalConfig now is:[\n{}\n]", originalConfig.toJSON());
         }
 
@@ -149,7 +169,12 @@ public class CommonRdbmsWriter
 
         public List<Configuration> split(Configuration originalConfig, int mandatoryNumber)
         {
-            return WriterUtil.doSplit(originalConfig, mandatoryNumber);
+            List<Configuration> splitConfigs = WriterUtil.doSplit(originalConfig, mandatoryNumber);
+            // 每个任务在运行期间持有一个连接，开启 flushThreads 时每个 flush 线程各持有一个连接
+            int channelNumber = originalConfig.getInt(Key.CHANNEL_NUMBER, mandatoryNumber);
+            int connectionsPerTask = Math.max(1, originalConfig.getInt(Key.FLUSH_THREADS, 0));
+            JdbcConnectionPool.checkPoolSize(originalConfig, Math.min(channelNumber, splitConfigs.size()), connectionsPerTask);
+            return splitConfigs;
         }
 
         // 一般来说，是需要推迟到 task 中进行post 的执行（单表情况例外）
@@ -183,7 +208,7 @@ public class CommonRdbmsWriter
 
         public void destroy(Configuration originalConfig)
         {
-            //
+            JdbcConnectionPool.close();
         }
     }
 
@@ -191,6 +216,8 @@ public class CommonRdbmsWriter
     {
         protected static final Logger LOG = LoggerFactory.getLogger(Task.class);
         private static final String VALUE_HOLDER = "?";
+        // 通知 flush 线程结束的标记，按照引用比较
+        private static final List<Record> END_OF_BATCHES = Collections.emptyList();
         // 作为日志显示信息时，需要附带的通用信息。比如信息所对应的数据库连接等信息，针对哪个表做的操作
         protected static String basicMessage;
         protected static String insertOrReplaceTemplate;
@@ -210,6 +237,13 @@ public class CommonRdbmsWriter
         protected String writeMode;
         protected boolean emptyAsNull;
         protected List<Map<String, Object>> resultSetMetaData;
+        // 每个语句参数对应的记录字段下标，为 null 时按照字段顺序绑定
+        protected int[] columnIndexes;
+        protected int flushThreads;
+        protected int flushQueueSize;
+        private Configuration writerSliceConfig;
+        // 每个连接在任务运行期间复用同一个写入语句
+        private final Map<Connection, PreparedStatement> writeStatements = new ConcurrentHashMap<>();
 
         public Task(DataBaseType dataBaseType)
         {
@@ -221,6 +255,7 @@ public class CommonRdbmsWriter
             this.username = writerSliceConfig.getString(Key.USERNAME);
             this.password = writerSliceConfig.getString(Key.PASSWORD);
             this.jdbcUrl = writerSliceConfig.getString(Key.JDBC_URL);
+            JdbcConnectionPool.configure(writerSliceConfig);
 
             this.table = writerSliceConfig.getString(Key.TABLE);
 
@@ -231,6 +266,9 @@ public class CommonRdbmsWriter
             this.postSqls = writerSliceConfig.getList(Key.POST_SQL, String.class);
             this.batchSize = writerSliceConfig.getInt(Key.BATCH_SIZE, Constant.DEFAULT_BATCH_SIZE);
             this.batchByteSize = writerSliceConfig.getInt(Key.BATCH_BYTE_SIZE, Constant.DEFAULT_BATCH_BYTE_SIZE);
+            this.flushThreads = writerSliceConfig.getInt(Key.FLUSH_THREADS, 0);
+            this.flushQueueSize = Math.max(1, writerSliceConfig.getInt(Key.FLUSH_QUEUE_SIZE, 2));
+            this.writerSliceConfig = writerSliceConfig;
 
             writeMode = writerSliceConfig.getString(Key.WRITE_MODE, "INSERT");
             emptyAsNull = writerSliceConfig.getBool(Key.EMPTY_AS_NULL, true);
@@ -264,26 +302,24 @@ public class CommonRdbmsWriter
             if ((this.dataBaseType == DataBaseType.Oracle || this.dataBaseType == DataBaseType.SQLServer)
                     && !"insert".equalsIgnoreCase(this.writeMode)) {
                 LOG.info("write {} using {} mode", this.dataBaseType, this.writeMode);
-                List<String> columnsOne = new ArrayList<>();
-                List<String> columnsTwo = new ArrayList<>();
-                String merge = this.writeMode;
-                String[] sArray = WriterUtil.getStrings(merge);
-                for (String s : this.columns) {
-                    if (Arrays.asList(sArray).contains(s)) {
-                        columnsOne.add(s);
+                // MERGE 语句的参数依次为：匹配字段，其余字段，所有字段，这里一次性计算出每个参数对应的记录字段下标
+                Set<String> mergeKeys = new HashSet<>(Arrays.asList(WriterUtil.getStrings(this.writeMode)));
+                this.columnIndexes = new int[2 * this.columnNumber];
+                int i = 0;
+                for (int j = 0; j < this.columnNumber; j++) {
+                    if (mergeKeys.contains(this.columns.get(j))) {
+                        mergeColumns.add(this.columns.get(j));
+                        this.columnIndexes[i++] = j;
                     }
                 }
-                for (String s : this.columns) {
-                    if (!Arrays.asList(sArray).contains(s)) {
-                        columnsTwo.add(s);
+                for (int j = 0; j < this.columnNumber; j++) {
+                    if (!mergeKeys.contains(this.columns.get(j))) {
+                        mergeColumns.add(this.columns.get(j));
+                        this.columnIndexes[i++] = j;
                     }
                 }
-                int i = 0;
-                for (String column : columnsOne) {
-                    mergeColumns.add(i++, column);
-                }
-                for (String column : columnsTwo) {
-                    mergeColumns.add(i++, column);
+                for (int j = 0; j < this.columnNumber; j++) {
+                    this.columnIndexes[i++] = j;
                 }
             }
             mergeColumns.addAll(this.columns);
@@ -294,6 +330,11 @@ public class CommonRdbmsWriter
             // 写数据库的SQL语句
             calcWriteRecordSql();
 
+            if (this.flushThreads > 0) {
+                startPipelinedWrite(recordReceiver, connection);
+                return;
+            }
+
             List<Record> writeBuffer = new ArrayList<>(this.batchSize);
             int bufferBytes = 0;
             try {
@@ -314,12 +355,14 @@ public class CommonRdbmsWriter
 
                     if (writeBuffer.size() >= batchSize || bufferBytes >= batchByteSize) {
                         doBatchInsert(connection, writeBuffer);
+                        recordReceiver.releaseAll(writeBuffer);
                         writeBuffer.clear();
                         bufferBytes = 0;
                     }
                 }
                 if (!writeBuffer.isEmpty()) {
                     doBatchInsert(connection, writeBuffer);
+                    recordReceiver.releaseAll(writeBuffer);
                     writeBuffer.clear();
                 }
             }
@@ -329,10 +372,120 @@ public class CommonRdbmsWriter
             }
             finally {
                 writeBuffer.clear();
+                closeWriteStatement(connection);
                 DBUtil.closeDBResources(null, null, connection);
             }
         }
 
+        /*
+         * 当前线程只负责从通道中取数据并组装批次，组装好的批次放入有界队列，由 flushThreads 个线程各自使用独立的连接执行并提交，
+         * 这样在数据库往返期间依然可以继续消费通道。队列满时当前线程等待，任何一个 flush 线程出错都会终止整个写入。
+         * 各个批次在不同的事务中提交，批次之间的先后顺序不做保证。
+         */
+        private void startPipelinedWrite(RecordReceiver recordReceiver, Connection connection)
+        {
+            LOG.info("Flush batches with {} threads, each thread holds at most {} batches.", flushThreads, flushQueueSize);
+            BlockingQueue<List<Record>> pendingBatches = new ArrayBlockingQueue<>(flushThreads * flushQueueSize);
+            AtomicReference<Throwable> flushError = new AtomicReference<>();
+            List<Connection> connections = new ArrayList<>(flushThreads);
+            connections.add(connection);
+            ExecutorService flushExecutor = Executors.newFixedThreadPool(flushThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("flusher-" + Thread.currentThread().getName() + "-%d")
+                    .setDaemon(true)
+                    .build());
+            try {
+                for (int i = 1; i < flushThreads; i++) {
+                    Connection conn = DBUtil.getConnection(dataBaseType, jdbcUrl, username, password);
+                    connections.add(conn);
+                    DBUtil.dealWithSessionConfig(conn, writerSliceConfig, dataBaseType, basicMessage);
+                }
+                List<Future<?>> flushers = new ArrayList<>(flushThreads);
+                for (Connection conn : connections) {
+                    flushers.add(flushExecutor.submit(() -> {
+                        try {
+                            List<Record> batch;
+                            while ((batch = pendingBatches.take()) != END_OF_BATCHES) {
+                                doBatchInsert(conn, batch);
+                                recordReceiver.releaseAll(batch);
+                            }
+                        }
+                        catch (Throwable e) {
+                            flushError.compareAndSet(null, e);
+                            throw e;
+                        }
+                        return null;
+                    }));
+                }
+
+                List<Record> writeBuffer = new ArrayList<>(this.batchSize);
+                int bufferBytes = 0;
+                Record record;
+                while ((record = recordReceiver.getFromReader()) != null) {
+                    if (record.getColumnNumber() != this.columnNumber) {
+                        // 源头读取字段列数与目的表字段写入列数不相等，直接报错
+                        throw AddaxException.asAddaxException(
+                                DBUtilErrorCode.CONF_ERROR,
+                                String.format(
+                                        "The item column number [%d] in source file not equals the column number [%d] in table.",
+                                        record.getColumnNumber(),
+                                        this.columnNumber));
+                    }
+
+                    writeBuffer.add(record);
+                    bufferBytes += record.getMemorySize();
+
+                    if (writeBuffer.size() >= batchSize || bufferBytes >= batchByteSize) {
+                        submitBatch(pendingBatches, writeBuffer, flushError);
+                        writeBuffer = new ArrayList<>(this.batchSize);
+                        bufferBytes = 0;
+                    }
+                }
+                if (!writeBuffer.isEmpty()) {
+                    submitBatch(pendingBatches, writeBuffer, flushError);
+                }
+                for (int i = 0; i < flushThreads; i++) {
+                    submitBatch(pendingBatches, END_OF_BATCHES, flushError);
+                }
+                for (Future<?> flusher : flushers) {
+                    flusher.get();
+                }
+            }
+            catch (ExecutionException e) {
+                throw AddaxException.asAddaxException(
+                        DBUtilErrorCode.WRITE_DATA_ERROR, e.getCause());
+            }
+            catch (Exception e) {
+                throw AddaxException.asAddaxException(
+                        DBUtilErrorCode.WRITE_DATA_ERROR, e);
+            }
+            finally {
+                flushExecutor.shutdownNow();
+                try {
+                    flushExecutor.awaitTermination(1, TimeUnit.MINUTES);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                pendingBatches.clear();
+                for (Connection conn : connections) {
+                    closeWriteStatement(conn);
+                    DBUtil.closeDBResources(null, null, conn);
+                }
+            }
+        }
+
+        private void submitBatch(BlockingQueue<List<Record>> pendingBatches, List<Record> batch, AtomicReference<Throwable> flushError)
+                throws InterruptedException
+        {
+            do {
+                Throwable e = flushError.get();
+                if (e != null) {
+                    throw AddaxException.asAddaxException(DBUtilErrorCode.WRITE_DATA_ERROR, e);
+                }
+            }
+            while (!pendingBatches.offer(batch, 100, TimeUnit.MILLISECONDS));
+        }
+
         public void startWrite(RecordReceiver recordReceiver, Configuration writerSliceConfig, TaskPluginCollector taskPluginCollector)
         {
             Connection connection = DBUtil.getConnection(dataBaseType, jdbcUrl, username, password);
@@ -364,86 +517,121 @@ public class CommonRdbmsWriter
         protected void doBatchInsert(Connection connection, List<Record> buffer)
                 throws SQLException
         {
-            PreparedStatement preparedStatement = null;
+            SQLException e = tryBatchInsert(connection, buffer);
+            if (e != null) {
+                LOG.warn("Rolling back the write of {} records, try to find out the dirty records. because: {}", buffer.size(), e.getMessage());
+                isolateDirtyRecords(connection, buffer, e);
+            }
+        }
+
+        /**
+         * 以一个事务写入一批记录，失败时回滚
+         *
+         * @param connection the connection to write
+         * @param records the records to write
+         * @return null if all records are committed, otherwise the cause of the failure
+         * @throws SQLException if the rollback fails
+         */
+        private SQLException tryBatchInsert(Connection connection, List<Record> records)
+                throws SQLException
+        {
             try {
                 connection.setAutoCommit(false);
-                preparedStatement = connection.prepareStatement(writeRecordSql);
-                if ((this.dataBaseType == DataBaseType.Oracle || this.dataBaseType == DataBaseType.SQLServer)
-                        && !"insert".equalsIgnoreCase(writeMode)) {
-                    String merge = this.writeMode;
-                    String[] sArray = WriterUtil.getStrings(merge);
-                    for (Record record : buffer) {
-                        List<Column> recordOne = new ArrayList<>();
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            if (Arrays.asList(sArray).contains(columns.get(j))) {
-                                recordOne.add(record.getColumn(j));
-                            }
-                        }
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            if (!Arrays.asList(sArray).contains(columns.get(j))) {
-                                recordOne.add(record.getColumn(j));
-                            }
-                        }
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            recordOne.add(record.getColumn(j));
-                        }
-                        for (int j = 0; j < recordOne.size(); j++) {
-                            record.setColumn(j, recordOne.get(j));
-                        }
-                        preparedStatement = fillPreparedStatement(preparedStatement, record);
-                        preparedStatement.addBatch();
-                    }
-                }
-                else {
-                    for (Record record : buffer) {
-                        preparedStatement = fillPreparedStatement(preparedStatement, record);
-                        preparedStatement.addBatch();
-                    }
+                PreparedStatement preparedStatement = getWriteStatement(connection);
+                for (Record record : records) {
+                    preparedStatement = fillPreparedStatement(preparedStatement, record);
+                    preparedStatement.addBatch();
                 }
                 preparedStatement.executeBatch();
                 connection.commit();
+                return null;
             }
             catch (SQLException e) {
-                LOG.warn("Rolling back the write, try to write one line at a time. because: {}", e.getMessage());
+                // 出错后语句中可能残留未执行的批次，关闭后下次重新创建
+                closeWriteStatement(connection);
                 connection.rollback();
-                doOneInsert(connection, buffer);
+                return e;
             }
             catch (Exception e) {
+                closeWriteStatement(connection);
                 throw AddaxException.asAddaxException(
                         DBUtilErrorCode.WRITE_DATA_ERROR, e);
             }
-            finally {
-                DBUtil.closeDBResources(preparedStatement, null);
-            }
         }
 
-        protected void doOneInsert(Connection connection, List<Record> buffer)
+        private PreparedStatement getWriteStatement(Connection connection)
+                throws SQLException
         {
-            PreparedStatement preparedStatement = null;
-            try {
-                connection.setAutoCommit(true);
+            PreparedStatement preparedStatement = writeStatements.get(connection);
+            if (preparedStatement == null) {
                 preparedStatement = connection.prepareStatement(writeRecordSql);
+                writeStatements.put(connection, preparedStatement);
+            }
+            return preparedStatement;
+        }
 
-                for (Record record : buffer) {
-                    try {
-                        preparedStatement = fillPreparedStatement(preparedStatement, record);
-                        preparedStatement.execute();
+        private void closeWriteStatement(Connection connection)
+        {
+            DBUtil.closeDBResources(writeStatements.remove(connection), null);
+        }
+
+        /*
+         * 找出写入失败的批次中的脏数据。驱动在 BatchUpdateException 中给出了每条语句的执行结果时，直接据此定位出错的记录；
+         * 驱动在第一条出错的语句处停止执行时，之前的记录重新作为一批写入，从出错的记录开始继续查找；
+         * 否则把批次一分为二分别重试，直到定位到单条记录。少量脏数据只需要 O(k * log n) 次写入，而不是逐条写入。
+         */
+        private void isolateDirtyRecords(Connection connection, List<Record> records, SQLException cause)
+                throws SQLException
+        {
+            int size = records.size();
+            if (size == 1) {
+                LOG.debug(cause.toString());
+                this.taskPluginCollector.collectDirtyRecord(records.get(0), cause);
+                return;
+            }
+
+            int[] updateCounts = cause instanceof BatchUpdateException ? ((BatchUpdateException) cause).getUpdateCounts() : null;
+            if (updateCounts != null && updateCounts.length == size) {
+                List<Record> passed = new ArrayList<>(size);
+                List<Record> failed = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                        failed.add(records.get(i));
                     }
-                    catch (SQLException e) {
-                        LOG.debug(e.toString());
-                        this.taskPluginCollector.collectDirtyRecord(record, e);
+                    else {
+                        passed.add(records.get(i));
                     }
-                    finally {
-                        // 最后不要忘了关闭 preparedStatement
-                        preparedStatement.clearParameters();
+                }
+                // 所有语句都标记为失败时无法区分，依然使用二分查找
+                if (!failed.isEmpty() && !passed.isEmpty()) {
+                    for (Record record : failed) {
+                        this.taskPluginCollector.collectDirtyRecord(record, cause);
                     }
+                    retryBatchInsert(connection, passed);
+                    return;
                 }
             }
-            catch (Exception e) {
-                throw AddaxException.asAddaxException(DBUtilErrorCode.WRITE_DATA_ERROR, e);
+            else if (updateCounts != null && updateCounts.length > 0 && updateCounts.length < size) {
+                int failedIndex = updateCounts.length;
+                retryBatchInsert(connection, records.subList(0, failedIndex));
+                retryBatchInsert(connection, records.subList(failedIndex, failedIndex + 1));
+                if (failedIndex + 1 < size) {
+                    retryBatchInsert(connection, records.subList(failedIndex + 1, size));
+                }
+                return;
             }
-            finally {
-                DBUtil.closeDBResources(preparedStatement, null);
+
+            int middle = size / 2;
+            retryBatchInsert(connection, records.subList(0, middle));
+            retryBatchInsert(connection, records.subList(middle, size));
+        }
+
+        private void retryBatchInsert(Connection connection, List<Record> records)
+                throws SQLException
+        {
+            SQLException e = tryBatchInsert(connection, records);
+            if (e != null) {
+                isolateDirtyRecords(connection, records, e);
             }
         }
 
@@ -452,6 +640,13 @@ public class CommonRdbmsWriter
                 throws SQLException
         {
             LOG.debug("Record info: {}", record);
+            if (this.columnIndexes != null) {
+                for (int i = 1, len = this.columnIndexes.length; i <= len; i++) {
+                    int columnSqlType = (int) this.resultSetMetaData.get(i).get("type");
+                    preparedStatement = fillPreparedStatementColumnType(preparedStatement, i, columnSqlType, record.getColumn(this.columnIndexes[i - 1]));
+                }
+                return preparedStatement;
+            }
             for (int i = 1, len = record.getColumnNumber(); i <= len; i++) {
                 int columnSqlType = (int) this.resultSetMetaData.get(i).get("type");
                 preparedStatement = fillPreparedStatementColumnType(preparedStatement, i, columnSqlType, record.getColumn(i - 1));
@@ -462,6 +657,9 @@ public class CommonRdbmsWriter
         protected PreparedStatement fillPreparedStatementColumnType(PreparedStatement preparedStatement, int columnIndex, int columnSqlType, Column column)
                 throws SQLException
         {
+            if (fillPrimitiveColumn(preparedStatement, columnIndex, columnSqlType, column)) {
+                return preparedStatement;
+            }
             if (column == null || column.getRawData() == null) {
                 preparedStatement.setObject(columnIndex, null);
                 return preparedStatement;
@@ -572,7 +770,76 @@ public class CommonRdbmsWriter
             return preparedStatement;
         }
 
-        private void calcWriteRecordSql()
+        /*
+         * bind the primitive-backed columns directly, without the string round-trip
+         * return false if the column should be bound in the common way
+         */
+        private boolean fillPrimitiveColumn(PreparedStatement preparedStatement, int columnIndex, int columnSqlType, Column column)
+                throws SQLException
+        {
+            if (column instanceof PrimitiveLongColumn) {
+                long value = ((PrimitiveLongColumn) column).longValue();
+                switch (columnSqlType) {
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                    case Types.INTEGER:
+                    case Types.BIGINT:
+                        preparedStatement.setLong(columnIndex, value);
+                        return true;
+                    case Types.NUMERIC:
+                    case Types.DECIMAL:
+                        if ((int) this.resultSetMetaData.get(columnIndex).get("scale") == 0) {
+                            preparedStatement.setLong(columnIndex, value);
+                        }
+                        else {
+                            preparedStatement.setBigDecimal(columnIndex, BigDecimal.valueOf(value));
+                        }
+                        return true;
+                    case Types.FLOAT:
+                    case Types.REAL:
+                    case Types.DOUBLE:
+                        preparedStatement.setDouble(columnIndex, value);
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+            if (column instanceof PrimitiveDoubleColumn) {
+                switch (columnSqlType) {
+                    case Types.FLOAT:
+                    case Types.REAL:
+                    case Types.DOUBLE:
+                        preparedStatement.setDouble(columnIndex, ((PrimitiveDoubleColumn) column).doubleValue());
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+            if (column instanceof ScaledDecimalColumn) {
+                ScaledDecimalColumn decimal = (ScaledDecimalColumn) column;
+                switch (columnSqlType) {
+                    case Types.NUMERIC:
+                    case Types.DECIMAL:
+                        if ((int) this.resultSetMetaData.get(columnIndex).get("scale") == 0) {
+                            preparedStatement.setLong(columnIndex, decimal.asLong());
+                        }
+                        else {
+                            preparedStatement.setBigDecimal(columnIndex, BigDecimal.valueOf(decimal.unscaledValue(), decimal.scale()));
+                        }
+                        return true;
+                    case Types.FLOAT:
+                    case Types.REAL:
+                    case Types.DOUBLE:
+                        preparedStatement.setDouble(columnIndex, decimal.asDouble());
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+            return false;
+        }
+
+        protected void calcWriteRecordSql()
         {
             List<String> valueHolders = new ArrayList<>(columnNumber);
             for (int i = 1; i <= columnNumber; i++) {
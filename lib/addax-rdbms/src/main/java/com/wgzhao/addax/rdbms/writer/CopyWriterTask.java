@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.rdbms.writer;
+
+import com.wgzhao.addax.common.base.Key;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.plugin.RecordReceiver;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.util.DBUtil;
+import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
+import com.wgzhao.addax.rdbms.util.DataBaseType;
+import com.wgzhao.addax.rdbms.writer.util.BytesBuffer;
+import com.wgzhao.addax.rdbms.writer.util.PgCopyEncoder;
+import org.apache.commons.lang3.StringUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 使用 PostgreSQL 的 {@code COPY ... FROM STDIN} 写入数据，适用于 PostgreSQL 以及 Greenplum 等兼容的数据库。
+ * <p>
+ * 记录直接编码到一个复用的字节缓冲区中，缓冲区满时通过 {@link CopyIn#writeToCopy(byte[], int, int)} 发送给服务端，
+ * 每 {@code batchSize} 条记录结束一次 COPY 并提交。某次 COPY 失败时，该批次的记录改用 insert 语句写入，
+ * 并按照 {@link CommonRdbmsWriter.Task} 的方式定位脏数据。每个任务使用一个连接，通道数大于 1 时会有多个 COPY 同时进行。
+ * 没有开启 COPY 模式时，与 {@link CommonRdbmsWriter.Task} 完全相同。
+ */
+public class CopyWriterTask
+        extends CommonRdbmsWriter.Task
+{
+    private static final Logger LOG = LoggerFactory.getLogger(CopyWriterTask.class);
+
+    // 缓冲区达到该大小后发送给服务端
+    private static final int FLUSH_BYTES = 64 * 1024;
+
+    private boolean copyMode;
+
+    private boolean binaryFormat;
+
+    public CopyWriterTask(DataBaseType dataBaseType)
+    {
+        super(dataBaseType);
+    }
+
+    @Override
+    public void init(Configuration writerSliceConfig)
+    {
+        super.init(writerSliceConfig);
+        this.copyMode = isCopyMode(this.writeMode);
+        if (this.copyMode) {
+            // 写入失败的批次使用 insert 语句定位脏数据
+            this.writeMode = "insert";
+            String format = writerSliceConfig.getString(Key.COPY_FORMAT, "text");
+            if (!"text".equalsIgnoreCase(format) && !"binary".equalsIgnoreCase(format)) {
+                throw AddaxException.asAddaxException(DBUtilErrorCode.CONF_ERROR,
+                        String.format("The copyFormat [%s] is unsupported, only text and binary are supported.", format));
+            }
+            this.binaryFormat = "binary".equalsIgnoreCase(format);
+        }
+    }
+
+    /**
+     * 是否使用 COPY 写入，默认在 writeMode 为 copy 时使用
+     *
+     * @param writeMode the configured write mode
+     * @return true if write with COPY
+     */
+    protected boolean isCopyMode(String writeMode)
+    {
+        return "copy".equalsIgnoreCase(writeMode);
+    }
+
+    private String constructColumnNameList(List<String> columnList)
+    {
+        List<String> columns = new ArrayList<>();
+
+        for (String column : columnList) {
+            if (column.endsWith("\"") && column.startsWith("\"")) {
+                columns.add(column);
+            }
+            else {
+                columns.add("\"" + column + "\"");
+            }
+        }
+
+        return StringUtils.join(columns, ",");
+    }
+
+    protected String getCopySql()
+    {
+        return "COPY " + this.table + "(" + constructColumnNameList(this.columns) + ") FROM STDIN"
+                + (this.binaryFormat ? " WITH BINARY" : "");
+    }
+
+    @Override
+    public void startWriteWithConnection(RecordReceiver recordReceiver, TaskPluginCollector taskPluginCollector, Connection connection)
+    {
+        if (!this.copyMode) {
+            super.startWriteWithConnection(recordReceiver, taskPluginCollector, connection);
+            return;
+        }
+
+        this.taskPluginCollector = taskPluginCollector;
+        this.resultSetMetaData = DBUtil.getColumnMetaData(connection, this.table, constructColumnNameList(this.columns));
+        calcWriteRecordSql();
+
+        String copySql = getCopySql();
+        LOG.info("Write data with [{}]", copySql);
+        PgCopyEncoder encoder = new PgCopyEncoder(this.resultSetMetaData, this.columnNumber, this.binaryFormat);
+        BytesBuffer buffer = new BytesBuffer(FLUSH_BYTES);
+        List<Record> batch = new ArrayList<>(this.batchSize);
+        int batchBytes = 0;
+        CopyIn copyIn = null;
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            Record record;
+            while ((record = recordReceiver.getFromReader()) != null) {
+                if (record.getColumnNumber() != this.columnNumber) {
+                    // 源头读取字段列数与目的表字段写入列数不相等，直接报错
+                    throw AddaxException.asAddaxException(
+                            DBUtilErrorCode.CONF_ERROR,
+                            String.format(
+                                    "The item column number [%d] in source file not equals the column number [%d] in table.",
+                                    record.getColumnNumber(),
+                                    this.columnNumber));
+                }
+
+                int mark = buffer.size();
+                try {
+                    encoder.encode(record, buffer);
+                }
+                catch (Exception e) {
+                    // binary 格式下字段无法转换为目标类型
+                    buffer.truncate(mark);
+                    this.taskPluginCollector.collectDirtyRecord(record, e);
+                    recordReceiver.release(record);
+                    continue;
+                }
+                batch.add(record);
+                batchBytes += record.getMemorySize();
+
+                try {
+                    if (copyIn == null) {
+                        copyIn = startCopy(connection, copyManager, copySql, encoder);
+                    }
+                    if (buffer.size() >= FLUSH_BYTES) {
+                        copyIn.writeToCopy(buffer.array(), 0, buffer.size());
+                        buffer.reset();
+                    }
+                    if (batch.size() >= this.batchSize || batchBytes >= this.batchByteSize) {
+                        endCopy(copyIn, encoder, buffer);
+                        copyIn = null;
+                        recordReceiver.releaseAll(batch);
+                        batch.clear();
+                        batchBytes = 0;
+                    }
+                }
+                catch (SQLException e) {
+                    writeFailedBatch(connection, copyIn, batch, e);
+                    copyIn = null;
+                    buffer.reset();
+                    recordReceiver.releaseAll(batch);
+                    batch.clear();
+                    batchBytes = 0;
+                }
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    if (copyIn == null) {
+                        copyIn = startCopy(connection, copyManager, copySql, encoder);
+                    }
+                    endCopy(copyIn, encoder, buffer);
+                }
+                catch (SQLException e) {
+                    writeFailedBatch(connection, copyIn, batch, e);
+                }
+                copyIn = null;
+                recordReceiver.releaseAll(batch);
+                batch.clear();
+            }
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(
+                    DBUtilErrorCode.WRITE_DATA_ERROR, e);
+        }
+        finally {
+            cancelCopy(copyIn);
+            DBUtil.closeDBResources(null, null, connection);
+        }
+    }
+
+    /*
+     * 开始一次 COPY，binary 格式先发送文件头，缓冲区中已经编码好的记录在之后发送
+     */
+    private CopyIn startCopy(Connection connection, CopyManager copyManager, String copySql, PgCopyEncoder encoder)
+            throws SQLException
+    {
+        // 逐条写入脏数据时会关闭自动提交，COPY 依然在各自的事务中提交
+        if (!connection.getAutoCommit()) {
+            connection.setAutoCommit(true);
+        }
+        CopyIn copyIn = copyManager.copyIn(copySql);
+        if (encoder.isBinary()) {
+            BytesBuffer header = new BytesBuffer(32);
+            encoder.writeHeader(header);
+            copyIn.writeToCopy(header.array(), 0, header.size());
+        }
+        return copyIn;
+    }
+
+    private void endCopy(CopyIn copyIn, PgCopyEncoder encoder, BytesBuffer buffer)
+            throws SQLException
+    {
+        encoder.writeTrailer(buffer);
+        copyIn.writeToCopy(buffer.array(), 0, buffer.size());
+        buffer.reset();
+        copyIn.endCopy();
+    }
+
+    private void writeFailedBatch(Connection connection, CopyIn copyIn, List<Record> batch, SQLException e)
+            throws SQLException
+    {
+        LOG.warn("Failed to copy {} records, try to write them with insert. because: {}", batch.size(), e.getMessage());
+        cancelCopy(copyIn);
+        doBatchInsert(connection, batch);
+    }
+
+    private static void cancelCopy(CopyIn copyIn)
+    {
+        if (copyIn != null && copyIn.isActive()) {
+            try {
+                copyIn.cancelCopy();
+            }
+            catch (SQLException e) {
+                LOG.debug("Failed to cancel the copy: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.rdbms.writer.util;
+
+import java.util.Arrays;
+
+/**
+ * 可以复用的字节缓冲区，用于把记录编码为数据库批量加载（如 PostgreSQL COPY）所需的格式。
+ * 与 {@link java.io.ByteArrayOutputStream} 不同，这里的方法都不加锁，并且可以直接访问底层数组，避免每个批次复制一次。
+ */
+public class BytesBuffer
+{
+    private byte[] buf;
+
+    private int count;
+
+    public BytesBuffer(int initialCapacity)
+    {
+        this.buf = new byte[initialCapacity];
+    }
+
+    private void ensureCapacity(int extra)
+    {
+        if (count + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + extra));
+        }
+    }
+
+    public void write(int b)
+    {
+        ensureCapacity(1);
+        buf[count++] = (byte) b;
+    }
+
+    public void write(byte[] b)
+    {
+        write(b, 0, b.length);
+    }
+
+    public void write(byte[] b, int off, int len)
+    {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    public void writeShort(int v)
+    {
+        ensureCapacity(2);
+        buf[count++] = (byte) (v >>> 8);
+        buf[count++] = (byte) v;
+    }
+
+    public void writeInt(int v)
+    {
+        ensureCapacity(4);
+        buf[count++] = (byte) (v >>> 24);
+        buf[count++] = (byte) (v >>> 16);
+        buf[count++] = (byte) (v >>> 8);
+        buf[count++] = (byte) v;
+    }
+
+    public void writeLong(long v)
+    {
+        writeInt((int) (v >>> 32));
+        writeInt((int) v);
+    }
+
+    /**
+     * 以 UTF-8 编码写入一个字符，不成对的代理字符写为 '?'
+     *
+     * @param codePoint unicode code point
+     */
+    public void writeCodePoint(int codePoint)
+    {
+        if (codePoint < 0x80) {
+            write(codePoint);
+        }
+        else if (codePoint < 0x800) {
+            ensureCapacity(2);
+            buf[count++] = (byte) (0xc0 | (codePoint >> 6));
+            buf[count++] = (byte) (0x80 | (codePoint & 0x3f));
+        }
+        else if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            write('?');
+        }
+        else if (codePoint < 0x10000) {
+            ensureCapacity(3);
+            buf[count++] = (byte) (0xe0 | (codePoint >> 12));
+            buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+            buf[count++] = (byte) (0x80 | (codePoint & 0x3f));
+        }
+        else {
+            ensureCapacity(4);
+            buf[count++] = (byte) (0xf0 | (codePoint >> 18));
+            buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+            buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+            buf[count++] = (byte) (0x80 | (codePoint & 0x3f));
+        }
+    }
+
+    /**
+     * 以 UTF-8 编码写入字符串，不做任何转义
+     *
+     * @param s the string to write
+     */
+    public void writeUtf8(String s)
+    {
+        for (int i = 0, len = s.length(); i < len; ) {
+            int codePoint = s.codePointAt(i);
+            writeCodePoint(codePoint);
+            i += Character.charCount(codePoint);
+        }
+    }
+
+    /**
+     * 在指定位置覆盖写入一个 int，用于回填长度等字段
+     *
+     * @param pos the position to write
+     * @param v the value
+     */
+    public void setInt(int pos, int v)
+    {
+        buf[pos] = (byte) (v >>> 24);
+        buf[pos + 1] = (byte) (v >>> 16);
+        buf[pos + 2] = (byte) (v >>> 8);
+        buf[pos + 3] = (byte) v;
+    }
+
+    public byte[] array()
+    {
+        return buf;
+    }
+
+    public int size()
+    {
+        return count;
+    }
+
+    public void reset()
+    {
+        count = 0;
+    }
+
+    /**
+     * 丢弃指定位置之后的内容，用于撤销编码失败的记录
+     *
+     * @param size the size to keep
+     */
+    public void truncate(int size)
+    {
+        count = size;
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.rdbms.writer.util;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.exception.CommonErrorCode;
+import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 把记录编码为 PostgreSQL {@code COPY ... FROM STDIN} 的 text 或者 binary 格式，直接写入 {@link BytesBuffer}。
+ * <p>
+ * text 格式使用制表符分隔字段，{@code \N} 表示 NULL，并转义反斜杠、制表符和换行符，bytea 使用转义格式以兼容 Greenplum。
+ * binary 格式按照字段类型写入 PostgreSQL 的内部二进制表示，省去服务端的解析，但只支持常见的类型。
+ */
+public class PgCopyEncoder
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PgCopyEncoder.class);
+
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+
+    // 2000-01-01 相对于 1970-01-01 的天数以及微秒数
+    private static final long PG_EPOCH_DAYS = 10957L;
+    private static final long PG_EPOCH_MICROS = PG_EPOCH_DAYS * 86400L * 1000000L;
+
+    private static final int TEXT = 0;
+    private static final int BYTEA = 1;
+    private static final int BOOL = 2;
+    private static final int INT2 = 3;
+    private static final int INT4 = 4;
+    private static final int INT8 = 5;
+    private static final int FLOAT4 = 6;
+    private static final int FLOAT8 = 7;
+    private static final int NUMERIC = 8;
+    private static final int DATE = 9;
+    private static final int TIMESTAMP = 10;
+    private static final int TIMESTAMPTZ = 11;
+    private static final int UUID_TYPE = 12;
+    private static final int JSONB = 13;
+    private static final int OTHER = 14;
+
+    private final boolean binary;
+
+    private final int[] kinds;
+
+    private boolean nulCharWarned = false;
+
+    /**
+     * @param resultSetMetaData the column meta data of the target table, starts from index 1
+     * @param columnNumber the number of columns to write
+     * @param binary use binary format or text format
+     */
+    public PgCopyEncoder(List<Map<String, Object>> resultSetMetaData, int columnNumber, boolean binary)
+    {
+        this.binary = binary;
+        this.kinds = new int[columnNumber];
+        for (int i = 0; i < columnNumber; i++) {
+            Map<String, Object> meta = resultSetMetaData.get(i + 1);
+            String typeName = String.valueOf(meta.get("typeName")).toLowerCase();
+            int kind = kindOf(typeName, (int) meta.get("type"));
+            if (binary && kind == OTHER) {
+                throw AddaxException.asAddaxException(DBUtilErrorCode.CONF_ERROR,
+                        String.format("The binary copy format does not support the type [%s] of column [%s], please use the text format.",
+                                typeName, meta.get("name")));
+            }
+            this.kinds[i] = kind;
+        }
+    }
+
+    private static int kindOf(String typeName, int sqlType)
+    {
+        switch (typeName) {
+            case "bool":
+                return BOOL;
+            case "int2":
+            case "smallserial":
+                return INT2;
+            case "int4":
+            case "serial":
+                return INT4;
+            case "int8":
+            case "bigserial":
+                return INT8;
+            case "float4":
+                return FLOAT4;
+            case "float8":
+                return FLOAT8;
+            case "numeric":
+                return NUMERIC;
+            case "date":
+                return DATE;
+            case "timestamp":
+                return TIMESTAMP;
+            case "timestamptz":
+                return TIMESTAMPTZ;
+            case "uuid":
+                return UUID_TYPE;
+            case "jsonb":
+                return JSONB;
+            case "bytea":
+                return BYTEA;
+            case "text":
+            case "varchar":
+            case "bpchar":
+            case "name":
+            case "json":
+            case "xml":
+                return TEXT;
+            default:
+                // Greenplum 等兼容数据库的类型名可能不同，再根据 JDBC 类型判断是否为字符或者二进制类型
+                switch (sqlType) {
+                    case Types.CHAR:
+                    case Types.NCHAR:
+                    case Types.VARCHAR:
+                    case Types.NVARCHAR:
+                    case Types.LONGVARCHAR:
+                    case Types.LONGNVARCHAR:
+                        return TEXT;
+                    case Types.BINARY:
+                    case Types.VARBINARY:
+                    case Types.LONGVARBINARY:
+                        return BYTEA;
+                    default:
+                        return OTHER;
+                }
+        }
+    }
+
+    public boolean isBinary()
+    {
+        return binary;
+    }
+
+    /**
+     * 写入 binary 格式的文件头，text 格式没有文件头
+     *
+     * @param buffer the target buffer
+     */
+    public void writeHeader(BytesBuffer buffer)
+    {
+        if (binary) {
+            buffer.write(BINARY_SIGNATURE);
+            // flags and header extension length
+            buffer.writeInt(0);
+            buffer.writeInt(0);
+        }
+    }
+
+    /**
+     * 写入 binary 格式的结束标记，text 格式不需要结束标记
+     *
+     * @param buffer the target buffer
+     */
+    public void writeTrailer(BytesBuffer buffer)
+    {
+        if (binary) {
+            buffer.writeShort(-1);
+        }
+    }
+
+    public void encode(Record record, BytesBuffer buffer)
+    {
+        if (binary) {
+            encodeBinary(record, buffer);
+        }
+        else {
+            encodeText(record, buffer);
+        }
+    }
+
+    /*
+     * 非字符类型的字段遇到空字符串时作为 NULL 写入，与逐条写入时的处理保持一致
+     */
+    private static boolean isNull(Column column, int kind)
+    {
+        if (column == null || column.getRawData() == null) {
+            return true;
+        }
+        return kind != TEXT && kind != BYTEA && column.getType() == Column.Type.STRING && column.asString().isEmpty();
+    }
+
+    private void encodeText(Record record, BytesBuffer buffer)
+    {
+        for (int i = 0; i < kinds.length; i++) {
+            if (i > 0) {
+                buffer.write('\t');
+            }
+            Column column = record.getColumn(i);
+            if (isNull(column, kinds[i])) {
+                buffer.write('\\');
+                buffer.write('N');
+                continue;
+            }
+            if (kinds[i] == BYTEA) {
+                writeTextBytea(column.asBytes(), buffer);
+            }
+            else if (column.getType() == Column.Type.DATE && kinds[i] >= DATE && kinds[i] <= TIMESTAMPTZ) {
+                // 与 insert 模式的 setDate/setTimestamp 保持一致，按照 JVM 本地时间输出
+                writeTextString(formatDate(column, kinds[i]), buffer);
+            }
+            else {
+                writeTextString(column.asString(), buffer);
+            }
+        }
+        buffer.write('\n');
+    }
+
+    private static String formatDate(Column column, int kind)
+    {
+        Timestamp ts = column.asTimestamp();
+        if (kind == DATE) {
+            return new java.sql.Date(ts.getTime()).toString();
+        }
+        if (kind == TIMESTAMPTZ) {
+            return ts.toInstant().toString();
+        }
+        return ts.toString();
+    }
+
+    private void writeTextString(String data, BytesBuffer buffer)
+    {
+        for (int i = 0, len = data.length(); i < len; ) {
+            int c = data.codePointAt(i);
+            i += Character.charCount(c);
+            switch (c) {
+                case 0x00:
+                    if (!nulCharWarned) {
+                        LOG.warn("Illegal symbol 0x00 exists, has dropped it");
+                        nulCharWarned = true;
+                    }
+                    break;
+                case '\\':
+                    buffer.write('\\');
+                    buffer.write('\\');
+                    break;
+                case '\t':
+                    buffer.write('\\');
+                    buffer.write('t');
+                    break;
+                case '\n':
+                    buffer.write('\\');
+                    buffer.write('n');
+                    break;
+                case '\r':
+                    buffer.write('\\');
+                    buffer.write('r');
+                    break;
+                default:
+                    buffer.writeCodePoint(c);
+                    break;
+            }
+        }
+    }
+
+    /*
+     * 使用 bytea 的转义格式：不可打印的字节写为 \ooo，反斜杠写为 \\，由于 COPY 本身还会处理一次反斜杠，这里的反斜杠都需要写两次
+     */
+    private static void writeTextBytea(byte[] data, BytesBuffer buffer)
+    {
+        for (byte b : data) {
+            if (b == '\\') {
+                buffer.write('\\');
+                buffer.write('\\');
+                buffer.write('\\');
+                buffer.write('\\');
+            }
+            else if (b < 0x20 || b > 0x7e) {
+                buffer.write('\\');
+                buffer.write('\\');
+                buffer.write('0' + ((b >> 6) & 3));
+                buffer.write('0' + ((b >> 3) & 7));
+                buffer.write('0' + (b & 7));
+            }
+            else {
+                buffer.write(b);
+            }
+        }
+    }
+
+    private void encodeBinary(Record record, BytesBuffer buffer)
+    {
+        buffer.writeShort(kinds.length);
+        for (int i = 0; i < kinds.length; i++) {
+            Column column = record.getColumn(i);
+            if (isNull(column, kinds[i])) {
+                buffer.writeInt(-1);
+                continue;
+            }
+            switch (kinds[i]) {
+                case BOOL:
+                    buffer.writeInt(1);
+                    buffer.write(column.asBoolean() ? 1 : 0);
+                    break;
+                case INT2:
+                    buffer.writeInt(2);
+                    buffer.writeShort((int) checkRange(column.asLong(), Short.MIN_VALUE, Short.MAX_VALUE, "smallint"));
+                    break;
+                case INT4:
+                    buffer.writeInt(4);
+                    buffer.writeInt((int) checkRange(column.asLong(), Integer.MIN_VALUE, Integer.MAX_VALUE, "integer"));
+                    break;
+                case INT8:
+                    buffer.writeInt(8);
+                    buffer.writeLong(column.asLong());
+                    break;
+                case FLOAT4:
+                    buffer.writeInt(4);
+                    buffer.writeInt(Float.floatToIntBits(column.asDouble().floatValue()));
+                    break;
+                case FLOAT8:
+                    buffer.writeInt(8);
+                    buffer.writeLong(Double.doubleToLongBits(column.asDouble()));
+                    break;
+                case NUMERIC:
+                    writeBinaryNumeric(column.asBigDecimal(), buffer);
+                    break;
+                case DATE:
+                    buffer.writeInt(4);
+                    buffer.writeInt((int) (new java.sql.Date(column.asDate().getTime()).toLocalDate().toEpochDay() - PG_EPOCH_DAYS));
+                    break;
+                case TIMESTAMP: {
+                    // timestamp without time zone 保存的是本地时间，按照 UTC 计算微秒数
+                    Timestamp ts = column.asTimestamp();
+                    long seconds = ts.toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+                    buffer.writeInt(8);
+                    buffer.writeLong(seconds * 1000000L + ts.getNanos() / 1000 - PG_EPOCH_MICROS);
+                    break;
+                }
+                case TIMESTAMPTZ: {
+                    Timestamp ts = column.asTimestamp();
+                    long seconds = Math.floorDiv(ts.getTime(), 1000L);
+                    buffer.writeInt(8);
+                    buffer.writeLong(seconds * 1000000L + ts.getNanos() / 1000 - PG_EPOCH_MICROS);
+                    break;
+                }
+                case UUID_TYPE: {
+                    UUID uuid = UUID.fromString(column.asString());
+                    buffer.writeInt(16);
+                    buffer.writeLong(uuid.getMostSignificantBits());
+                    buffer.writeLong(uuid.getLeastSignificantBits());
+                    break;
+                }
+                case BYTEA: {
+                    byte[] data = column.asBytes();
+                    buffer.writeInt(data.length);
+                    buffer.write(data);
+                    break;
+                }
+                default: {
+                    // 文本类型以及 jsonb 先占位长度，写完内容后回填
+                    int lengthPos = buffer.size();
+                    buffer.writeInt(0);
+                    if (kinds[i] == JSONB) {
+                        // jsonb binary format version
+                        buffer.write(1);
+                    }
+                    buffer.writeUtf8(column.asString());
+                    buffer.setInt(lengthPos, buffer.size() - lengthPos - 4);
+                    break;
+                }
+            }
+        }
+    }
+
+    /*
+     * binary 格式直接写入定长整数，超出目标类型范围的值不能截断，抛出异常后该记录作为脏数据处理
+     */
+    private static long checkRange(long value, long min, long max, String type)
+    {
+        if (value < min || value > max) {
+            throw AddaxException.asAddaxException(CommonErrorCode.CONVERT_OVER_FLOW,
+                    String.format("The value [%d] is out of range for type %s.", value, type));
+        }
+        return value;
+    }
+
+    /*
+     * numeric 的二进制格式：ndigits, weight, sign, dscale 四个 int16，之后是 ndigits 个以 10000 为基数的 int16 数字，
+     * weight 为第一个数字对应的 10000 的幂次
+     */
+    private static void writeBinaryNumeric(BigDecimal value, BytesBuffer buffer)
+    {
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        int sign = value.signum() < 0 ? 0x4000 : 0x0000;
+        int dscale = value.scale();
+        String plain = value.abs().toPlainString();
+        int point = plain.indexOf('.');
+        String intPart = point < 0 ? plain : plain.substring(0, point);
+        String fracPart = point < 0 ? "" : plain.substring(point + 1);
+
+        int intGroups = (intPart.length() + 3) / 4;
+        int fracGroups = (fracPart.length() + 3) / 4;
+        short[] digits = new short[intGroups + fracGroups];
+        // 整数部分左侧补零，小数部分右侧补零，使每 4 位对齐
+        int pad = intGroups * 4 - intPart.length();
+        for (int i = 0; i < intPart.length(); i++) {
+            int pos = pad + i;
+            digits[pos / 4] = (short) (digits[pos / 4] * 10 + (intPart.charAt(i) - '0'));
+        }
+        for (int i = 0; i < fracGroups * 4; i++) {
+            int d = i < fracPart.length() ? fracPart.charAt(i) - '0' : 0;
+            int group = intGroups + i / 4;
+            digits[group] = (short) (digits[group] * 10 + d);
+        }
+
+        int first = 0;
+        int last = digits.length;
+        while (first < last && digits[first] == 0) {
+            first++;
+        }
+        while (last > first && digits[last - 1] == 0) {
+            last--;
+        }
+        int ndigits = last - first;
+        int weight = ndigits == 0 ? 0 : intGroups - 1 - first;
+        if (ndigits == 0) {
+            sign = 0x0000;
+        }
+
+        buffer.writeInt(8 + 2 * ndigits);
+        buffer.writeShort(ndigits);
+        buffer.writeShort(weight);
+        buffer.writeShort(sign);
+        buffer.writeShort(dscale);
+        for (int i = first; i < last; i++) {
+            buffer.writeShort(digits[i]);
+        }
+    }
+}
@@ -133,6 +133,8 @@ public final class WriterUtil
     public static String getWriteTemplate(List<String> columnHolders, List<String> valueHolders,
             String writeMode, DataBaseType dataBaseType, boolean forceUseUpdate)
     {
+        // 批量加载模式（如 PostgreSQL 的 COPY）在定位脏数据时使用对应的 insert 或者 replace 语句
+        writeMode = getBulkLoadFallbackMode(writeMode);
         String mode = writeMode.trim().toLowerCase();
         String columns = StringUtils.join(columnHolders, ",");
         String placeHolders = StringUtils.join(valueHolders, ",");
@@ -176,6 +178,34 @@ public final class WriterUtil
         return writeDataSqlTemplate;
     }
 
+    /**
+     * 批量加载模式写入失败时，改用逐条语句写入所使用的写入模式。
+     * PostgreSQL 的 {@code copy} 对应 insert；MySQL 的 {@code load}, {@code load replace}, {@code load ignore}
+     * 分别对应 insert, replace 和 insert ignore。其他写入模式原样返回
+     *
+     * @param writeMode the configured write mode
+     * @return the write mode used by the statement
+     */
+    public static String getBulkLoadFallbackMode(String writeMode)
+    {
+        String mode = writeMode.trim().toLowerCase();
+        if ("copy".equals(mode) || "load".equals(mode)) {
+            return "insert";
+        }
+        if (mode.startsWith("load")) {
+            String option = mode.substring(4).trim();
+            if ("replace".equals(option)) {
+                return "replace";
+            }
+            if ("ignore".equals(option)) {
+                return "insert ignore";
+            }
+            throw AddaxException.asAddaxException(DBUtilErrorCode.ILLEGAL_VALUE,
+                    String.format("您所配置的 writeMode:%s 错误. load 模式仅支持 load, load replace 或 load ignore. 请检查您的配置并作出修改.", writeMode));
+        }
+        return writeMode;
+    }
+
     private static String doPostgresqlUpdate(String writeMode, List<String> columnHolders)
     {
         String conflict = writeMode.replace("update", "");
@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.rdbms.writer;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import com.wgzhao.addax.rdbms.util.DataBaseType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量写入失败后查找脏数据的测试，使用一个在内存中模拟事务的连接，按照不同驱动的行为报告失败的语句
+ */
+public class TestCommonRdbmsWriter
+{
+    private static final int BATCH_SIZE = 2048;
+
+    private enum Driver
+    {
+        // 只抛出 SQLException，不给出每条语句的结果
+        NO_UPDATE_COUNTS,
+        // 继续执行所有语句，给出每条语句的结果
+        FULL_UPDATE_COUNTS,
+        // 在第一条出错的语句处停止，只给出之前语句的结果
+        STOP_AT_FIRST_FAILURE
+    }
+
+    @Test
+    public void testBisectionWithoutUpdateCounts()
+            throws SQLException
+    {
+        FakeDatabase db = run(Driver.NO_UPDATE_COUNTS, Collections.singleton(1234));
+        // 二分查找一条脏数据，每一层写入两个子批次
+        assertTrue(db.executions <= 1 + 2 * 11, "too many round trips: " + db.executions);
+
+        db = run(Driver.NO_UPDATE_COUNTS, new HashSet<>(Arrays.asList(0, 1, 2, 1000, BATCH_SIZE - 1)));
+        assertTrue(db.executions < BATCH_SIZE / 10, "too many round trips: " + db.executions);
+    }
+
+    @Test
+    public void testFullUpdateCounts()
+            throws SQLException
+    {
+        FakeDatabase db = run(Driver.FULL_UPDATE_COUNTS, new HashSet<>(Arrays.asList(3, 77, 2000)));
+        assertEquals(2, db.executions);
+    }
+
+    @Test
+    public void testStopAtFirstFailure()
+            throws SQLException
+    {
+        FakeDatabase db = run(Driver.STOP_AT_FIRST_FAILURE, Collections.singleton(500));
+        // 整批，出错之前的记录，出错的记录，之后的记录
+        assertEquals(4, db.executions);
+        run(Driver.STOP_AT_FIRST_FAILURE, new HashSet<>(Arrays.asList(0, 1, 700, BATCH_SIZE - 1)));
+    }
+
+    @Test
+    public void testAllRecordsDirty()
+            throws SQLException
+    {
+        Set<Integer> all = new HashSet<>();
+        for (int i = 0; i < 16; i++) {
+            all.add(i);
+        }
+        for (Driver driver : Driver.values()) {
+            run(driver, 16, all);
+        }
+    }
+
+    @Test
+    public void testRandomDirtyRecords()
+            throws SQLException
+    {
+        Random random = new Random(2048L);
+        for (Driver driver : Driver.values()) {
+            for (int round = 0; round < 20; round++) {
+                int size = 1 + random.nextInt(300);
+                Set<Integer> dirty = new HashSet<>();
+                int count = random.nextInt(8);
+                for (int i = 0; i < count; i++) {
+                    dirty.add(random.nextInt(size));
+                }
+                run(driver, size, dirty);
+            }
+        }
+    }
+
+    private static FakeDatabase run(Driver driver, Set<Integer> dirty)
+            throws SQLException
+    {
+        return run(driver, BATCH_SIZE, dirty);
+    }
+
+    /*
+     * 写入一批记录，检查正常的记录都只提交了一次，脏数据都被收集并且没有被提交
+     */
+    private static FakeDatabase run(Driver driver, int size, Set<Integer> dirty)
+            throws SQLException
+    {
+        FakeDatabase db = new FakeDatabase(driver, dirty);
+        FakeTask task = new FakeTask(db);
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            records.add(new IdRecord(i));
+        }
+        task.doBatchInsert(db.connection, records);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (!dirty.contains(i)) {
+                expected.add(i);
+            }
+        }
+        List<Integer> committed = new ArrayList<>(db.committed);
+        Collections.sort(committed);
+        assertEquals(expected, committed, driver.toString());
+        assertEquals(dirty, new HashSet<>(task.collected), driver.toString());
+        assertEquals(dirty.size(), task.collected.size(), driver.toString());
+        return db;
+    }
+
+    private static class FakeTask
+            extends CommonRdbmsWriter.Task
+    {
+        private final FakeDatabase db;
+        private final List<Integer> collected = new ArrayList<>();
+
+        FakeTask(FakeDatabase db)
+        {
+            super(DataBaseType.MySql);
+            this.db = db;
+            this.writeRecordSql = "INSERT INTO t VALUES (?)";
+            this.taskPluginCollector = new TaskPluginCollector()
+            {
+                @Override
+                public void collectDirtyRecord(Record dirtyRecord, Throwable t, String errorMessage)
+                {
+                    collected.add(((IdRecord) dirtyRecord).id);
+                }
+
+                @Override
+                public void collectMessage(String key, String value)
+                {
+                }
+            };
+        }
+
+        @Override
+        protected PreparedStatement fillPreparedStatement(PreparedStatement preparedStatement, Record record)
+        {
+            db.current = ((IdRecord) record).id;
+            return preparedStatement;
+        }
+    }
+
+    /*
+     * 模拟事务：executeBatch 成功的记录先暂存，commit 时才算写入，rollback 时丢弃
+     */
+    private static class FakeDatabase
+    {
+        private final Driver driver;
+        private final Set<Integer> dirty;
+        private final List<Integer> committed = new ArrayList<>();
+        private final List<Integer> staged = new ArrayList<>();
+        private final List<Integer> batch = new ArrayList<>();
+        private final Connection connection;
+        private int current;
+        private int executions;
+
+        FakeDatabase(Driver driver, Set<Integer> dirty)
+        {
+            this.driver = driver;
+            this.dirty = dirty;
+            PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "addBatch":
+                                batch.add(current);
+                                return null;
+                            case "executeBatch":
+                                return executeBatch();
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return null;
+                        }
+                    });
+            this.connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "prepareStatement":
+                                return statement;
+                            case "commit":
+                                committed.addAll(staged);
+                                staged.clear();
+                                return null;
+                            case "rollback":
+                                staged.clear();
+                                return null;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        private int[] executeBatch()
+                throws SQLException
+        {
+            executions++;
+            List<Integer> rows = new ArrayList<>(batch);
+            batch.clear();
+            int firstFailure = -1;
+            for (int i = 0; i < rows.size(); i++) {
+                if (dirty.contains(rows.get(i))) {
+                    firstFailure = i;
+                    break;
+                }
+            }
+            if (firstFailure < 0) {
+                staged.addAll(rows);
+                int[] counts = new int[rows.size()];
+                Arrays.fill(counts, 1);
+                return counts;
+            }
+            switch (driver) {
+                case FULL_UPDATE_COUNTS: {
+                    int[] counts = new int[rows.size()];
+                    for (int i = 0; i < rows.size(); i++) {
+                        if (dirty.contains(rows.get(i))) {
+                            counts[i] = Statement.EXECUTE_FAILED;
+                        }
+                        else {
+                            counts[i] = 1;
+                            staged.add(rows.get(i));
+                        }
+                    }
+                    throw new BatchUpdateException("duplicate key", counts);
+                }
+                case STOP_AT_FIRST_FAILURE: {
+                    int[] counts = new int[firstFailure];
+                    Arrays.fill(counts, 1);
+                    staged.addAll(rows.subList(0, firstFailure));
+                    throw new BatchUpdateException("duplicate key", counts);
+                }
+                default:
+                    throw new SQLException("duplicate key");
+            }
+        }
+    }
+
+    private static class IdRecord
+            implements Record
+    {
+        private final int id;
+
+        IdRecord(int id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public void addColumn(Column column)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setColumn(int i, Column column)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Column getColumn(int i)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.valueOf(id);
+        }
+
+        @Override
+        public int getColumnNumber()
+        {
+            return 1;
+        }
+
+        @Override
+        public int getByteSize()
+        {
+            return 4;
+        }
+
+        @Override
+        public int getMemorySize()
+        {
+            return 4;
+        }
+
+        @Override
+        public void setMeta(Map<String, String> meta)
+        {
+        }
+
+        @Override
+        public Map<String, String> getMeta()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.rdbms.writer.util;
+
+import com.wgzhao.addax.common.element.BytesColumn;
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.DateColumn;
+import com.wgzhao.addax.common.element.DoubleColumn;
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.common.element.TimestampColumn;
+import com.wgzhao.addax.common.exception.AddaxException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPgCopyEncoder
+{
+    // 1970-01-01 到 2000-01-01 的微秒数
+    private static final long PG_EPOCH_MICROS = 946684800000000L;
+
+    @Test
+    public void testBinaryNumericLayout()
+    {
+        // 12345.678 -> ndigits=3, weight=1, sign=+, dscale=3, digits=[1, 2345, 6780]
+        ByteBuffer field = encodeOne("numeric", new DoubleColumn(new BigDecimal("12345.678")));
+        assertEquals(14, field.getInt());
+        assertArrayEquals(new short[] {3, 1, 0, 3, 1, 2345, 6780}, shorts(field, 7));
+
+        // -0.0001 -> ndigits=1, weight=-1, sign=-, dscale=4, digits=[1]
+        field = encodeOne("numeric", new DoubleColumn(new BigDecimal("-0.0001")));
+        assertEquals(10, field.getInt());
+        assertArrayEquals(new short[] {1, -1, 0x4000, 4, 1}, shorts(field, 5));
+
+        // 0.00 -> no digits, dscale is kept
+        field = encodeOne("numeric", new DoubleColumn(new BigDecimal("0.00")));
+        assertEquals(8, field.getInt());
+        assertArrayEquals(new short[] {0, 0, 0, 2}, shorts(field, 4));
+    }
+
+    @Test
+    public void testBinaryNumericRoundTrip()
+    {
+        List<BigDecimal> values = new ArrayList<>(Arrays.asList(
+                BigDecimal.ZERO, BigDecimal.ONE, new BigDecimal("-1"), new BigDecimal("10000"), new BigDecimal("9999.9999"),
+                new BigDecimal("0.5"), new BigDecimal("1E+20"), new BigDecimal("-123456789.000000001"),
+                new BigDecimal("100000000.00010000")));
+        Random random = new Random(5432L);
+        for (int i = 0; i < 2000; i++) {
+            BigInteger unscaled = new BigInteger(1 + random.nextInt(120), random);
+            values.add(new BigDecimal(random.nextBoolean() ? unscaled : unscaled.negate(), random.nextInt(30)));
+        }
+        for (BigDecimal value : values) {
+            BigDecimal expected = value.scale() < 0 ? value.setScale(0) : value;
+            assertEquals(expected, decodeNumeric(encodeOne("numeric", new DoubleColumn(value))), value.toPlainString());
+        }
+    }
+
+    @Test
+    public void testBinaryTimestamp()
+    {
+        assertEquals(0L, encodeTimestamp("timestamp", Timestamp.valueOf("2000-01-01 00:00:00")));
+        assertEquals(1L, encodeTimestamp("timestamp", Timestamp.valueOf("2000-01-01 00:00:00.000001")));
+        assertEquals(-500000L, encodeTimestamp("timestamp", Timestamp.valueOf("1999-12-31 23:59:59.5")));
+        assertEquals(-PG_EPOCH_MICROS, encodeTimestamp("timestamp", Timestamp.valueOf("1970-01-01 00:00:00")));
+
+        // timestamptz 与 JVM 时区无关，按照 UTC 的时间点计算，1970 年之前的毫秒数为负数
+        assertEquals(0L, encodeTimestamp("timestamptz", Timestamp.from(Instant.parse("2000-01-01T00:00:00Z"))));
+        assertEquals(-PG_EPOCH_MICROS - 500000L, encodeTimestamp("timestamptz", Timestamp.from(Instant.parse("1969-12-31T23:59:59.500Z"))));
+        assertEquals(123456L - PG_EPOCH_MICROS, encodeTimestamp("timestamptz", Timestamp.from(Instant.parse("1970-01-01T00:00:00.123456Z"))));
+
+        // DateColumn 只保存毫秒
+        ByteBuffer field = encodeOne("timestamp", new DateColumn(Timestamp.valueOf("2000-01-01 00:00:01.234567")));
+        assertEquals(8, field.getInt());
+        assertEquals(1234000L, field.getLong());
+    }
+
+    @Test
+    public void testBinaryDate()
+    {
+        ByteBuffer field = encodeOne("date", new DateColumn(java.sql.Date.valueOf("2000-01-02")));
+        assertEquals(4, field.getInt());
+        assertEquals(1, field.getInt());
+        field = encodeOne("date", new DateColumn(java.sql.Date.valueOf("1999-12-31")));
+        assertEquals(4, field.getInt());
+        assertEquals(-1, field.getInt());
+    }
+
+    @Test
+    public void testBinaryIntegerOutOfRange()
+    {
+        ByteBuffer field = encodeOne("int2", new LongColumn(-32768L));
+        assertEquals(2, field.getInt());
+        assertEquals(Short.MIN_VALUE, field.getShort());
+        assertThrows(AddaxException.class, () -> encodeOne("int2", new LongColumn(32768L)));
+        assertThrows(AddaxException.class, () -> encodeOne("int4", new LongColumn(Integer.MAX_VALUE + 1L)));
+        assertThrows(AddaxException.class, () -> encodeOne("int4", new LongColumn(Integer.MIN_VALUE - 1L)));
+    }
+
+    @Test
+    public void testTextEscaping()
+    {
+        PgCopyEncoder encoder = new PgCopyEncoder(meta("text", "bytea", "int4"), 3, false);
+        BytesBuffer buffer = new BytesBuffer(64);
+        encoder.encode(record(new StringColumn("a\\b\tc\nd\re\u0000f"), new BytesColumn(new byte[] {'\\', 1, 'A'}),
+                new StringColumn("")), buffer);
+        assertEquals("a\\\\b\\tc\\nd\\ref\t\\\\\\\\\\\\001A\t\\N\n",
+                new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8));
+    }
+
+    private static long encodeTimestamp(String typeName, Timestamp ts)
+    {
+        ByteBuffer field = encodeOne(typeName, new TimestampColumn(ts));
+        assertEquals(8, field.getInt());
+        return field.getLong();
+    }
+
+    /*
+     * 编码只有一个字段的记录，返回跳过字段个数之后的内容，从字段长度开始
+     */
+    private static ByteBuffer encodeOne(String typeName, Column column)
+    {
+        PgCopyEncoder encoder = new PgCopyEncoder(meta(typeName), 1, true);
+        BytesBuffer buffer = new BytesBuffer(64);
+        encoder.encode(record(column), buffer);
+        ByteBuffer result = ByteBuffer.wrap(buffer.array(), 0, buffer.size());
+        assertEquals(1, result.getShort());
+        return result;
+    }
+
+    private static short[] shorts(ByteBuffer buffer, int count)
+    {
+        short[] values = new short[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = buffer.getShort();
+        }
+        return values;
+    }
+
+    // 按照 PostgreSQL numeric_recv 的规则还原
+    private static BigDecimal decodeNumeric(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        int ndigits = buffer.getShort();
+        int weight = buffer.getShort();
+        int sign = buffer.getShort() & 0xffff;
+        int dscale = buffer.getShort();
+        assertEquals(8 + 2 * ndigits, length);
+        BigDecimal value = BigDecimal.ZERO;
+        for (int i = 0; i < ndigits; i++) {
+            short digit = buffer.getShort();
+            assertTrue(digit >= 0 && digit < 10000);
+            value = value.add(BigDecimal.valueOf(digit).scaleByPowerOfTen(4 * (weight - i)));
+        }
+        if (sign == 0x4000) {
+            value = value.negate();
+        }
+        return value.setScale(dscale);
+    }
+
+    private static List<Map<String, Object>> meta(String... typeNames)
+    {
+        List<Map<String, Object>> meta = new ArrayList<>();
+        meta.add(null);
+        for (int i = 0; i < typeNames.length; i++) {
+            Map<String, Object> column = new HashMap<>();
+            column.put("name", "c" + i);
+            column.put("typeName", typeNames[i]);
+            column.put("type", Types.OTHER);
+            meta.add(column);
+        }
+        return meta;
+    }
+
+    private static Record record(Column... columns)
+    {
+        return new Record()
+        {
+            @Override
+            public void addColumn(Column column)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void setColumn(int i, Column column)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Column getColumn(int i)
+            {
+                return columns[i];
+            }
+
+            @Override
+            public int getColumnNumber()
+            {
+                return columns.length;
+            }
+
+            @Override
+            public int getByteSize()
+            {
+                return 0;
+            }
+
+            @Override
+            public int getMemorySize()
+            {
+                return 0;
+            }
+
+            @Override
+            public void setMeta(Map<String, String> meta)
+            {
+            }
+
+            @Override
+            public Map<String, String> getMeta()
+            {
+                return null;
+            }
+        };
+    }
+}
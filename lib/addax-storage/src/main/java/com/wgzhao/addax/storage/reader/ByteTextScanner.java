@@ -0,0 +1,458 @@
+/*
+ *
+ *  * Licensed to the Apache Software Foundation (ASF) under one
+ *  * or more contributor license agreements.  See the NOTICE file
+ *  * distributed with this work for additional information
+ *  * regarding copyright ownership.  The ASF licenses this file
+ *  * to you under the Apache License, Version 2.0 (the
+ *  * "License"); you may not use this file except in compliance
+ *  * with the License.  You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing,
+ *  * software distributed under the License is distributed on an
+ *  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  * KIND, either express or implied.  See the License for the
+ *  * specific language governing permissions and limitations
+ *  * under the License.
+ *
+ */
+
+package com.wgzhao.addax.storage.reader;
+
+import com.wgzhao.addax.common.constant.Type;
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.ColumnEntry;
+import com.wgzhao.addax.common.element.PrimitiveLongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.ScaledDecimalColumn;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.plugin.RecordSender;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 直接在字节上解析类 CSV 文本的扫描器，用于替代 BufferedReader + CSVParser 的读取方式。
+ * <p>
+ * 以大块的方式读取输入流，在字节上查找分隔符、引号和换行符，只解码 column 配置中引用到的字段，
+ * 整数和简单的小数直接从字节转换为 PrimitiveLongColumn 和 ScaledDecimalColumn，不经过中间的 String。
+ * 解析规则与 {@code CSVFormat.DEFAULT} 一致：双引号包含的字段可以包含分隔符和换行符，引号内的 {@code ""} 表示一个引号，
+ * 换行符可以是 \n, \r\n 或者 \r，空行被忽略。不使用引号时(见 {@link StorageReaderUtil#isUnquoted})，引号作为普通字符处理。
+ * <p>
+ * 只适用于换行符、双引号和分隔符都是单字节的编码(ASCII 兼容的编码，如 UTF-8, GBK)
+ */
+final class ByteTextScanner
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ByteTextScanner.class);
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    // 不会溢出 long 的最大位数
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final InputStream in;
+    private final byte delimiter;
+    private final Charset charset;
+    // 为 false 时引号没有特殊含义，作为普通字符处理
+    private final boolean quoted;
+
+    private byte[] buf;
+    // 下一条记录在 buf 中的起始位置
+    private int pos;
+    // buf 中有效数据的结束位置
+    private int limit;
+    private boolean eof;
+
+    // 当前记录每个字段在 buf 中的 [start, end)，以及是否包含需要转义的 ""
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+
+    ByteTextScanner(InputStream in, char delimiter, Charset charset, int bufferSize, boolean quoted)
+    {
+        this.in = in;
+        this.delimiter = (byte) delimiter;
+        this.charset = charset;
+        this.quoted = quoted;
+        this.buf = new byte[Math.max(bufferSize, DEFAULT_BUFFER_SIZE)];
+    }
+
+    /**
+     * 是否可以使用字节扫描器：分隔符、换行符和双引号在该编码下都是同样的单个字节
+     *
+     * @param delimiter the field delimiter
+     * @param charset the charset of file
+     * @return true if the scanner can be used
+     */
+    static boolean isSupported(char delimiter, Charset charset)
+    {
+        if (delimiter >= 0x80 || delimiter == QUOTE || delimiter == CR || delimiter == LF) {
+            return false;
+        }
+        String probe = new String(new char[] {delimiter, '"', '\r', '\n'});
+        return Arrays.equals(new byte[] {(byte) delimiter, QUOTE, CR, LF}, probe.getBytes(charset));
+    }
+
+    /**
+     * 读取全部记录并发送给 writer，行为与 {@link StorageReaderUtil#transportOneRecord(RecordSender, List, String[], String, TaskPluginCollector)} 一致
+     */
+    void transport(RecordSender recordSender, List<ColumnEntry> columnConfigs, String nullFormat,
+            TaskPluginCollector taskPluginCollector)
+            throws IOException
+    {
+        byte[] nullBytes = nullFormat == null ? null : nullFormat.getBytes(this.charset);
+        if (null == columnConfigs || columnConfigs.isEmpty()) {
+            while (next()) {
+                String[] sourceLine = new String[this.fieldCount];
+                for (int i = 0; i < this.fieldCount; i++) {
+                    sourceLine[i] = decode(i);
+                }
+                StorageReaderUtil.transportOneRecord(recordSender, null, sourceLine, nullFormat, taskPluginCollector);
+            }
+            return;
+        }
+
+        int size = columnConfigs.size();
+        Type[] types = new Type[size];
+        for (int i = 0; i < size; i++) {
+            String columnType = columnConfigs.get(i).getType();
+            try {
+                types[i] = Type.valueOf(columnType.toUpperCase());
+            }
+            catch (RuntimeException e) {
+                // 保持与逐行解析时一样的行为，在每条记录上作为脏数据处理
+                types[i] = null;
+            }
+        }
+
+        while (next()) {
+            Record record = recordSender.createRecord();
+            try {
+                for (int i = 0; i < size; i++) {
+                    record.addColumn(buildColumn(columnConfigs.get(i), types[i], nullFormat, nullBytes));
+                }
+                recordSender.sendToWriter(record);
+            }
+            catch (IllegalArgumentException | IndexOutOfBoundsException iae) {
+                LOG.error(iae.getMessage());
+                taskPluginCollector.collectDirtyRecord(record, iae.getMessage());
+            }
+            catch (Exception e) {
+                if (e instanceof AddaxException) {
+                    throw (AddaxException) e;
+                }
+                taskPluginCollector.collectDirtyRecord(record, e.getMessage());
+            }
+        }
+    }
+
+    private Column buildColumn(ColumnEntry columnConfig, Type type, String nullFormat, byte[] nullBytes)
+    {
+        Integer columnIndex = columnConfig.getIndex();
+        String columnConst = columnConfig.getValue();
+
+        if (null == columnIndex && null == columnConst) {
+            throw AddaxException.asAddaxException(
+                    StorageReaderErrorCode.NO_INDEX_VALUE, "The index or constant is required when type is present.");
+        }
+
+        if (null != columnIndex && null != columnConst) {
+            throw AddaxException.asAddaxException(
+                    StorageReaderErrorCode.MIXED_INDEX_VALUE, "The index and value are both present, choose one of them");
+        }
+
+        if (null == columnIndex) {
+            if (type == null) {
+                type = Type.valueOf(columnConfig.getType().toUpperCase());
+            }
+            if (columnConst.equals(nullFormat)) {
+                return new StringColumn();
+            }
+            return StorageReaderUtil.convertColumn(columnConfig, type, columnConst);
+        }
+
+        if (columnIndex >= this.fieldCount) {
+            // CSVParser 会把等于 nullFormat 的字段转换为 null
+            String[] sourceLine = new String[this.fieldCount];
+            for (int i = 0; i < this.fieldCount; i++) {
+                sourceLine[i] = nullBytes != null && equalsBytes(i, nullBytes) ? null : decode(i);
+            }
+            throw new IndexOutOfBoundsException(String.format("The column index [%s] you try to read is out of range[%s]: [%s]",
+                    columnIndex + 1, sourceLine.length, StringUtils.join(sourceLine, ",")));
+        }
+        if (type == null) {
+            type = Type.valueOf(columnConfig.getType().toUpperCase());
+        }
+        if (nullBytes != null && equalsBytes(columnIndex, nullBytes)) {
+            return new StringColumn();
+        }
+        if (!this.escaped[columnIndex]) {
+            Column column = null;
+            if (type == Type.LONG) {
+                column = parseLong(this.starts[columnIndex], this.ends[columnIndex]);
+            }
+            else if (type == Type.DOUBLE) {
+                column = parseDecimal(this.starts[columnIndex], this.ends[columnIndex]);
+            }
+            if (column != null) {
+                return column;
+            }
+        }
+        return StorageReaderUtil.convertColumn(columnConfig, type, decode(columnIndex));
+    }
+
+    private boolean equalsBytes(int field, byte[] bytes)
+    {
+        int start = this.starts[field];
+        int length = this.ends[field] - start;
+        if (this.escaped[field] || length != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.buf[start + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析形如 -?[0-9]{1,18} 的整数，其他格式返回 null，交给 LongColumn 处理
+     */
+    private Column parseLong(int start, int end)
+    {
+        boolean negative = start < end && this.buf[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > MAX_LONG_DIGITS) {
+            return null;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = this.buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            value = value * 10 + digit;
+        }
+        return new PrimitiveLongColumn(negative ? -value : value);
+    }
+
+    /**
+     * 解析形如 -?(0|[1-9][0-9]*)(\.[0-9]+)? 且总位数不超过 18 位的小数，
+     * 转换为 ScaledDecimalColumn 后 asString() 的结果与原始文本相同，其他格式返回 null，交给 DoubleColumn 处理
+     */
+    private Column parseDecimal(int start, int end)
+    {
+        boolean negative = start < end && this.buf[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > MAX_LONG_DIGITS + 1) {
+            return null;
+        }
+        // 不允许多余的前导 0，否则 asString() 的结果会与原始文本不同
+        if (this.buf[i] == '0' && i + 1 < end && this.buf[i + 1] != '.') {
+            return null;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = this.buf[i];
+            if (b == '.' && scale < 0 && digits > 0 && i + 1 < end) {
+                scale = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || ++digits > MAX_LONG_DIGITS) {
+                return null;
+            }
+            unscaled = unscaled * 10 + digit;
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (negative && unscaled == 0) {
+            // -0 and -0.0 are kept as they are
+            return null;
+        }
+        return new ScaledDecimalColumn(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private String decode(int field)
+    {
+        String value = new String(this.buf, this.starts[field], this.ends[field] - this.starts[field], this.charset);
+        return this.escaped[field] ? StringUtils.replace(value, "\"\"", "\"") : value;
+    }
+
+    /**
+     * 解析下一条非空记录
+     *
+     * @return false if reach the end of stream
+     * @throws IOException if failed to read or the quoted field is malformed
+     */
+    boolean next()
+            throws IOException
+    {
+        while (true) {
+            // 忽略空行
+            while (this.pos < this.limit && (this.buf[this.pos] == LF || this.buf[this.pos] == CR)) {
+                this.pos++;
+            }
+            if (this.pos < this.limit) {
+                int end = parseRecord(this.pos);
+                if (end >= 0) {
+                    this.pos = end;
+                    return true;
+                }
+            }
+            else if (this.eof) {
+                return false;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * 从 start 开始解析一条记录
+     *
+     * @return the position after the record, or -1 if more data is required
+     */
+    private int parseRecord(int start)
+            throws IOException
+    {
+        this.fieldCount = 0;
+        int i = start;
+        while (true) {
+            int fieldStart;
+            int fieldEnd;
+            boolean hasEscape = false;
+            if (this.quoted && this.buf[i] == QUOTE) {
+                i++;
+                fieldStart = i;
+                while (true) {
+                    if (i >= this.limit) {
+                        if (this.eof) {
+                            throw new IOException("EOF reached before encapsulated token finished");
+                        }
+                        return -1;
+                    }
+                    if (this.buf[i] == QUOTE) {
+                        if (i + 1 >= this.limit && !this.eof) {
+                            return -1;
+                        }
+                        if (i + 1 < this.limit && this.buf[i + 1] == QUOTE) {
+                            hasEscape = true;
+                            i += 2;
+                            continue;
+                        }
+                        fieldEnd = i;
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+                if (i < this.limit && this.buf[i] != this.delimiter && this.buf[i] != LF && this.buf[i] != CR) {
+                    throw new IOException("Invalid char between encapsulated token and delimiter");
+                }
+            }
+            else {
+                fieldStart = i;
+                while (i < this.limit && this.buf[i] != this.delimiter && this.buf[i] != LF && this.buf[i] != CR) {
+                    i++;
+                }
+                fieldEnd = i;
+            }
+            if (i >= this.limit && !this.eof) {
+                return -1;
+            }
+            addField(fieldStart, fieldEnd, hasEscape);
+
+            if (i >= this.limit) {
+                return i;
+            }
+            byte b = this.buf[i];
+            if (b == this.delimiter) {
+                i++;
+                if (i >= this.limit) {
+                    if (!this.eof) {
+                        return -1;
+                    }
+                    // 以分隔符结尾，最后一个字段为空
+                    addField(i, i, false);
+                    return i;
+                }
+                if (this.buf[i] == LF || this.buf[i] == CR) {
+                    addField(i, i, false);
+                    return skipLineEnd(i);
+                }
+                continue;
+            }
+            return skipLineEnd(i);
+        }
+    }
+
+    private int skipLineEnd(int i)
+    {
+        if (this.buf[i] == CR) {
+            if (i + 1 >= this.limit && !this.eof) {
+                return -1;
+            }
+            if (i + 1 < this.limit && this.buf[i + 1] == LF) {
+                return i + 2;
+            }
+        }
+        return i + 1;
+    }
+
+    private void addField(int start, int end, boolean hasEscape)
+    {
+        if (this.fieldCount == this.starts.length) {
+            int length = this.fieldCount * 2;
+            this.starts = Arrays.copyOf(this.starts, length);
+            this.ends = Arrays.copyOf(this.ends, length);
+            this.escaped = Arrays.copyOf(this.escaped, length);
+        }
+        this.starts[this.fieldCount] = start;
+        this.ends[this.fieldCount] = end;
+        this.escaped[this.fieldCount] = hasEscape;
+        this.fieldCount++;
+    }
+
+    /**
+     * 把未解析完的数据移动到缓冲区开头，然后读取更多数据，单条记录超过缓冲区大小时扩大缓冲区
+     */
+    private void fill()
+            throws IOException
+    {
+        int remaining = this.limit - this.pos;
+        if (this.pos > 0) {
+            System.arraycopy(this.buf, this.pos, this.buf, 0, remaining);
+        }
+        else if (remaining == this.buf.length) {
+            this.buf = Arrays.copyOf(this.buf, this.buf.length * 2);
+        }
+        this.pos = 0;
+        this.limit = remaining;
+        int n = this.in.read(this.buf, this.limit, this.buf.length - this.limit);
+        if (n < 0) {
+            this.eof = true;
+        }
+        else {
+            this.limit += n;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ *
+ *  * Licensed to the Apache Software Foundation (ASF) under one
+ *  * or more contributor license agreements.  See the NOTICE file
+ *  * distributed with this work for additional information
+ *  * regarding copyright ownership.  The ASF licenses this file
+ *  * to you under the Apache License, Version 2.0 (the
+ *  * "License"); you may not use this file except in compliance
+ *  * with the License.  You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing,
+ *  * software distributed under the License is distributed on an
+ *  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  * KIND, either express or implied.  See the License for the
+ *  * specific language governing permissions and limitations
+ *  * under the License.
+ *
+ */
+
+package com.wgzhao.addax.storage.reader;
+
+import com.wgzhao.addax.common.base.Constant;
+import com.wgzhao.addax.common.base.Key;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.util.Configuration;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将单个未压缩的文本文件按照字节范围切分成多个分片，使一个大文件可以由多个通道并行读取。
+ * <p>
+ * 切分点总是对齐到某一行的开头，任务读取 [start, end) 范围内的字节即可得到完整的记录。
+ * 引号包含的字段中可能存在换行符，从任意位置开始无法判断是否处于引号之内，因此只有在字段不使用引号
+ * (csvReaderConfig 中 useTextQualifier 为 false)时才允许切分，此时只需要从每个切分位置开始向后查找下一个换行符，
+ * 不需要读取整个文件。
+ */
+public final class FileRangeSplitUtil
+{
+    private static final Logger LOG = LoggerFactory.getLogger(FileRangeSplitUtil.class);
+
+    // 切分后每个分片的最小字节数，过小的分片没有意义
+    public static final long MIN_SPLIT_SIZE = 64L * 1024 * 1024;
+
+    private static final int SCAN_BUFFER_SIZE = Constant.DEFAULT_BUFFER_SIZE;
+
+    private FileRangeSplitUtil()
+    {
+    }
+
+    /**
+     * 判断配置是否允许按照字节范围切分：
+     * 需要显式配置 splitFile 为 true，并且 csvReaderConfig 中 useTextQualifier 为 false，文件未压缩，
+     * 换行符和分隔符在该编码下都是单字节(ASCII 兼容的编码，如 UTF-8, GBK)
+     *
+     * @param readerConfig the reader configuration
+     * @return true if files can be split into byte ranges
+     */
+    public static boolean isSplittable(Configuration readerConfig)
+    {
+        if (!readerConfig.getBool(Key.SPLIT_FILE, false)) {
+            return false;
+        }
+        if (!StorageReaderUtil.isUnquoted(readerConfig)) {
+            LOG.warn("The splitFile is ignored because fields may be quoted, set useTextQualifier of csvReaderConfig to false to split files.");
+            return false;
+        }
+        String compress = readerConfig.getString(Key.COMPRESS, "");
+        if (StringUtils.isNotBlank(compress) && !"none".equalsIgnoreCase(compress)) {
+            return false;
+        }
+        String encoding = readerConfig.getString(Key.ENCODING, Constant.DEFAULT_ENCODING);
+        char delimiter = readerConfig.getChar(Key.FIELD_DELIMITER, Constant.DEFAULT_FIELD_DELIMITER);
+        try {
+            Charset charset = Charset.forName(StringUtils.isBlank(encoding) ? Constant.DEFAULT_ENCODING : encoding);
+            return isSingleByte('\n', charset) && isSingleByte('\r', charset) && isSingleByte(delimiter, charset);
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isSingleByte(char c, Charset charset)
+    {
+        if (c >= 0x80) {
+            return false;
+        }
+        byte[] bytes = String.valueOf(c).getBytes(charset);
+        return bytes.length == 1 && bytes[0] == c;
+    }
+
+    /**
+     * 按照 splitSize 切分文件，返回每个分片的 [start, end) 字节范围，每个分片不小于 {@link #MIN_SPLIT_SIZE}
+     *
+     * @param fileName the file to split
+     * @param splitSize the expected bytes of each range
+     * @return the ranges, the whole file is returned as one range if it is not large enough
+     */
+    public static List<long[]> split(String fileName, long splitSize)
+    {
+        return doSplit(fileName, Math.max(splitSize, MIN_SPLIT_SIZE));
+    }
+
+    static List<long[]> doSplit(String fileName, long splitSize)
+    {
+        List<long[]> ranges = new ArrayList<>();
+        long length = new File(fileName).length();
+        if (length < 2 * splitSize) {
+            ranges.add(new long[] {0, length});
+            return ranges;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long start = 0;
+            while (length - start >= 2 * splitSize) {
+                long boundary = findLineStart(channel, start + splitSize, length);
+                if (boundary < 0) {
+                    break;
+                }
+                ranges.add(new long[] {start, boundary});
+                start = boundary;
+            }
+            ranges.add(new long[] {start, length});
+        }
+        catch (IOException e) {
+            throw AddaxException.asAddaxException(StorageReaderErrorCode.READ_FILE_IO_ERROR,
+                    String.format("Failed to split the file [%s].", fileName), e);
+        }
+        return ranges;
+    }
+
+    /**
+     * 从 position 开始查找下一行的开头，换行符可以是 \n, \r\n 或者 \r，只读取到下一个换行符为止
+     *
+     * @return the offset of the next line, or -1 if there is no more line
+     */
+    private static long findLineStart(FileChannel channel, long position, long length)
+            throws IOException
+    {
+        channel.position(position);
+        // 不关闭该流，否则会关闭 channel
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel), SCAN_BUFFER_SIZE);
+        long offset = position;
+        int c;
+        while ((c = in.read()) != -1) {
+            offset++;
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                // \r\n 作为一个换行符
+                if (in.read() == '\n') {
+                    offset++;
+                }
+                break;
+            }
+        }
+        return c == -1 || offset >= length ? -1 : offset;
+    }
+}
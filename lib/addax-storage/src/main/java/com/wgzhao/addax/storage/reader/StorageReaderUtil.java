@@ -41,12 +41,12 @@ import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
 import org.apache.commons.compress.compressors.CompressorException;
-import org.apache.commons.compress.compressors.CompressorInputStream;
 import org.apache.commons.compress.compressors.CompressorStreamFactory;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.io.Charsets;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +57,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.List;
@@ -92,31 +97,36 @@ public class StorageReaderUtil
         }
 
         BufferedReader reader = null;
+        InputStream input = inputStream;
         int bufferSize = readerSliceConfig.getInt(Key.BUFFER_SIZE, Constant.DEFAULT_BUFFER_SIZE);
 
         // compress logic
         try {
             if (compress == null || "".equals(compress) || "none".equalsIgnoreCase(compress)) {
-                reader = new BufferedReader(new InputStreamReader(inputStream, encoding), bufferSize);
+                input = inputStream;
             }
             else {
                 if ("zip".equalsIgnoreCase(compress)) {
-                    ZipCycleInputStream zipCycleInputStream = new ZipCycleInputStream(inputStream);
-                    reader = new BufferedReader(new InputStreamReader(zipCycleInputStream, encoding), bufferSize);
+                    input = new ZipCycleInputStream(inputStream);
                 }
                 else if ("lzo".equalsIgnoreCase(compress)) {
-                    ExpandLzopInputStream expandLzopInputStream = new ExpandLzopInputStream(inputStream);
-                    reader = new BufferedReader(new InputStreamReader(expandLzopInputStream, encoding), bufferSize);
+                    input = new ExpandLzopInputStream(inputStream);
                 }
                 else {
                     // common-compress supports almost compress alg
-                    CompressorInputStream input = new CompressorStreamFactory().createCompressorInputStream(compress.toUpperCase(), inputStream, true);
-                    reader = new BufferedReader(new InputStreamReader(input, encoding), bufferSize);
+                    input = new CompressorStreamFactory().createCompressorInputStream(compress.toUpperCase(), inputStream, true);
                 }
             }
-            StorageReaderUtil.doReadFromStream(reader, fileName, readerSliceConfig, recordSender, taskPluginCollector);
+            if (readerSliceConfig.getBool(Key.FAST_SCAN, false)
+                    && ByteTextScanner.isSupported(readerSliceConfig.getChar(Key.FIELD_DELIMITER, Constant.DEFAULT_FIELD_DELIMITER), Charset.forName(encoding))) {
+                StorageReaderUtil.doScanFromStream(input, fileName, readerSliceConfig, recordSender, taskPluginCollector);
+            }
+            else {
+                reader = new BufferedReader(new InputStreamReader(input, encoding), bufferSize);
+                StorageReaderUtil.doReadFromStream(reader, fileName, readerSliceConfig, recordSender, taskPluginCollector);
+            }
         }
-        catch (UnsupportedEncodingException uee) {
+        catch (UnsupportedEncodingException | UnsupportedCharsetException uee) {
             throw AddaxException.asAddaxException(
                     StorageReaderErrorCode.OPEN_FILE_WITH_CHARSET_ERROR,
                     String.format("%s is unsupported", encoding), uee);
@@ -137,7 +147,36 @@ public class StorageReaderUtil
         }
         finally {
             IOUtils.closeQuietly(reader, null);
+            IOUtils.closeQuietly(input, null);
+        }
+    }
+
+    /**
+     * 读取文件中 [start, end) 范围内的字节，范围由 {@link FileRangeSplitUtil} 切分，总是从某一行的开头开始
+     *
+     * @param fileName the file to read
+     * @param start the start offset, inclusive
+     * @param end the end offset, exclusive
+     * @param readerSliceConfig the reader slice configuration
+     * @param recordSender the record sender
+     * @param taskPluginCollector the task plugin collector
+     */
+    public static void readFromFileRange(String fileName, long start, long end,
+            Configuration readerSliceConfig, RecordSender recordSender,
+            TaskPluginCollector taskPluginCollector)
+    {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+            channel.position(start);
         }
+        catch (IOException e) {
+            throw AddaxException.asAddaxException(
+                    StorageReaderErrorCode.READ_FILE_IO_ERROR, String.format("Failed to open file [%s].", fileName), e);
+        }
+        // 关闭 reader 时会依次关闭 channel
+        InputStream inputStream = new BoundedInputStream(Channels.newInputStream(channel), end - start);
+        readFromStream(inputStream, fileName, readerSliceConfig, recordSender, taskPluginCollector);
     }
 
     public static void doReadFromStream(BufferedReader reader, String fileName,
@@ -166,6 +205,9 @@ public class StorageReaderUtil
         csvFormatBuilder.setNullString(nullFormat);
         Boolean skipHeader = readerSliceConfig.getBool(Key.SKIP_HEADER, Constant.DEFAULT_SKIP_HEADER);
         csvFormatBuilder.setSkipHeaderRecord(skipHeader);
+        if (isUnquoted(readerSliceConfig)) {
+            csvFormatBuilder.setQuote(null);
+        }
         List<ColumnEntry> column = StorageReaderUtil.getListColumnEntry(readerSliceConfig, Key.COLUMN);
 
         // every line logic
@@ -198,6 +240,40 @@ public class StorageReaderUtil
         }
     }
 
+    /**
+     * 使用 {@link ByteTextScanner} 直接在字节上解析，需要配置 fastScan 并且编码与分隔符满足 {@link ByteTextScanner#isSupported(char, Charset)}
+     */
+    private static void doScanFromStream(InputStream inputStream, String fileName,
+            Configuration readerSliceConfig, RecordSender recordSender,
+            TaskPluginCollector taskPluginCollector)
+    {
+        String encoding = readerSliceConfig.getString(Key.ENCODING, Constant.DEFAULT_ENCODING);
+        if (StringUtils.isBlank(encoding)) {
+            encoding = Constant.DEFAULT_ENCODING;
+        }
+        String delimiterInStr = readerSliceConfig.getString(Key.FIELD_DELIMITER);
+        if (null != delimiterInStr && 1 != delimiterInStr.length()) {
+            throw AddaxException.asAddaxException(
+                    StorageReaderErrorCode.ILLEGAL_VALUE,
+                    String.format("The delimiter ONLY has one char, [%s] is illegal", delimiterInStr));
+        }
+        char fieldDelimiter = readerSliceConfig.getChar(Key.FIELD_DELIMITER, Constant.DEFAULT_FIELD_DELIMITER);
+        // warn: no default value '\N'
+        String nullFormat = readerSliceConfig.getString(Key.NULL_FORMAT);
+        List<ColumnEntry> column = StorageReaderUtil.getListColumnEntry(readerSliceConfig, Key.COLUMN);
+        int bufferSize = readerSliceConfig.getInt(Key.BUFFER_SIZE, Constant.DEFAULT_BUFFER_SIZE);
+
+        ByteTextScanner scanner = new ByteTextScanner(inputStream, fieldDelimiter, Charset.forName(encoding), bufferSize,
+                !isUnquoted(readerSliceConfig));
+        try {
+            scanner.transport(recordSender, column, nullFormat, taskPluginCollector);
+        }
+        catch (IOException ioe) {
+            throw AddaxException.asAddaxException(
+                    StorageReaderErrorCode.READ_FILE_IO_ERROR, String.format("Failed to read file [%s]", fileName), ioe);
+        }
+    }
+
     public static void transportOneRecord(RecordSender recordSender, Configuration configuration,
             TaskPluginCollector taskPluginCollector, String line)
     {
@@ -224,7 +300,7 @@ public class StorageReaderUtil
         if (null == columnConfigs || columnConfigs.isEmpty()) {
             for (String columnValue : sourceLine) {
                 // not equalsIgnoreCase, it's all ok if nullFormat is null
-                if (columnValue.equals(nullFormat)) {
+                if (columnValue == null || columnValue.equals(nullFormat)) {
                     columnGenerated = new StringColumn(null);
                 }
                 else {
@@ -269,41 +345,7 @@ public class StorageReaderUtil
                         record.addColumn(new StringColumn());
                         continue;
                     }
-                    try {
-                        switch (type) {
-                            case STRING:
-                                columnGenerated = new StringColumn(columnValue);
-                                break;
-                            case LONG:
-                                columnGenerated = new LongColumn(columnValue);
-                                break;
-                            case DOUBLE:
-                                columnGenerated = new DoubleColumn(columnValue);
-                                break;
-                            case BOOLEAN:
-                                columnGenerated = new BoolColumn(columnValue);
-                                break;
-                            case DATE:
-                                String formatString = columnConfig.getFormat();
-                                if (StringUtils.isNotBlank(formatString)) {
-                                    // 用户自己配置的格式转换, 脏数据行为出现变化
-                                    DateFormat format = columnConfig.getDateFormat();
-                                    columnGenerated = new DateColumn(format.parse(columnValue));
-                                }
-                                else {
-                                    // 框架尝试转换
-                                    columnGenerated = new DateColumn(new StringColumn(columnValue).asDate());
-                                }
-                                break;
-                            default:
-                                String errorMessage = String.format("The column type [%s] is unsupported", columnType);
-                                LOG.error(errorMessage);
-                                throw AddaxException.asAddaxException(StorageReaderErrorCode.NOT_SUPPORT_TYPE, errorMessage);
-                        }
-                    }
-                    catch (Exception e) {
-                        throw new IllegalArgumentException(String.format("Cast value [%s] to type [%s] failure", columnValue, type.name()));
-                    }
+                    columnGenerated = convertColumn(columnConfig, type, columnValue);
 
                     record.addColumn(columnGenerated);
                 }
@@ -323,6 +365,48 @@ public class StorageReaderUtil
         }
     }
 
+    /**
+     * 按照列配置的类型转换字段值，转换失败时抛出 IllegalArgumentException，由调用方作为脏数据处理
+     *
+     * @param columnConfig the column configuration
+     * @param type the column type
+     * @param columnValue the field value, not null
+     * @return the column
+     */
+    static Column convertColumn(ColumnEntry columnConfig, Type type, String columnValue)
+    {
+        try {
+            switch (type) {
+                case STRING:
+                    return new StringColumn(columnValue);
+                case LONG:
+                    return new LongColumn(columnValue);
+                case DOUBLE:
+                    return new DoubleColumn(columnValue);
+                case BOOLEAN:
+                    return new BoolColumn(columnValue);
+                case DATE:
+                    String formatString = columnConfig.getFormat();
+                    if (StringUtils.isNotBlank(formatString)) {
+                        // 用户自己配置的格式转换, 脏数据行为出现变化
+                        DateFormat format = columnConfig.getDateFormat();
+                        return new DateColumn(format.parse(columnValue));
+                    }
+                    else {
+                        // 框架尝试转换
+                        return new DateColumn(new StringColumn(columnValue).asDate());
+                    }
+                default:
+                    String errorMessage = String.format("The column type [%s] is unsupported", columnConfig.getType());
+                    LOG.error(errorMessage);
+                    throw AddaxException.asAddaxException(StorageReaderErrorCode.NOT_SUPPORT_TYPE, errorMessage);
+            }
+        }
+        catch (Exception e) {
+            throw new IllegalArgumentException(String.format("Cast value [%s] to type [%s] failure", columnValue, type.name()));
+        }
+    }
+
     public static List<ColumnEntry> getListColumnEntry(Configuration configuration, final String path)
     {
         List<JSONObject> lists = configuration.getList(path, JSONObject.class);
@@ -401,6 +485,22 @@ public class StorageReaderUtil
         }
     }
 
+    /**
+     * 是否按照不使用引号的格式解析字段，只有配置了 splitFile 并且 csvReaderConfig 中 useTextQualifier 为 false 时才生效，
+     * 此时字段中不会包含换行符，文件可以按照字节范围切分。其他情况下仍然总是按照双引号解析
+     *
+     * @param readerConfiguration 配置项
+     * @return true if fields are not quoted
+     */
+    public static boolean isUnquoted(Configuration readerConfiguration)
+    {
+        if (!readerConfiguration.getBool(Key.SPLIT_FILE, false)) {
+            return false;
+        }
+        Configuration csvReaderConfig = readerConfiguration.getConfiguration(Key.CSV_READER_CONFIG);
+        return csvReaderConfig != null && !csvReaderConfig.getBool("useTextQualifier", true);
+    }
+
     public static void validateColumn(Configuration readerConfiguration)
     {
         // column: 1. index type 2.value type 3.when type is Date, may have
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.storage.reader;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.plugin.RecordSender;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import com.wgzhao.addax.common.util.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对比 fastScan 与 CSVParser 两种读取方式，对同样的输入应该得到完全相同的记录和脏数据
+ */
+public class TestByteTextScanner
+{
+    private static final String[] NUMBERS = {
+            "0", "-0", "7", "-42", "007", "+5", "123456789012345678", "1234567890123456789", "-9223372036854775808",
+            "99999999999999999999", "1.5", "-0.25", "0.0", "-0.0", "3.", ".5", "1e3", "00.1", "12345678901234567.8", "abc", ""
+    };
+
+    private static final String[] TEXTS = {
+            "plain", "with space", "comma,inside", "quote\"\"inside", "line\nbreak", "crlf\r\nbreak", "tab\tinside", "中文", "\\N", ""
+    };
+
+    @Test
+    public void testTypedColumnsMatchCsvParser()
+    {
+        String columns = "[{\"index\":0,\"type\":\"long\"},{\"index\":1,\"type\":\"double\"},{\"index\":2,\"type\":\"string\"},"
+                + "{\"index\":3,\"type\":\"long\"},{\"value\":\"const\",\"type\":\"string\"}]";
+        byte[] content = randomContent(new Random(20221016L), 30000, ',').getBytes(StandardCharsets.UTF_8);
+        assertSameResult(content, "{\"column\":" + columns + ",\"nullFormat\":\"\\\\N\"}");
+    }
+
+    @Test
+    public void testAllColumnsMatchCsvParser()
+    {
+        byte[] content = randomContent(new Random(7L), 5000, '|').getBytes(StandardCharsets.UTF_8);
+        assertSameResult(content, "{\"column\":[\"*\"],\"fieldDelimiter\":\"|\"}");
+    }
+
+    @Test
+    public void testGbkMatchesCsvParser()
+    {
+        byte[] content = randomContent(new Random(11L), 2000, ',').getBytes(Charset.forName("GBK"));
+        assertSameResult(content, "{\"column\":[{\"index\":2,\"type\":\"string\"},{\"index\":0,\"type\":\"long\"}],\"encoding\":\"GBK\"}");
+    }
+
+    @Test
+    public void testUnquotedMatchesCsvParser()
+    {
+        // 切分文件时引号作为普通字符，生成的内容中不包含跨行的字段
+        String content = randomContent(new Random(13L), 5000, ',').replace("\"line\nbreak\"", "break").replace("\"crlf\r\nbreak\"", "break");
+        assertSameResult(content.getBytes(StandardCharsets.UTF_8),
+                "{\"column\":[\"*\"],\"splitFile\":true,\"csvReaderConfig\":{\"useTextQualifier\":false}}");
+    }
+
+    @Test
+    public void testUnsupportedDelimiter()
+    {
+        assertTrue(ByteTextScanner.isSupported(',', StandardCharsets.UTF_8));
+        assertFalse(ByteTextScanner.isSupported('"', StandardCharsets.UTF_8));
+        assertFalse(ByteTextScanner.isSupported('\n', StandardCharsets.UTF_8));
+        assertFalse(ByteTextScanner.isSupported('，', StandardCharsets.UTF_8));
+        assertFalse(ByteTextScanner.isSupported(',', StandardCharsets.UTF_16));
+    }
+
+    /*
+     * 随机生成记录，混合各种换行符、空行、引号字段以及不能解析为数字的内容，内容超过扫描器的缓冲区大小
+     */
+    private static String randomContent(Random random, int rows, char delimiter)
+    {
+        String[] lineEnds = {"\n", "\r\n", "\r"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            int fields = random.nextInt(10) == 0 ? 2 : 4;
+            for (int f = 0; f < fields; f++) {
+                if (f > 0) {
+                    sb.append(delimiter);
+                }
+                String value = f == 2 ? TEXTS[random.nextInt(TEXTS.length)] : NUMBERS[random.nextInt(NUMBERS.length)];
+                if (f == 2 && !"\\N".equals(value) || random.nextInt(8) == 0) {
+                    sb.append('"').append(value).append('"');
+                }
+                else {
+                    sb.append(value);
+                }
+            }
+            sb.append(lineEnds[random.nextInt(lineEnds.length)]);
+            if (random.nextInt(50) == 0) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameResult(byte[] content, String json)
+    {
+        Collector expected = read(content, json, false);
+        Collector actual = read(content, json, true);
+        assertTrue(expected.records.size() > 0);
+        assertEquals(expected.records, actual.records);
+        assertEquals(expected.dirty, actual.dirty);
+    }
+
+    private static Collector read(byte[] content, String json, boolean fastScan)
+    {
+        Configuration config = Configuration.from(json);
+        config.set("fastScan", fastScan);
+        Collector collector = new Collector();
+        StorageReaderUtil.readFromStream(new ByteArrayInputStream(content), "test.csv", config, collector, collector.dirtyCollector);
+        return collector;
+    }
+
+    private static String describe(Record record)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < record.getColumnNumber(); i++) {
+            Column column = record.getColumn(i);
+            sb.append(column.getType()).append(':').append(column.getRawData() == null ? "<null>" : column.asString()).append('|');
+        }
+        return sb.toString();
+    }
+
+    private static class Collector
+            implements RecordSender
+    {
+        private final List<String> records = new ArrayList<>();
+        private final List<String> dirty = new ArrayList<>();
+
+        private final TaskPluginCollector dirtyCollector = new TaskPluginCollector()
+        {
+            @Override
+            public void collectDirtyRecord(Record dirtyRecord, Throwable t, String errorMessage)
+            {
+                dirty.add(describe(dirtyRecord) + errorMessage);
+            }
+
+            @Override
+            public void collectMessage(String key, String value)
+            {
+            }
+        };
+
+        @Override
+        public Record createRecord()
+        {
+            return new ListRecord();
+        }
+
+        @Override
+        public void sendToWriter(Record record)
+        {
+            records.add(describe(record));
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void terminate()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+    }
+
+    private static class ListRecord
+            implements Record
+    {
+        private final List<Column> columns = new ArrayList<>();
+        private Map<String, String> meta = new HashMap<>();
+
+        @Override
+        public void addColumn(Column column)
+        {
+            columns.add(column);
+        }
+
+        @Override
+        public void setColumn(int i, Column column)
+        {
+            columns.set(i, column);
+        }
+
+        @Override
+        public Column getColumn(int i)
+        {
+            return columns.get(i);
+        }
+
+        @Override
+        public int getColumnNumber()
+        {
+            return columns.size();
+        }
+
+        @Override
+        public int getByteSize()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getMemorySize()
+        {
+            return 0;
+        }
+
+        @Override
+        public void setMeta(Map<String, String> meta)
+        {
+            this.meta = meta;
+        }
+
+        @Override
+        public Map<String, String> getMeta()
+        {
+            return meta;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.storage.reader;
+
+import com.wgzhao.addax.common.util.Configuration;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFileRangeSplitUtil
+{
+    private static final long SPLIT_SIZE = 256;
+
+    @Test
+    public void testSplitIsOptIn()
+    {
+        Configuration config = Configuration.from("{}");
+        assertFalse(FileRangeSplitUtil.isSplittable(config));
+        config.set("splitFile", true);
+        // 字段可能使用引号时不切分
+        assertFalse(FileRangeSplitUtil.isSplittable(config));
+        config.set("csvReaderConfig.useTextQualifier", false);
+        assertTrue(FileRangeSplitUtil.isSplittable(config));
+        config.set("compress", "gzip");
+        assertFalse(FileRangeSplitUtil.isSplittable(config));
+    }
+
+    @Test
+    public void testLineFeed()
+            throws IOException
+    {
+        assertSplit(randomContent(new Random(1L), 500, "\n"));
+    }
+
+    @Test
+    public void testCarriageReturnLineFeed()
+            throws IOException
+    {
+        assertSplit(randomContent(new Random(2L), 500, "\r\n"));
+    }
+
+    @Test
+    public void testCarriageReturn()
+            throws IOException
+    {
+        assertSplit(randomContent(new Random(3L), 500, "\r"));
+    }
+
+    @Test
+    public void testMixedLineEnds()
+            throws IOException
+    {
+        Random random = new Random(4L);
+        String[] lineEnds = {"\n", "\r\n", "\r"};
+        List<Long> starts = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            starts.add((long) sb.length());
+            sb.append(i).append(",\"not quoted\",").append(StringUtils.repeat('m', random.nextInt(40)))
+                    .append(lineEnds[random.nextInt(lineEnds.length)]);
+        }
+        assertSplit(sb.toString(), starts);
+    }
+
+    @Test
+    public void testRecordsEndingAtSplitPoint()
+            throws IOException
+    {
+        // 每条记录正好是 SPLIT_SIZE 个字节，切分位置都落在记录的结尾，其中 \r\n 的切分位置落在两个字符之间
+        for (String lineEnd : new String[] {"\n", "\r\n", "\r"}) {
+            List<Long> starts = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                starts.add((long) sb.length());
+                String prefix = String.format("%04d,", i);
+                sb.append(prefix).append(StringUtils.repeat('x', (int) SPLIT_SIZE - prefix.length() - lineEnd.length())).append(lineEnd);
+            }
+            assertSplit(sb.toString(), starts);
+        }
+    }
+
+    @Test
+    public void testLastRecordWithoutLineEnd()
+            throws IOException
+    {
+        List<Long> starts = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            starts.add((long) sb.length());
+            sb.append(i).append(",a,").append(i * 3).append('\n');
+        }
+        starts.add((long) sb.length());
+        sb.append("last,").append(StringUtils.repeat('z', 3 * (int) SPLIT_SIZE));
+        assertSplit(sb.toString(), starts);
+    }
+
+    @Test
+    public void testSplitThreshold()
+            throws IOException
+    {
+        // 文件小于两倍的 SPLIT_SIZE 时不切分，等于时才切分
+        String line = StringUtils.repeat('y', 15) + "\n";
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 2 * SPLIT_SIZE - line.length()) {
+            sb.append(line);
+        }
+        sb.append(StringUtils.repeat('z', (int) (2 * SPLIT_SIZE - sb.length() - 2))).append('\n');
+        assertEquals(1, FileRangeSplitUtil.doSplit(writeTempFile(sb.toString()).getPath(), SPLIT_SIZE).size());
+        sb.append('\n');
+        assertEquals(2, FileRangeSplitUtil.doSplit(writeTempFile(sb.toString()).getPath(), SPLIT_SIZE).size());
+    }
+
+    @Test
+    public void testSmallFileIsNotSplit()
+            throws IOException
+    {
+        File file = writeTempFile("1,a\r2,c\n");
+        List<long[]> ranges = FileRangeSplitUtil.doSplit(file.getPath(), SPLIT_SIZE);
+        assertEquals(1, ranges.size());
+        assertEquals(0, ranges.get(0)[0]);
+        assertEquals(file.length(), ranges.get(0)[1]);
+    }
+
+    private static String randomContent(Random random, int rows, String lineEnd)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            sb.append(i).append(',').append(StringUtils.repeat('v', random.nextInt(60))).append(",\"x").append(lineEnd);
+        }
+        return sb.toString();
+    }
+
+    private void assertSplit(String content)
+            throws IOException
+    {
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '\n' || c == '\r' && (i + 1 == content.length() || content.charAt(i + 1) != '\n')) {
+                starts.add(i + 1L);
+            }
+        }
+        assertSplit(content, starts);
+    }
+
+    private void assertSplit(String content, List<Long> recordStarts)
+            throws IOException
+    {
+        File file = writeTempFile(content);
+        List<long[]> ranges = FileRangeSplitUtil.doSplit(file.getPath(), SPLIT_SIZE);
+        assertTrue(ranges.size() > 1);
+
+        Set<Long> starts = new HashSet<>(recordStarts);
+        long expectedStart = 0;
+        for (long[] range : ranges) {
+            assertEquals(expectedStart, range[0]);
+            assertTrue(starts.contains(range[0]), "range starts inside a record: " + range[0]);
+            assertTrue(range[1] > range[0]);
+            if (range[1] < file.length()) {
+                assertTrue(range[1] - range[0] >= SPLIT_SIZE, "range is smaller than the split size: " + range[0]);
+            }
+            expectedStart = range[1];
+        }
+        assertEquals(file.length(), expectedStart);
+
+        // 每个分片单独解析的结果拼接起来，应该与整个文件解析的结果一致，引号作为普通字符
+        CSVFormat format = CSVFormat.DEFAULT.builder().setQuote(null).build();
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        List<List<String>> records = new ArrayList<>();
+        for (long[] range : ranges) {
+            String slice = new String(bytes, (int) range[0], (int) (range[1] - range[0]), StandardCharsets.UTF_8);
+            records.addAll(parse(slice, format));
+        }
+        assertEquals(parse(content, format), records);
+    }
+
+    private static List<List<String>> parse(String content, CSVFormat format)
+            throws IOException
+    {
+        List<List<String>> records = new ArrayList<>();
+        try (CSVParser parser = new CSVParser(new StringReader(content), format)) {
+            for (CSVRecord record : parser) {
+                records.add(record.toList());
+            }
+        }
+        return records;
+    }
+
+    private static File writeTempFile(String content)
+            throws IOException
+    {
+        File file = File.createTempFile("addax-split-", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
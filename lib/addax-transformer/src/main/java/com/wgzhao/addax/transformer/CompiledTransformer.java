@@ -17,23 +17,20 @@
  * under the License.
  */
 
-package com.wgzhao.addax.plugin.writer.greenplumwriter;
+package com.wgzhao.addax.transformer;
 
-import com.wgzhao.addax.common.base.Constant;
+import com.wgzhao.addax.common.element.Record;
 
-public class GPConstant
-        extends Constant
+/**
+ * 参数已经预先解析完成的 transformer，由 {@link Transformer#compile(Object...)} 或
+ * {@link ComplexTransformer#compile(java.util.Map, Object...)} 在任务启动时生成，
+ * 每个 task 持有一个实例，处理每条记录时不再重复解析参数。
+ */
+public interface CompiledTransformer
 {
-    // 字段分隔符
-    public static final char DELIMITER = '\u0001';
-
-    // 字段引用符号，这里没有使用常见的双引号，是考虑到json数据类型会包含该符号
-    public static final char QUOTE_CHAR = '\u0002';
-
-    public static final char NEWLINE = '\n';
-
-    public static final char ESCAPE = '\\';
-
-    // 因为 GP DB 服务端 对 COPY FROM 的 CSV 格式做了这样的限制，如果单个元组大于4 MB，只能使用 insert
-    public static final int MAX_CSV_SIZE = 4194304;
+    /**
+     * @param record 行记录，处理后更新相应的record
+     * @return record, 返回 null 表示过滤该记录
+     */
+    Record evaluate(Record record);
 }
@@ -46,4 +46,17 @@ public abstract class ComplexTransformer
      * @return record
      */
     public abstract Record evaluate(Record record, Map<String, Object> tContext, Object... paras);
+
+    /**
+     * 在任务启动时调用一次，把参数预先解析为 {@link CompiledTransformer}，参数不合法时直接抛出异常。
+     * 默认实现每条记录都调用 {@link #evaluate(Record, Map, Object...)}
+     *
+     * @param tContext transformer运行的配置项
+     * @param paras transformer函数参数
+     * @return compiled transformer
+     */
+    public CompiledTransformer compile(Map<String, Object> tContext, Object... paras)
+    {
+        return record -> evaluate(record, tContext, paras);
+    }
 }
@@ -46,4 +46,16 @@ public abstract class Transformer
      * @return record
      */
     public abstract Record evaluate(Record record, Object... paras);
+
+    /**
+     * 在任务启动时调用一次，把参数预先解析为 {@link CompiledTransformer}，参数不合法时直接抛出异常。
+     * 默认实现每条记录都调用 {@link #evaluate(Record, Object...)}，子类可以覆盖该方法避免重复解析参数
+     *
+     * @param paras transformer函数参数
+     * @return compiled transformer
+     */
+    public CompiledTransformer compile(Object... paras)
+    {
+        return record -> evaluate(record, paras);
+    }
 }
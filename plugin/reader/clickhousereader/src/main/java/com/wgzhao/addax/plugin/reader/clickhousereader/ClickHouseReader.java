@@ -20,17 +20,15 @@
 package com.wgzhao.addax.plugin.reader.clickhousereader;
 
 import com.wgzhao.addax.common.base.Key;
-import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.element.TimestampColumn;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.reader.ColumnExtractor;
 import com.wgzhao.addax.rdbms.reader.CommonRdbmsReader;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 
-import java.io.UnsupportedEncodingException;
-import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -102,28 +100,28 @@ public class ClickHouseReader
             this.commonRdbmsReaderTask = new CommonRdbmsReader.Task(DATABASE_TYPE, super.getTaskGroupId(), super.getTaskId())
             {
                 @Override
-                protected Column createColumn(ResultSet rs, ResultSetMetaData metaData, int i)
-                        throws SQLException, UnsupportedEncodingException
+                protected ColumnExtractor createColumnExtractor(ResultSetMetaData metaData, int i)
+                        throws SQLException
                 {
                     int dataType = metaData.getColumnType(i);
                     // Please to use java.time.LocalDateTime or java.time.OffsetDateTime instead of java.sql.Timestamp,
                     // and java.time.LocalDate instead of java.sql.Date.
                     // references https://github.com/ClickHouse/clickhouse-jdbc/tree/master/clickhouse-jdbc
                     if (dataType == Types.TIMESTAMP) {
-                        return new TimestampColumn(Timestamp.valueOf((LocalDateTime) rs.getObject(i)));
+                        return (rs, index) -> new TimestampColumn(Timestamp.valueOf((LocalDateTime) rs.getObject(index)));
                     }
                     else if (dataType == Types.OTHER) {
                         // database-specific type, convert it to string as default
                         String dType = metaData.getColumnTypeName(i);
                         if (dType.startsWith("DateTime")) {
-                            return new TimestampColumn(Timestamp.valueOf((LocalDateTime) rs.getObject(i)));
+                            return (rs, index) -> new TimestampColumn(Timestamp.valueOf((LocalDateTime) rs.getObject(index)));
                         }
                         else {
-                            return new StringColumn(rs.getObject(i).toString());
+                            return (rs, index) -> new StringColumn(rs.getObject(index).toString());
                         }
                     }
                     else {
-                        return super.createColumn(rs, metaData, i);
+                        return super.createColumnExtractor(metaData, i);
                     }
                 }
             };
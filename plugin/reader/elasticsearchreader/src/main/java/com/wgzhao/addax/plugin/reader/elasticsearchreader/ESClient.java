@@ -38,6 +38,7 @@ import io.searchbox.indices.aliases.AliasMapping;
 import io.searchbox.indices.aliases.GetAliases;
 import io.searchbox.indices.aliases.ModifyAliases;
 import io.searchbox.indices.aliases.RemoveAliasMapping;
+import io.searchbox.indices.settings.GetSettings;
 import io.searchbox.params.SearchType;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHost;
@@ -117,6 +118,31 @@ public class ESClient
         return isIndicesExists;
     }
 
+    /**
+     * 获取索引的主分片总数，索引名可以是别名或者通配符
+     *
+     * @param indexName the index name
+     * @return the number of primary shards, or 0 if unknown
+     * @throws Exception if failed to get the settings
+     */
+    public int getShardCount(String indexName)
+            throws Exception
+    {
+        JestResult rst = execute(new GetSettings.Builder().addIndex(indexName).build());
+        if (!rst.isSucceeded() || rst.getJsonObject() == null) {
+            return 0;
+        }
+        int shards = 0;
+        for (Map.Entry<String, JsonElement> entry : rst.getJsonObject().entrySet()) {
+            JsonObject settings = entry.getValue().getAsJsonObject().getAsJsonObject("settings");
+            JsonObject index = settings == null ? null : settings.getAsJsonObject("index");
+            if (index != null && index.has("number_of_shards")) {
+                shards += index.get("number_of_shards").getAsInt();
+            }
+        }
+        return shards;
+    }
+
     public SearchResult search(String query,
             SearchType searchType,
             String index,
@@ -131,4 +131,9 @@ public final class ESKey
     {
         return conf.getString("filter", null);
     }
+
+    public static int getSlice(Configuration conf)
+    {
+        return conf.getInt("slice", 0);
+    }
 }
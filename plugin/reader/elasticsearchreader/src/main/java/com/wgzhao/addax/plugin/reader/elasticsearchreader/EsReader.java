@@ -52,7 +52,9 @@ import java.io.IOException;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -78,14 +80,7 @@ public class EsReader
              * 注意：此方法仅执行一次。
              * 最佳实践：如果 Job 中有需要进行数据同步之前的处理，可以在此处完成，如果没有必要则可以直接去掉。
              */
-            ESClient esClient = new ESClient();
-            esClient.createClient(ESKey.getEndpoint(conf),
-                    ESKey.getAccessID(conf),
-                    ESKey.getAccessKey(conf),
-                    false,
-                    300000,
-                    false,
-                    false);
+            ESClient esClient = newClient();
 
             String indexName = ESKey.getIndexName(conf);
             String typeName = ESKey.getTypeName(conf);
@@ -113,14 +108,77 @@ public class EsReader
         {
             List<Configuration> configurations = new ArrayList<>();
             List<Object> search = conf.getList(ESKey.SEARCH_KEY, Object.class);
+            int sliceNumber = getSliceNumber(adviceNumber, search.size());
+            if (sliceNumber > 1) {
+                log.info("split each search into {} slices", sliceNumber);
+            }
             for (Object query : search) {
-                Configuration clone = conf.clone();
-                clone.set(ESKey.SEARCH_KEY, query);
-                configurations.add(clone);
+                for (int i = 0; i < sliceNumber; i++) {
+                    Configuration clone = conf.clone();
+                    clone.set(ESKey.SEARCH_KEY, query);
+                    if (sliceNumber > 1) {
+                        // sliced scroll，每个 task 读取其中一个切片
+                        Map<String, Object> slice = new HashMap<>();
+                        slice.put("id", i);
+                        slice.put("max", sliceNumber);
+                        clone.set(ESKey.SEARCH_KEY + ".slice", slice);
+                        // 没有指定排序时按照 _doc 排序，这是 scroll 最高效的顺序，且每个切片内的顺序是稳定的
+                        if (clone.get(ESKey.SEARCH_KEY + ".sort") == null) {
+                            clone.set(ESKey.SEARCH_KEY + ".sort", Collections.singletonList("_doc"));
+                        }
+                    }
+                    configurations.add(clone);
+                }
             }
             return configurations;
         }
 
+        /*
+         * 只有 scroll 查询才能切片。没有配置 slice 时，按照 adviceNumber 平均分配到每个查询，
+         * 并且不超过索引的主分片数，切片数超过分片数时 ES 第一次查询的开销会很大
+         */
+        private int getSliceNumber(int adviceNumber, int searchNumber)
+        {
+            if (StringUtils.isBlank(ESKey.getScroll(conf))) {
+                return 1;
+            }
+            int slice = ESKey.getSlice(conf);
+            if (slice > 0) {
+                return slice;
+            }
+            int sliceNumber = Math.max(1, adviceNumber / Math.max(1, searchNumber));
+            if (sliceNumber == 1) {
+                return 1;
+            }
+            ESClient esClient = newClient();
+            try {
+                int shards = esClient.getShardCount(ESKey.getIndexName(conf));
+                if (shards > 0) {
+                    sliceNumber = Math.min(sliceNumber, shards);
+                }
+            }
+            catch (Exception e) {
+                log.warn("Failed to get the shard count of index [{}]: {}", ESKey.getIndexName(conf), e.getMessage());
+            }
+            finally {
+                esClient.closeJestClient();
+            }
+            return sliceNumber;
+        }
+
+        private ESClient newClient()
+        {
+            ESClient esClient = new ESClient();
+            esClient.createClient(ESKey.getEndpoint(conf),
+                    ESKey.getAccessID(conf),
+                    ESKey.getAccessKey(conf),
+                    false,
+                    300000,
+                    false,
+                    false);
+            return esClient;
+        }
+
         @Override
         public void post()
         {
@@ -203,20 +261,19 @@ public class EsReader
                 throw AddaxException.asAddaxException(ESReaderErrorCode.ES_SEARCH_ERROR, searchResult.getResponseCode() + ":" + searchResult.getErrorMessage());
             }
             queryPerfRecord.end();
-            //transport records
-            PerfRecord allResultPerfRecord = new PerfRecord(getTaskGroupId(), getTaskId(), PerfRecord.PHASE.RESULT_NEXT_ALL);
-            allResultPerfRecord.start();
-            this.transportRecords(recordSender, searchResult);
-            allResultPerfRecord.end();
-            //do scroll
-            JsonElement scrollIdElement = searchResult.getJsonObject().get("_scroll_id");
-            if (scrollIdElement == null) {
-                return;
-            }
-            String scrollId = scrollIdElement.getAsString();
-            log.debug("scroll id:{}", scrollId);
+            // 出现异常时也要清理 scroll 上下文，否则会一直占用服务端的资源直到超时
+            String scrollId = getScrollId(searchResult);
             try {
-                boolean hasElement = true;
+                //transport records
+                PerfRecord allResultPerfRecord = new PerfRecord(getTaskGroupId(), getTaskId(), PerfRecord.PHASE.RESULT_NEXT_ALL);
+                allResultPerfRecord.start();
+                boolean hasElement = this.transportRecords(recordSender, searchResult);
+                allResultPerfRecord.end();
+                //do scroll
+                if (scrollId == null) {
+                    return;
+                }
+                log.debug("scroll id:{}", scrollId);
                 while (hasElement) {
                     queryPerfRecord.start();
                     JestResult currScroll = esClient.scroll(scrollId, this.scroll);
@@ -225,6 +282,11 @@ public class EsReader
                         throw AddaxException.asAddaxException(ESReaderErrorCode.ES_SEARCH_ERROR,
                                 String.format("scroll[id=%s] search error,code:%s,msg:%s", scrollId, currScroll.getResponseCode(), currScroll.getErrorMessage()));
                     }
+                    // scroll id 可能在翻页时发生变化
+                    String nextScrollId = getScrollId(currScroll);
+                    if (nextScrollId != null) {
+                        scrollId = nextScrollId;
+                    }
                     allResultPerfRecord.start();
                     hasElement = this.transportRecords(recordSender, parseSearchResult(currScroll));
                     allResultPerfRecord.end();
@@ -237,8 +299,19 @@ public class EsReader
                 throw AddaxException.asAddaxException(ESReaderErrorCode.ES_SEARCH_ERROR, e);
             }
             finally {
-                esClient.clearScroll(scrollId);
+                if (scrollId != null) {
+                    esClient.clearScroll(scrollId);
+                }
+            }
+        }
+
+        private String getScrollId(JestResult result)
+        {
+            if (result.getJsonObject() == null) {
+                return null;
             }
+            JsonElement scrollIdElement = result.getJsonObject().get("_scroll_id");
+            return scrollIdElement == null ? null : scrollIdElement.getAsString();
         }
 
         private SearchResult parseSearchResult(JestResult jestResult)
@@ -45,4 +45,8 @@ public final class KuduKey extends Key
 
     public static final String SCAN_REQUEST_TIMEOUT = "scanTimeout";
 
+    public static final String SPLIT_SIZE_BYTES = "splitSizeBytes";
+
+    public static final String SCAN_TOKEN = "scanToken";
+
 }
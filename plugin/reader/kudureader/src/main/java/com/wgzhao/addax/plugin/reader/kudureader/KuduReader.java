@@ -34,19 +34,25 @@ import com.wgzhao.addax.common.util.Configuration;
 import org.apache.kudu.ColumnSchema;
 import org.apache.kudu.Schema;
 import org.apache.kudu.Type;
+import org.apache.kudu.client.AsyncKuduScanner;
 import org.apache.kudu.client.KuduClient;
 import org.apache.kudu.client.KuduException;
 import org.apache.kudu.client.KuduPredicate;
+import org.apache.kudu.client.KuduScanToken;
 import org.apache.kudu.client.KuduScanner;
 import org.apache.kudu.client.KuduTable;
 import org.apache.kudu.client.RowResult;
 import org.apache.kudu.client.RowResultIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -61,10 +67,141 @@ import static com.wgzhao.addax.common.base.Key.WHERE;
 public class KuduReader
         extends Reader
 {
+    private static final Map<String, KuduPredicate.ComparisonOp> KUDU_OPERATORS = ImmutableMap.of(
+            "=", KuduPredicate.ComparisonOp.EQUAL,
+            ">", KuduPredicate.ComparisonOp.GREATER,
+            ">=", KuduPredicate.ComparisonOp.GREATER_EQUAL,
+            "<", KuduPredicate.ComparisonOp.LESS,
+            "<=", KuduPredicate.ComparisonOp.LESS_EQUAL
+    );
+
+    private static KuduClient newClient(Configuration conf)
+    {
+        String masterAddresses = conf.getString(KuduKey.KUDU_MASTER_ADDRESSES);
+        long socketReadTimeoutMs = conf.getLong(KuduKey.SOCKET_READ_TIMEOUT, 10) * 1000L;
+        return new KuduClient.KuduClientBuilder(masterAddresses)
+                .defaultOperationTimeoutMs(socketReadTimeoutMs)
+                .build();
+    }
+
+    private static KuduTable openTable(KuduClient kuduClient, String tableName)
+    {
+        try {
+            return kuduClient.openTable(tableName);
+        }
+        catch (KuduException ex) {
+            throw AddaxException.asAddaxException(
+                    KuduReaderErrorCode.UNKNOWN_EXCEPTION,
+                    ex.getMessage()
+            );
+        }
+    }
+
+    /**
+     * return the columns to be projected, or null if all columns are wanted
+     *
+     * @param conf reader configuration
+     * @param schema kudu schema
+     * @param tableName kudu table name
+     * @return list of column name or null
+     */
+    private static List<String> getProjectedColumns(Configuration conf, Schema schema, String tableName)
+    {
+        List<String> columns = conf.getList(COLUMN, String.class);
+        if (columns == null || columns.isEmpty()
+                || (columns.size() == 1 && ("*".equals(columns.get(0)) || "\"*\"".equals(columns.get(0))))) {
+            return null;
+        }
+        // judge specific column exists or not
+        for (String column : columns) {
+            if (!schema.hasColumn(column)) {
+                throw AddaxException.asAddaxException(
+                        KuduReaderErrorCode.ILLEGAL_VALUE,
+                        "column '" + column + "' does not exists in the table '" + tableName + "'"
+                );
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * convert sql-format where to kudu {@link KuduPredicate} format
+     * "age &gt; 1" as assumed where clause , it will be convert into
+     * <pre>
+     *      KuduPredicate.newComparisonPredicate("age", KuduPredicate.ComparisonOp.GREATER, 1);
+     * </pre>
+     *
+     * @param where List of configuration, each element like <code>{"field":"age", "op": "&gt;", "value": 1}</code>
+     * @param schema kudu schema
+     * @param tableName kudu table name
+     * @return list of {@link KuduPredicate}
+     */
+    private static List<KuduPredicate> processWhere(List<Configuration> where, Schema schema, String tableName)
+    {
+        List<KuduPredicate> customPredicate = new ArrayList<>();
+        if (where == null) {
+            return customPredicate;
+        }
+        String field;
+        KuduPredicate.ComparisonOp op;
+        KuduPredicate predicate;
+        for (Configuration conf : where) {
+            field = conf.getString("field");
+            op = KUDU_OPERATORS.get(conf.getString("op"));
+            if (!schema.hasColumn(field)) {
+                throw AddaxException.asAddaxException(
+                        KuduReaderErrorCode.ILLEGAL_VALUE,
+                        "column '" + field + "' in where clause does not exists in the table '" + tableName + "'"
+                );
+            }
+            ColumnSchema column = schema.getColumn(field);
+            String value = conf.getString("value");
+
+            switch (column.getType()) {
+                case INT8:
+                case INT16:
+                case INT32:
+                case INT64:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, Long.parseLong(value));
+                    break;
+                case BOOL:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, Boolean.valueOf(value));
+                    break;
+                case STRING:
+                case VARCHAR:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, value);
+                    break;
+                case DATE:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, Date.valueOf(value));
+                    break;
+                case FLOAT:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, Float.valueOf(value));
+                    break;
+                case DOUBLE:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, Double.valueOf(value));
+                    break;
+                case DECIMAL:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, new BigDecimal(value));
+                    break;
+                case BINARY:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, value.getBytes(StandardCharsets.UTF_8));
+                    break;
+                case UNIXTIME_MICROS:
+                    predicate = KuduPredicate.newComparisonPredicate(column, op, Timestamp.valueOf(value));
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected type: " + column.getType());
+            }
+            customPredicate.add(predicate);
+        }
+        return customPredicate;
+    }
 
     public static class Job
             extends Reader.Job
     {
+        private static final Logger LOG = LoggerFactory.getLogger(Job.class);
+
         private Configuration originalConfig = null;
 
         private String splitKey;
@@ -75,30 +212,24 @@ public class KuduReader
         // match where clause such as age > 18
         private static final String PATTERN_FOR_WHERE = "^(\\w+)\\s+(=|>|>=|<|<=)\\s+(.*)$";
         private static final Pattern pattern = Pattern.compile(PATTERN_FOR_WHERE);
-        private static final Map<String, KuduPredicate.ComparisonOp> KUDU_OPERATORS = ImmutableMap.of(
-                "=", KuduPredicate.ComparisonOp.EQUAL,
-                ">", KuduPredicate.ComparisonOp.GREATER,
-                ">=", KuduPredicate.ComparisonOp.GREATER_EQUAL,
-                "<", KuduPredicate.ComparisonOp.LESS,
-                "<=", KuduPredicate.ComparisonOp.LESS_EQUAL
-        );
 
         @Override
         public List<Configuration> split(int adviceNumber)
         {
             List<Configuration> confList = new ArrayList<>();
 
-            if ((splitKey != null) && (!"min".equals(lowerBound)) && (!"max".equals(upperBound))) {
-                int iLowerBound = Integer.parseInt(this.lowerBound);
-                int iUpperBound = Integer.parseInt(this.upperBound);
-                int range = (iUpperBound - iLowerBound) + 1;
-                int limit = (int) Math.ceil((double) range / (double) adviceNumber);
-                int offset;
+            if ((splitKey != null) && (lowerBound != null) && (upperBound != null)
+                    && (!"min".equals(lowerBound)) && (!"max".equals(upperBound))) {
+                long iLowerBound = Long.parseLong(this.lowerBound);
+                long iUpperBound = Long.parseLong(this.upperBound);
+                long range = (iUpperBound - iLowerBound) + 1;
+                long limit = (long) Math.ceil((double) range / (double) adviceNumber);
+                long offset;
                 for (int page = 0; page < adviceNumber; ++page) {
                     offset = page * limit;
                     Configuration conf = originalConfig.clone();
-                    int possibleLowerBound = (iLowerBound + offset);
-                    int possibleUpperBound = (iLowerBound + offset + limit - 1);
+                    long possibleLowerBound = (iLowerBound + offset);
+                    long possibleUpperBound = (iLowerBound + offset + limit - 1);
                     if (possibleLowerBound > iUpperBound) {
                         possibleLowerBound = 0;
                         possibleUpperBound = 0;
@@ -112,15 +243,68 @@ public class KuduReader
                 }
             }
             else {
-                Configuration conf = originalConfig.clone();
-                conf.set(KuduKey.SPLIT_LOWER_BOUND, "min");
-                conf.set(KuduKey.SPLIT_UPPER_BOUND, "max");
-                confList.add(conf);
+                for (byte[] token : buildScanTokens()) {
+                    Configuration conf = originalConfig.clone();
+                    conf.set(KuduKey.SCAN_TOKEN, Base64.getEncoder().encodeToString(token));
+                    confList.add(conf);
+                }
+                if (confList.isEmpty()) {
+                    Configuration conf = originalConfig.clone();
+                    conf.set(KuduKey.SPLIT_LOWER_BOUND, "min");
+                    conf.set(KuduKey.SPLIT_UPPER_BOUND, "max");
+                    confList.add(conf);
+                }
             }
 
             return confList;
         }
 
+        /*
+         * 每个 tablet 至少生成一个 scan token，配置了 splitSizeBytes 时较大的 tablet 会再按照大小切分，
+         * 投影字段和过滤条件都会序列化到 token 中，由 tablet server 完成过滤
+         */
+        private List<byte[]> buildScanTokens()
+        {
+            String tableName = originalConfig.getString(KuduKey.KUDU_TABlE_NAME);
+            long splitSizeBytes = originalConfig.getLong(KuduKey.SPLIT_SIZE_BYTES, 0L);
+            List<byte[]> tokens = new ArrayList<>();
+            KuduClient kuduClient = newClient(originalConfig);
+            try {
+                KuduTable kuduTable = openTable(kuduClient, tableName);
+                Schema schema = kuduTable.getSchema();
+                KuduScanToken.KuduScanTokenBuilder tokenBuilder = kuduClient.newScanTokenBuilder(kuduTable);
+                List<String> columns = getProjectedColumns(originalConfig, schema, tableName);
+                if (columns != null) {
+                    tokenBuilder.setProjectedColumnNames(columns);
+                }
+                for (KuduPredicate p : processWhere(originalConfig.getListConfiguration(WHERE), schema, tableName)) {
+                    tokenBuilder.addPredicate(p);
+                }
+                if (splitSizeBytes > 0) {
+                    tokenBuilder.setSplitSizeBytes(splitSizeBytes);
+                }
+                for (KuduScanToken token : tokenBuilder.build()) {
+                    tokens.add(token.serialize());
+                }
+            }
+            catch (IOException ex) {
+                throw AddaxException.asAddaxException(
+                        KuduReaderErrorCode.UNKNOWN_EXCEPTION,
+                        ex.getMessage()
+                );
+            }
+            finally {
+                try {
+                    kuduClient.close();
+                }
+                catch (KuduException ex) {
+                    LOG.warn("Failed to close kudu client: {}", ex.getMessage());
+                }
+            }
+            LOG.info("The table [{}] is split into {} scan token(s).", tableName, tokens.size());
+            return tokens;
+        }
+
         @Override
         public void prepare()
         {
@@ -177,6 +361,8 @@ public class KuduReader
             extends Reader.Task
     {
 
+        private Configuration readerSliceConfig;
+
         private KuduClient kuduClient;
 
         private String tableName = null;
@@ -187,81 +373,76 @@ public class KuduReader
 
         private String upperBound;
 
+        private String scanToken;
+
+        private boolean columnar;
+
         private Long scanRequestTimeout;
-        private List<String> columns;
-        private boolean specifyColumn = false;
-        List<KuduPredicate> customPredicate;
-        private static final Map<String, KuduPredicate.ComparisonOp> KUDU_OPERATORS = ImmutableMap.of(
-                "=", KuduPredicate.ComparisonOp.EQUAL,
-                ">", KuduPredicate.ComparisonOp.GREATER,
-                ">=", KuduPredicate.ComparisonOp.GREATER_EQUAL,
-                "<", KuduPredicate.ComparisonOp.LESS,
-                "<=", KuduPredicate.ComparisonOp.LESS_EQUAL
-        );
 
         List<Configuration> where;
 
         @Override
         public void startRead(RecordSender recordSender)
         {
-            KuduTable kuduTable;
-            try {
-                kuduTable = kuduClient.openTable(tableName);
-            }
-            catch (KuduException ex) {
-                throw AddaxException.asAddaxException(
-                        KuduReaderErrorCode.UNKNOWN_EXCEPTION,
-                        ex.getMessage()
-                );
-            }
-
-            Schema schema = kuduTable.getSchema();
-
-            KuduScanner.KuduScannerBuilder kuduScannerBuilder = kuduClient.newScannerBuilder(kuduTable);
-            if (scanRequestTimeout != null) {
-                kuduScannerBuilder.scanRequestTimeout(scanRequestTimeout);
+            KuduScanner.KuduScannerBuilder kuduScannerBuilder;
+            if (scanToken != null) {
+                // the projection and predicates are already carried by the token
+                try {
+                    kuduScannerBuilder = KuduScanToken.deserializeIntoScannerBuilder(Base64.getDecoder().decode(scanToken), kuduClient);
+                }
+                catch (IOException ex) {
+                    throw AddaxException.asAddaxException(
+                            KuduReaderErrorCode.UNKNOWN_EXCEPTION,
+                            ex.getMessage()
+                    );
+                }
             }
-            KuduScanner kuduScanner;
+            else {
+                KuduTable kuduTable = openTable(kuduClient, tableName);
+                Schema schema = kuduTable.getSchema();
+                kuduScannerBuilder = kuduClient.newScannerBuilder(kuduTable);
+
+                if ((splitKey != null) && (!"min".equals(lowerBound)) && (!"max".equals(upperBound))) {
+                    KuduPredicate lowerBoundPredicate = KuduPredicate.newComparisonPredicate(
+                            schema.getColumn(splitKey),
+                            KuduPredicate.ComparisonOp.GREATER_EQUAL,
+                            Long.parseLong(lowerBound)
+                    );
+                    KuduPredicate upperBoundPredicate = KuduPredicate.newComparisonPredicate(
+                            schema.getColumn(splitKey),
+                            KuduPredicate.ComparisonOp.LESS_EQUAL,
+                            Long.parseLong(upperBound)
+                    );
+                    kuduScannerBuilder
+                            .addPredicate(lowerBoundPredicate)
+                            .addPredicate(upperBoundPredicate);
+                }
 
-            if ((splitKey != null) && (!"min".equals(lowerBound)) && (!"max".equals(upperBound))) {
-                KuduPredicate lowerBoundPredicate = KuduPredicate.newComparisonPredicate(
-                        schema.getColumn(splitKey),
-                        KuduPredicate.ComparisonOp.GREATER_EQUAL,
-                        Integer.parseInt(lowerBound)
-                );
-                KuduPredicate upperBoundPredicate = KuduPredicate.newComparisonPredicate(
-                        schema.getColumn(splitKey),
-                        KuduPredicate.ComparisonOp.LESS_EQUAL,
-                        Integer.parseInt(upperBound)
-                );
-                kuduScannerBuilder
-                        .addPredicate(lowerBoundPredicate)
-                        .addPredicate(upperBoundPredicate);
-                if (specifyColumn) {
-                    // judge specific column exists or not
-
-                    for (String column : columns) {
-                        if (!schema.hasColumn(column)) {
-                            throw AddaxException.asAddaxException(
-                                    KuduReaderErrorCode.ILLEGAL_VALUE,
-                                    "column '" + column + "' does not exists in the table '" + tableName + "'"
-                            );
-                        }
-                    }
+                List<String> columns = getProjectedColumns(readerSliceConfig, schema, tableName);
+                if (columns != null) {
                     kuduScannerBuilder.setProjectedColumnNames(columns);
                 }
-            }
 
-            if (!where.isEmpty()) {
-                List<KuduPredicate> customPredicate = processWhere(where, schema);
-                for (KuduPredicate p : customPredicate) {
+                for (KuduPredicate p : processWhere(where, schema, tableName)) {
                     kuduScannerBuilder.addPredicate(p);
                 }
             }
+            if (scanRequestTimeout != null) {
+                kuduScannerBuilder.scanRequestTimeout(scanRequestTimeout);
+            }
 
-            kuduScanner = kuduScannerBuilder.build();
+            KuduScanner kuduScanner = kuduScannerBuilder.build();
+            if (columnar) {
+                kuduScanner.setRowDataFormat(AsyncKuduScanner.RowDataFormat.COLUMNAR);
+            }
 
+            // resolve the column types once, and read each cell by its index instead of by its name
             List<ColumnSchema> columnSchemas = kuduScanner.getProjectionSchema().getColumns();
+            int columnNumber = columnSchemas.size();
+            Type[] columnTypes = new Type[columnNumber];
+            for (int i = 0; i < columnNumber; i++) {
+                columnTypes[i] = columnSchemas.get(i).getType();
+            }
 
             while (kuduScanner.hasMoreRows()) {
                 RowResultIterator rows;
@@ -281,52 +462,55 @@ public class KuduReader
 
                     boolean isDirtyRecord = false;
 
-                    for (ColumnSchema columnSchema : columnSchemas) {
-                        if (result.isNull(columnSchema.getName())) {
+                    for (int i = 0; i < columnNumber; i++) {
+                        if (result.isNull(i)) {
                             record.addColumn(new StringColumn());
                             continue;
                         }
 
-                        Type columnType = columnSchema.getType();
-                        switch (columnType) {
+                        switch (columnTypes[i]) {
                             case INT8:
-                                record.addColumn(new LongColumn(Long.valueOf(result.getByte(columnSchema.getName()))));
+                                record.addColumn(new LongColumn((long) result.getByte(i)));
                                 break;
                             case INT16:
-                                record.addColumn(new LongColumn(Long.valueOf(result.getShort(columnSchema.getName()))));
+                                record.addColumn(new LongColumn((long) result.getShort(i)));
                                 break;
                             case INT32:
-                                record.addColumn(new LongColumn(Long.valueOf(result.getInt(columnSchema.getName()))));
+                                record.addColumn(new LongColumn((long) result.getInt(i)));
                                 break;
                             case INT64:
-                                record.addColumn(new LongColumn(result.getLong(columnSchema.getName())));
+                                record.addColumn(new LongColumn(result.getLong(i)));
                                 break;
                             case BINARY:
-                                record.addColumn(new BytesColumn(result.getString(columnSchema.getName()).getBytes(StandardCharsets.UTF_8)));
+                                record.addColumn(new BytesColumn(result.getBinaryCopy(i)));
                                 break;
                             case STRING:
-                                record.addColumn(new StringColumn(result.getString(columnSchema.getName())));
+                            case VARCHAR:
+                                record.addColumn(new StringColumn(result.getString(i)));
                                 break;
                             case BOOL:
-                                record.addColumn(new BoolColumn(result.getBoolean(columnSchema.getName())));
+                                record.addColumn(new BoolColumn(result.getBoolean(i)));
                                 break;
                             case FLOAT:
-                                record.addColumn(new DoubleColumn(result.getFloat(columnSchema.getName())));
+                                record.addColumn(new DoubleColumn(result.getFloat(i)));
                                 break;
                             case DOUBLE:
-                                record.addColumn(new DoubleColumn(result.getDouble(columnSchema.getName())));
+                                record.addColumn(new DoubleColumn(result.getDouble(i)));
                                 break;
                             case UNIXTIME_MICROS:
-                                record.addColumn(new DateColumn(result.getTimestamp(columnSchema.getName())));
+                                record.addColumn(new DateColumn(result.getTimestamp(i)));
+                                break;
+                            case DATE:
+                                record.addColumn(new DateColumn(result.getDate(i)));
                                 break;
                             case DECIMAL:
-                                record.addColumn(new DoubleColumn(result.getDecimal(columnSchema.getName())));
+                                record.addColumn(new DoubleColumn(result.getDecimal(i)));
                                 break;
                             default:
                                 isDirtyRecord = true;
                                 getTaskPluginCollector().collectDirtyRecord(
                                         record,
-                                        "Invalid kudu data type: " + columnType.getName()
+                                        "Invalid kudu data type: " + columnTypes[i].getName()
                                 );
                                 break;
                         }
@@ -354,119 +538,17 @@ public class KuduReader
         @Override
         public void init()
         {
-            Configuration readerSliceConfig = super.getPluginJobConf();
-            String masterAddresses = readerSliceConfig.getString(KuduKey.KUDU_MASTER_ADDRESSES);
+            readerSliceConfig = super.getPluginJobConf();
             tableName = readerSliceConfig.getString(KuduKey.KUDU_TABlE_NAME);
-            long socketReadTimeoutMs = readerSliceConfig.getLong(KuduKey.SOCKET_READ_TIMEOUT, 10) * 1000L;
             scanRequestTimeout = readerSliceConfig.getLong(KuduKey.SCAN_REQUEST_TIMEOUT, 20L) * 1000L;
-            KuduClient.KuduClientBuilder kuduClientBuilder = (new KuduClient.KuduClientBuilder(masterAddresses));
-            kuduClientBuilder.defaultOperationTimeoutMs(socketReadTimeoutMs);
 
-            kuduClient = kuduClientBuilder.build();
+            kuduClient = newClient(readerSliceConfig);
             lowerBound = readerSliceConfig.getString(KuduKey.SPLIT_LOWER_BOUND);
             upperBound = readerSliceConfig.getString(KuduKey.SPLIT_UPPER_BOUND);
             splitKey = readerSliceConfig.getString(KuduKey.SPLIT_KEY);
-            columns = readerSliceConfig.getList(COLUMN, String.class);
-            if (!columns.isEmpty()) {
-                specifyColumn = columns.size() != 1 || (!"*".equals(columns.get(0)) && !"\"*\"".equals(columns.get(0)));
-            }
+            scanToken = readerSliceConfig.getString(KuduKey.SCAN_TOKEN);
+            columnar = readerSliceConfig.getBool(KuduKey.COLUMNAR, false);
             where = readerSliceConfig.getListConfiguration(WHERE);
-//            processWhere(where);
-        }
-
-        private void processWhere(List<Configuration> where)
-        {
-            String field;
-            KuduPredicate.ComparisonOp op;
-            KuduPredicate predicate;
-            for (Configuration conf : where) {
-                field = conf.getString("field");
-                op = KUDU_OPERATORS.get(conf.getString("op"));
-                ColumnSchema column;
-                String value = conf.getString("value");
-                if (value.startsWith("'")) {
-                    column = new ColumnSchema.ColumnSchemaBuilder(field, Type.VARCHAR).build();
-                    predicate = KuduPredicate.newComparisonPredicate(column, op, value);
-                }
-                else if (value.indexOf('.') > 0) {
-                    column = new ColumnSchema.ColumnSchemaBuilder(field, Type.DOUBLE).build();
-                    predicate = KuduPredicate.newComparisonPredicate(column, op, Double.valueOf(value));
-                }
-                else {
-                    column = new ColumnSchema.ColumnSchemaBuilder(field, Type.INT32).build();
-                    predicate = KuduPredicate.newComparisonPredicate(column, op, Long.parseLong(value));
-                }
-                this.customPredicate.add(predicate);
-            }
-        }
-
-        /**
-         * convert sql-format where to kudu {@link KuduPredicate} format
-         * "age &gt; 1" as assumed where clause , it will be convert into
-         * <pre>
-         *      KuduPredicate.newComparisonPredicate("age", KuduPredicate.ComparisonOp.GREATER, 1);
-         * </pre>
-         *
-         * @param where List of configuration, each element like <code>{"field":"age", "op": "&gt;", "value": 1}</code>
-         * @param schema kudu schema
-         * @return list of {@link KuduPredicate}
-         */
-        private List<KuduPredicate> processWhere(List<Configuration> where, Schema schema)
-        {
-            List<KuduPredicate> customPredicate = new ArrayList<>();
-            String field;
-            KuduPredicate.ComparisonOp op;
-            KuduPredicate predicate;
-            for (Configuration conf : where) {
-                field = conf.getString("field");
-                op = KUDU_OPERATORS.get(conf.getString("op"));
-                if (!schema.hasColumn(field)) {
-                    throw AddaxException.asAddaxException(
-                            KuduReaderErrorCode.ILLEGAL_VALUE,
-                            "column '" + field + "' in where clause does not exists in the table '" + tableName + "'"
-                    );
-                }
-                ColumnSchema column = schema.getColumn(field);
-                String value = conf.getString("value");
-
-                switch (column.getType()) {
-                    case INT8:
-                    case INT16:
-                    case INT32:
-                    case INT64:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, Long.parseLong(value));
-                        break;
-                    case BOOL:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, Boolean.valueOf(value));
-                        break;
-                    case STRING:
-                    case VARCHAR:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, value);
-                        break;
-                    case DATE:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, Date.valueOf(value));
-                        break;
-                    case FLOAT:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, Float.valueOf(value));
-                        break;
-                    case DOUBLE:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, Double.valueOf(value));
-                        break;
-                    case DECIMAL:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, new BigDecimal(value));
-                        break;
-                    case BINARY:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, value.getBytes(StandardCharsets.UTF_8));
-                        break;
-                    case UNIXTIME_MICROS:
-                        predicate = KuduPredicate.newComparisonPredicate(column, op, Timestamp.valueOf(value));
-                        break;
-                    default:
-                        throw new IllegalStateException("Unexpected type: " + column.getType());
-                }
-                customPredicate.add(predicate);
-            }
-            return customPredicate;
         }
 
         @Override
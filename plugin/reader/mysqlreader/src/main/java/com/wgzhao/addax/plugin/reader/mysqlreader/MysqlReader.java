@@ -20,18 +20,16 @@
 package com.wgzhao.addax.plugin.reader.mysqlreader;
 
 import com.wgzhao.addax.common.base.Key;
-import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.LongColumn;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.reader.ColumnExtractor;
 import com.wgzhao.addax.rdbms.reader.CommonRdbmsReader;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
-import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -106,13 +104,13 @@ public class MysqlReader
             this.commonRdbmsReaderTask = new CommonRdbmsReader.Task(DATABASE_TYPE, getTaskGroupId(), getTaskId())
             {
                 @Override
-                protected Column createColumn(ResultSet rs, ResultSetMetaData metaData, int i)
-                        throws SQLException, UnsupportedEncodingException
+                protected ColumnExtractor createColumnExtractor(ResultSetMetaData metaData, int i)
+                        throws SQLException
                 {
                     if (metaData.getColumnType(i) == Types.DATE && "YEAR".equals(metaData.getColumnTypeName(i))) {
-                        return new LongColumn(rs.getLong(i));
+                        return (rs, index) -> new LongColumn(rs.getLong(index));
                     }
-                    return super.createColumn(rs, metaData, i);
+                    return super.createColumnExtractor(metaData, i);
                 }
             };
             this.commonRdbmsReaderTask.init(this.readerSliceConfig);
@@ -22,12 +22,12 @@ package com.wgzhao.addax.plugin.reader.oraclereader;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.wgzhao.addax.common.base.Key;
-import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.reader.ColumnExtractor;
 import com.wgzhao.addax.rdbms.reader.CommonRdbmsReader;
 import com.wgzhao.addax.rdbms.reader.util.HintUtil;
 import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
@@ -35,8 +35,6 @@ import com.wgzhao.addax.rdbms.util.DataBaseType;
 import oracle.spatial.geometry.JGeometry;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -134,21 +132,23 @@ public class OracleReader
             this.commonRdbmsReaderTask = new CommonRdbmsReader.Task(DATABASE_TYPE, getTaskGroupId(), getTaskId())
             {
                 @Override
-                protected Column createColumn(ResultSet rs, ResultSetMetaData metaData, int i)
-                        throws SQLException, UnsupportedEncodingException
+                protected ColumnExtractor createColumnExtractor(ResultSetMetaData metaData, int i)
+                        throws SQLException
                 {
                     int dataType = metaData.getColumnType(i);
                     if (dataType == Types.STRUCT) {
-                        try {
-                            JGeometry geom = JGeometry.load(rs.getBytes(i));
-                            return new StringColumn(convertGeometryToJson(geom));
-                        }
-                        catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
+                        return (rs, index) -> {
+                            try {
+                                JGeometry geom = JGeometry.load(rs.getBytes(index));
+                                return new StringColumn(convertGeometryToJson(geom));
+                            }
+                            catch (Exception e) {
+                                throw new RuntimeException(e);
+                            }
+                        };
                     }
                     else {
-                        return super.createColumn(rs, metaData, i);
+                        return super.createColumnExtractor(metaData, i);
                     }
                 }
             };
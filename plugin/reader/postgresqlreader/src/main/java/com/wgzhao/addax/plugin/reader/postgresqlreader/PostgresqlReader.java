@@ -19,18 +19,16 @@
 
 package com.wgzhao.addax.plugin.reader.postgresqlreader;
 
-import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.DoubleColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.reader.ColumnExtractor;
 import com.wgzhao.addax.rdbms.reader.CommonRdbmsReader;
 import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 
-import java.io.UnsupportedEncodingException;
-import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -99,14 +97,14 @@ public class PostgresqlReader
             this.commonRdbmsReaderSlave = new CommonRdbmsReader.Task(DATABASE_TYPE, super.getTaskGroupId(), super.getTaskId())
             {
                 @Override
-                protected Column createColumn(ResultSet rs, ResultSetMetaData metaData, int i)
-                        throws SQLException, UnsupportedEncodingException
+                protected ColumnExtractor createColumnExtractor(ResultSetMetaData metaData, int i)
+                        throws SQLException
                 {
                     if (metaData.getColumnType(i) == Types.DOUBLE && metaData.isCurrency(i)) {
                         // money type has currency symbol( etc $) and thousands separator(,)
-                        return new DoubleColumn(Double.valueOf(rs.getString(i).substring(1).replace(",","")));
+                        return (rs, index) -> new DoubleColumn(Double.valueOf(rs.getString(index).substring(1).replace(",", "")));
                     }
-                    return super.createColumn(rs, metaData, i);
+                    return super.createColumnExtractor(metaData, i);
                 }
 
             };
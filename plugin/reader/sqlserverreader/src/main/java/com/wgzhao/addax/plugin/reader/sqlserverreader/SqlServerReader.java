@@ -20,18 +20,16 @@
 package com.wgzhao.addax.plugin.reader.sqlserverreader;
 
 import com.wgzhao.addax.common.element.BytesColumn;
-import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.TimestampColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.reader.ColumnExtractor;
 import com.wgzhao.addax.rdbms.reader.CommonRdbmsReader;
 import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 
-import java.io.UnsupportedEncodingException;
-import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -102,17 +100,17 @@ public class SqlServerReader
             this.commonRdbmsReaderTask = new CommonRdbmsReader.Task(DATABASE_TYPE, getTaskGroupId(), getTaskId())
             {
                 @Override
-                protected Column createColumn(ResultSet rs, ResultSetMetaData metaData, int i)
-                        throws SQLException, UnsupportedEncodingException
+                protected ColumnExtractor createColumnExtractor(ResultSetMetaData metaData, int i)
+                        throws SQLException
                 {
                     if (metaData.getColumnType(i) == -151) {
                         // 兼容老的SQLServer版本的datetime数据类型
-                        return new TimestampColumn(rs.getTimestamp(i));
+                        return (rs, index) -> new TimestampColumn(rs.getTimestamp(index));
                     }
                     if (metaData.getColumnType(i) == Types.OTHER && "image".equals(metaData.getColumnTypeName(i))) {
-                        return new BytesColumn(rs.getBytes(i));
+                        return (rs, index) -> new BytesColumn(rs.getBytes(index));
                     }
-                    return super.createColumn(rs, metaData, i);
+                    return super.createColumnExtractor(metaData, i);
                 }
             };
             this.commonRdbmsReaderTask.init(this.readerSliceConfig);
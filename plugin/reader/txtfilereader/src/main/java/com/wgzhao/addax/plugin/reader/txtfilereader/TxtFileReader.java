@@ -25,6 +25,7 @@ import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.storage.reader.FileRangeSplitUtil;
 import com.wgzhao.addax.storage.reader.StorageReaderUtil;
 import com.wgzhao.addax.storage.util.FileHelper;
 import org.apache.commons.io.IOUtils;
@@ -33,11 +34,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -128,6 +131,11 @@ public class TxtFileReader
                                         this.originConfig.getString(Key.PATH)));
             }
 
+            // 文件数少于建议的分片数时，尝试把大文件按照字节范围切分，使单个大文件也可以并行读取
+            if (adviceNumber > splitNumber && FileRangeSplitUtil.isSplittable(this.originConfig)) {
+                return splitByRange(adviceNumber);
+            }
+
             List<List<String>> splitSourceFiles = FileHelper.splitSourceFiles(this.sourceFiles, splitNumber);
             for (List<String> files : splitSourceFiles) {
                 Configuration splitConfig = this.originConfig.clone();
@@ -138,6 +146,36 @@ public class TxtFileReader
             return readerSplitConfigs;
         }
 
+        private List<Configuration> splitByRange(int adviceNumber)
+        {
+            long totalSize = 0;
+            for (String file : this.sourceFiles) {
+                totalSize += new File(file).length();
+            }
+            long splitSize = totalSize / adviceNumber;
+
+            List<Configuration> readerSplitConfigs = new ArrayList<>();
+            for (String file : this.sourceFiles) {
+                List<long[]> ranges = FileRangeSplitUtil.split(file, splitSize);
+                for (long[] range : ranges) {
+                    Configuration splitConfig = this.originConfig.clone();
+                    splitConfig.set(Key.SOURCE_FILES, Collections.singletonList(file));
+                    if (ranges.size() > 1) {
+                        splitConfig.set(Key.FILE_RANGE, Arrays.asList(range[0], range[1]));
+                        if (range[0] > 0) {
+                            // 只有第一个分片包含表头
+                            splitConfig.set(Key.SKIP_HEADER, false);
+                        }
+                    }
+                    readerSplitConfigs.add(splitConfig);
+                }
+                if (ranges.size() > 1) {
+                    LOG.info("The file [{}] is split into [{}] byte ranges.", file, ranges.size());
+                }
+            }
+            return readerSplitConfigs;
+        }
+
         private int getIndexByName(String name, String[] allNames)
         {
             for (int i = 0; i < allNames.length; i++) {
@@ -186,12 +224,19 @@ public class TxtFileReader
 
         private Configuration readerSliceConfig;
         private List<String> sourceFiles;
+        // 按照字节范围切分时的 [start, end)，未切分时为 null
+        private long[] fileRange;
 
         @Override
         public void init()
         {
             this.readerSliceConfig = this.getPluginJobConf();
             this.sourceFiles = this.readerSliceConfig.getList(Key.SOURCE_FILES, String.class);
+            if (this.readerSliceConfig.get(Key.FILE_RANGE) != null) {
+                this.fileRange = new long[] {
+                        this.readerSliceConfig.getLong(Key.FILE_RANGE + "[0]"),
+                        this.readerSliceConfig.getLong(Key.FILE_RANGE + "[1]")};
+            }
         }
 
         @Override
@@ -216,6 +261,13 @@ public class TxtFileReader
         public void startRead(RecordSender recordSender)
         {
             LOG.debug("start read source files...");
+            if (this.fileRange != null) {
+                String fileName = this.sourceFiles.get(0);
+                LOG.info("reading file : [{}], range: [{}, {})", fileName, this.fileRange[0], this.fileRange[1]);
+                StorageReaderUtil.readFromFileRange(fileName, this.fileRange[0], this.fileRange[1],
+                        readerSliceConfig, recordSender, getTaskPluginCollector());
+                return;
+            }
             FileInputStream inputStream;
             for (String fileName : this.sourceFiles) {
                 LOG.info("reading file : [{}]", fileName);
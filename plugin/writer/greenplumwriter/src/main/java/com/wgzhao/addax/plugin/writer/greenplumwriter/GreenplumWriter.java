@@ -24,6 +24,7 @@ import com.wgzhao.addax.common.spi.Writer;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 import com.wgzhao.addax.rdbms.writer.CommonRdbmsWriter;
+import com.wgzhao.addax.rdbms.writer.CopyWriterTask;
 
 import java.util.List;
 
@@ -88,7 +89,15 @@ public class GreenplumWriter
         public void init()
         {
             this.writerSliceConfig = super.getPluginJobConf();
-            this.commonRdbmsWriterTask = new CopyWriterTask();
+            this.commonRdbmsWriterTask = new CopyWriterTask(DATABASE_TYPE)
+            {
+                @Override
+                protected boolean isCopyMode(String writeMode)
+                {
+                    // Greenplum 总是使用 COPY 写入
+                    return true;
+                }
+            };
             this.commonRdbmsWriterTask.init(this.writerSliceConfig);
         }
 
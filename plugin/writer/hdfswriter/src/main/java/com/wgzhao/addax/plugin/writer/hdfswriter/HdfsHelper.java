@@ -27,6 +27,11 @@ import com.wgzhao.addax.common.base.Constant;
 import com.wgzhao.addax.common.base.Key;
 import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.batch.BytesVector;
+import com.wgzhao.addax.common.element.batch.DoubleVector;
+import com.wgzhao.addax.common.element.batch.LongVector;
+import com.wgzhao.addax.common.element.batch.RecordBatch;
+import com.wgzhao.addax.common.element.batch.ValueVector;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
@@ -650,14 +655,8 @@ public class HdfsHelper {
                         TaskPluginCollector taskPluginCollector) {
         for (int i = 0; i < columns.size(); i++) {
             Configuration eachColumnConf = columns.get(i);
-            String type = eachColumnConf.getString(Key.TYPE).trim().toUpperCase();
-            SupportHiveDataType columnType;
+            SupportHiveDataType columnType = getColumnType(eachColumnConf);
             ColumnVector col = batch.cols[i];
-            if (type.startsWith("DECIMAL")) {
-                columnType = SupportHiveDataType.DECIMAL;
-            } else {
-                columnType = SupportHiveDataType.valueOf(type);
-            }
             if (record.getColumn(i) == null || record.getColumn(i).getRawData() == null) {
                 col.isNull[row] = true;
                 col.noNulls = false;
@@ -665,57 +664,7 @@ public class HdfsHelper {
             }
 
             try {
-                switch (columnType) {
-                    case TINYINT:
-                    case SMALLINT:
-                    case INT:
-                    case BIGINT:
-                    case BOOLEAN:
-                        ((LongColumnVector) col).vector[row] = record.getColumn(i).asLong();
-                        break;
-                    case DATE:
-                        ((LongColumnVector) col).vector[row] = LocalDate.parse(record.getColumn(i).asString()).toEpochDay();
-                        break;
-                    case FLOAT:
-                    case DOUBLE:
-                        ((DoubleColumnVector) col).vector[row] = record.getColumn(i).asDouble();
-                        break;
-                    case DECIMAL:
-                        HiveDecimalWritable hdw = new HiveDecimalWritable();
-                        hdw.set(HiveDecimal.create(record.getColumn(i).asBigDecimal())
-                                .setScale(eachColumnConf.getInt(Key.SCALE), HiveDecimal.ROUND_HALF_UP));
-                        ((DecimalColumnVector) col).set(row, hdw);
-                        break;
-                    case TIMESTAMP:
-                        ((TimestampColumnVector) col).set(row, record.getColumn(i).asTimestamp());
-                        break;
-                    case STRING:
-                    case VARCHAR:
-                    case CHAR:
-                        byte[] buffer;
-                        if (record.getColumn(i).getType() == Column.Type.BYTES) {
-                            //convert bytes to base64 string
-                            buffer = Base64.getEncoder().encode((byte[]) record.getColumn(i).getRawData());
-                        } else if (record.getColumn(i).getType() == Column.Type.DATE) {
-                            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                            buffer = sdf.format(record.getColumn(i).asDate()).getBytes(StandardCharsets.UTF_8);
-                        } else {
-                            buffer = record.getColumn(i).getRawData().toString().getBytes(StandardCharsets.UTF_8);
-                        }
-                        ((BytesColumnVector) col).setRef(row, buffer, 0, buffer.length);
-                        break;
-                    case BINARY:
-                        byte[] content = (byte[]) record.getColumn(i).getRawData();
-                        ((BytesColumnVector) col).setRef(row, content, 0, content.length);
-                        break;
-                    default:
-                        throw AddaxException
-                                .asAddaxException(
-                                        HdfsWriterErrorCode.ILLEGAL_VALUE,
-                                        String.format("The columns configuration is incorrect. the field type is unsupported yet. Field name: [%s], Field type name:[%s].",
-                                                eachColumnConf.getString(Key.NAME),
-                                                eachColumnConf.getString(Key.TYPE)));
-                }
+                setColumn(col, row, record.getColumn(i), columnType, eachColumnConf);
             } catch (Exception e) {
                 taskPluginCollector.collectDirtyRecord(record, e.getMessage());
                 throw AddaxException.asAddaxException(HdfsWriterErrorCode.ILLEGAL_VALUE,
@@ -728,6 +677,150 @@ public class HdfsHelper {
         }
     }
 
+    private SupportHiveDataType getColumnType(Configuration eachColumnConf) {
+        String type = eachColumnConf.getString(Key.TYPE).trim().toUpperCase();
+        if (type.startsWith("DECIMAL")) {
+            return SupportHiveDataType.DECIMAL;
+        }
+        return SupportHiveDataType.valueOf(type);
+    }
+
+    /**
+     * set an orc column value of the given row
+     *
+     * @param col            orc column vector
+     * @param row            row number
+     * @param column         source column, must not be null
+     * @param columnType     the hive type of the destination column
+     * @param eachColumnConf the destination column configuration
+     */
+    private void setColumn(ColumnVector col, int row, Column column, SupportHiveDataType columnType,
+                           Configuration eachColumnConf) {
+        switch (columnType) {
+            case TINYINT:
+            case SMALLINT:
+            case INT:
+            case BIGINT:
+            case BOOLEAN:
+                ((LongColumnVector) col).vector[row] = column.asLong();
+                break;
+            case DATE:
+                ((LongColumnVector) col).vector[row] = LocalDate.parse(column.asString()).toEpochDay();
+                break;
+            case FLOAT:
+            case DOUBLE:
+                ((DoubleColumnVector) col).vector[row] = column.asDouble();
+                break;
+            case DECIMAL:
+                HiveDecimalWritable hdw = new HiveDecimalWritable();
+                hdw.set(HiveDecimal.create(column.asBigDecimal())
+                        .setScale(eachColumnConf.getInt(Key.SCALE), HiveDecimal.ROUND_HALF_UP));
+                ((DecimalColumnVector) col).set(row, hdw);
+                break;
+            case TIMESTAMP:
+                ((TimestampColumnVector) col).set(row, column.asTimestamp());
+                break;
+            case STRING:
+            case VARCHAR:
+            case CHAR:
+                byte[] buffer;
+                if (column.getType() == Column.Type.BYTES) {
+                    //convert bytes to base64 string
+                    buffer = Base64.getEncoder().encode((byte[]) column.getRawData());
+                } else if (column.getType() == Column.Type.DATE) {
+                    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+                    buffer = sdf.format(column.asDate()).getBytes(StandardCharsets.UTF_8);
+                } else {
+                    buffer = column.getRawData().toString().getBytes(StandardCharsets.UTF_8);
+                }
+                ((BytesColumnVector) col).setRef(row, buffer, 0, buffer.length);
+                break;
+            case BINARY:
+                byte[] content = (byte[]) column.getRawData();
+                ((BytesColumnVector) col).setRef(row, content, 0, content.length);
+                break;
+            default:
+                throw AddaxException
+                        .asAddaxException(
+                                HdfsWriterErrorCode.ILLEGAL_VALUE,
+                                String.format("The columns configuration is incorrect. the field type is unsupported yet. Field name: [%s], Field type name:[%s].",
+                                        eachColumnConf.getString(Key.NAME),
+                                        eachColumnConf.getString(Key.TYPE)));
+        }
+    }
+
+    /**
+     * write rows of a columnar batch into orc batch, the primitive vectors are copied directly
+     *
+     * @param batch       {@link VectorizedRowBatch}
+     * @param recordBatch {@link RecordBatch}
+     * @param start       the first row of recordBatch to write
+     * @param length      the number of rows to write
+     * @param columns     table columns, {@link List}
+     * @param taskPluginCollector {@link TaskPluginCollector}
+     */
+    private void setRows(VectorizedRowBatch batch, RecordBatch recordBatch, int start, int length,
+                         List<Configuration> columns, TaskPluginCollector taskPluginCollector) {
+        int offset = batch.size;
+        for (int i = 0; i < columns.size(); i++) {
+            Configuration eachColumnConf = columns.get(i);
+            SupportHiveDataType columnType = getColumnType(eachColumnConf);
+            ColumnVector col = batch.cols[i];
+            ValueVector vector = i < recordBatch.getColumnNumber() ? recordBatch.getVector(i) : null;
+            if (vector == null) {
+                for (int r = 0; r < length; r++) {
+                    col.isNull[offset + r] = true;
+                }
+                col.noNulls = false;
+                continue;
+            }
+            boolean integral = columnType == SupportHiveDataType.TINYINT || columnType == SupportHiveDataType.SMALLINT
+                    || columnType == SupportHiveDataType.INT || columnType == SupportHiveDataType.BIGINT;
+            boolean floating = columnType == SupportHiveDataType.FLOAT || columnType == SupportHiveDataType.DOUBLE;
+            boolean string = columnType == SupportHiveDataType.STRING || columnType == SupportHiveDataType.VARCHAR
+                    || columnType == SupportHiveDataType.CHAR;
+            if (vector instanceof LongVector && integral) {
+                System.arraycopy(((LongVector) vector).getValues(), start, ((LongColumnVector) col).vector, offset, length);
+            } else if (vector instanceof DoubleVector && floating) {
+                System.arraycopy(((DoubleVector) vector).getValues(), start, ((DoubleColumnVector) col).vector, offset, length);
+            } else if (vector instanceof BytesVector && ((BytesVector) vector).isString() && string) {
+                BytesVector bytesVector = (BytesVector) vector;
+                for (int r = start; r < start + length; r++) {
+                    if (!bytesVector.isNull(r)) {
+                        // the batch belongs to writer now, so reference the shared buffer instead of copying
+                        ((BytesColumnVector) col).setRef(offset + r - start, bytesVector.getData(),
+                                bytesVector.getOffset(r), bytesVector.getLength(r));
+                    }
+                }
+            } else {
+                for (int r = start; r < start + length; r++) {
+                    Column column = vector.getColumn(r);
+                    if (column == null || column.getRawData() == null) {
+                        continue;
+                    }
+                    try {
+                        setColumn(col, offset + r - start, column, columnType, eachColumnConf);
+                    } catch (Exception e) {
+                        taskPluginCollector.collectDirtyRecord(recordBatch.getRow(r), e.getMessage());
+                        throw AddaxException.asAddaxException(HdfsWriterErrorCode.ILLEGAL_VALUE,
+                                String.format("Failed to set ORC row, source field type: %s, destination field original type: %s, " +
+                                                "destination field hive type: %s, field name: %s, source field value: %s, root cause:%n%s",
+                                        column.getType(), columnType, eachColumnConf.getString(Key.TYPE),
+                                        eachColumnConf.getString(Key.NAME), column.getRawData(), e));
+                    }
+                }
+            }
+            if (!vector.noNulls()) {
+                for (int r = start; r < start + length; r++) {
+                    if (vector.isNull(r)) {
+                        col.isNull[offset + r - start] = true;
+                        col.noNulls = false;
+                    }
+                }
+            }
+        }
+    }
+
     /*
      * 写orcfile类型文件
      */
@@ -750,14 +843,31 @@ public class HdfsHelper {
                 OrcFile.writerOptions(conf)
                         .setSchema(schema)
                         .compress(CompressionKind.valueOf(compress)))) {
-            Record record;
             VectorizedRowBatch batch = schema.createRowBatch(1024);
-            while ((record = lineReceiver.getFromReader()) != null) {
-                int row = batch.size++;
-                setRow(batch, row, record, columns, taskPluginCollector);
-                if (batch.size == batch.getMaxSize()) {
-                    writer.addRowBatch(batch);
-                    batch.reset();
+            if (config.getBool(Key.COLUMNAR, false)) {
+                RecordBatch recordBatch;
+                while ((recordBatch = lineReceiver.getBatchFromReader()) != null) {
+                    int start = 0;
+                    while (start < recordBatch.size()) {
+                        int length = Math.min(batch.getMaxSize() - batch.size, recordBatch.size() - start);
+                        setRows(batch, recordBatch, start, length, columns, taskPluginCollector);
+                        batch.size += length;
+                        start += length;
+                        if (batch.size == batch.getMaxSize()) {
+                            writer.addRowBatch(batch);
+                            batch.reset();
+                        }
+                    }
+                }
+            } else {
+                Record record;
+                while ((record = lineReceiver.getFromReader()) != null) {
+                    int row = batch.size++;
+                    setRow(batch, row, record, columns, taskPluginCollector);
+                    if (batch.size == batch.getMaxSize()) {
+                        writer.addRowBatch(batch);
+                        batch.reset();
+                    }
                 }
             }
             if (batch.size != 0) {
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.mysqlwriter;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.plugin.RecordReceiver;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.rdbms.util.DBUtil;
+import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
+import com.wgzhao.addax.rdbms.util.DataBaseType;
+import com.wgzhao.addax.rdbms.writer.CommonRdbmsWriter;
+import com.wgzhao.addax.rdbms.writer.util.BytesBuffer;
+import com.wgzhao.addax.rdbms.writer.util.WriterUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 使用 {@code LOAD DATA LOCAL INFILE} 写入数据，数据文件由内存中的字节缓冲区提供，不落地到磁盘。
+ * <p>
+ * 每 {@code batchSize} 条记录（或者 {@code batchByteSize} 字节）编码为一个数据块，以一个事务执行一次 {@code LOAD DATA}。
+ * {@code LOCAL} 模式下服务端会把数据错误和主键冲突降级为警告，因此 {@code load} 和 {@code load replace} 在出现警告时回滚该数据块，
+ * 改用 insert 或者 replace 语句重新写入，并按照 {@link CommonRdbmsWriter.Task} 的方式定位脏数据，与逐条写入的结果保持一致；
+ * {@code load ignore} 与 insert ignore 相同，忽略警告。没有开启 load 模式时，与 {@link CommonRdbmsWriter.Task} 完全相同。
+ */
+public class LoadWriterTask
+        extends CommonRdbmsWriter.Task
+{
+    private static final Logger LOG = LoggerFactory.getLogger(LoadWriterTask.class);
+
+    private static final String LOCAL_INFILE_OPTION = "allowLoadLocalInfile=true";
+
+    private boolean loadMode;
+
+    // 为 true 时出现警告即认为数据块写入失败
+    private boolean failOnWarning;
+
+    public LoadWriterTask(DataBaseType dataBaseType)
+    {
+        super(dataBaseType);
+    }
+
+    @Override
+    public void init(Configuration writerSliceConfig)
+    {
+        super.init(writerSliceConfig);
+        this.loadMode = this.writeMode.trim().toLowerCase().startsWith("load");
+        if (this.loadMode) {
+            // 写入失败的数据块使用对应的 insert/replace 语句定位脏数据
+            this.writeMode = WriterUtil.getBulkLoadFallbackMode(this.writeMode);
+            this.failOnWarning = !"insert ignore".equals(this.writeMode);
+            // 驱动需要在建立连接时声明支持 LOCAL INFILE
+            if (!this.jdbcUrl.contains("allowLoadLocalInfile")) {
+                this.jdbcUrl += (this.jdbcUrl.contains("?") ? "&" : "?") + LOCAL_INFILE_OPTION;
+            }
+        }
+    }
+
+    protected String getLoadSql(MysqlLoadEncoder encoder)
+    {
+        String option = "replace".equals(this.writeMode) ? " REPLACE" : ("insert ignore".equals(this.writeMode) ? " IGNORE" : "");
+        return "LOAD DATA LOCAL INFILE 'addax.tsv'" + option + " INTO TABLE " + this.table
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' "
+                + encoder.getColumnClause(this.columns);
+    }
+
+    @Override
+    public void startWriteWithConnection(RecordReceiver recordReceiver, TaskPluginCollector taskPluginCollector, Connection connection)
+    {
+        if (!this.loadMode) {
+            super.startWriteWithConnection(recordReceiver, taskPluginCollector, connection);
+            return;
+        }
+
+        this.taskPluginCollector = taskPluginCollector;
+        this.resultSetMetaData = DBUtil.getColumnMetaData(connection, this.table, StringUtils.join(this.columns, ","));
+        calcWriteRecordSql();
+
+        MysqlLoadEncoder encoder = new MysqlLoadEncoder(this.resultSetMetaData, this.columnNumber);
+        String loadSql = getLoadSql(encoder);
+        LOG.info("Write data with [{}]", loadSql);
+        BytesBuffer buffer = new BytesBuffer(64 * 1024);
+        List<Record> batch = new ArrayList<>(this.batchSize);
+        Statement statement = null;
+        try {
+            statement = connection.createStatement();
+            Record record;
+            while ((record = recordReceiver.getFromReader()) != null) {
+                if (record.getColumnNumber() != this.columnNumber) {
+                    // 源头读取字段列数与目的表字段写入列数不相等，直接报错
+                    throw AddaxException.asAddaxException(
+                            DBUtilErrorCode.CONF_ERROR,
+                            String.format(
+                                    "The item column number [%d] in source file not equals the column number [%d] in table.",
+                                    record.getColumnNumber(),
+                                    this.columnNumber));
+                }
+
+                int mark = buffer.size();
+                try {
+                    encoder.encode(record, buffer);
+                }
+                catch (Exception e) {
+                    // 字段无法转换为目标类型，逐条写入时同样会失败
+                    buffer.truncate(mark);
+                    this.taskPluginCollector.collectDirtyRecord(record, e);
+                    recordReceiver.release(record);
+                    continue;
+                }
+                batch.add(record);
+
+                if (batch.size() >= this.batchSize || buffer.size() >= this.batchByteSize) {
+                    loadBatch(connection, statement, loadSql, buffer, batch);
+                    recordReceiver.releaseAll(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                loadBatch(connection, statement, loadSql, buffer, batch);
+                recordReceiver.releaseAll(batch);
+                batch.clear();
+            }
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(
+                    DBUtilErrorCode.WRITE_DATA_ERROR, e);
+        }
+        finally {
+            DBUtil.closeDBResources(statement, connection);
+        }
+    }
+
+    /*
+     * 以一个事务加载缓冲区中的数据块，失败或者出现警告时回滚，改用批量写入定位脏数据
+     */
+    private void loadBatch(Connection connection, Statement statement, String loadSql, BytesBuffer buffer, List<Record> batch)
+            throws SQLException
+    {
+        String reason = null;
+        try {
+            connection.setAutoCommit(false);
+            statement.clearWarnings();
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(buffer.array(), 0, buffer.size()));
+            int loaded = statement.executeUpdate(loadSql);
+            SQLWarning warning = this.failOnWarning ? statement.getWarnings() : null;
+            if (warning != null) {
+                reason = warning.getMessage();
+            }
+            else if (loaded < batch.size() && "insert".equals(this.writeMode)) {
+                reason = String.format("only %d records are loaded", loaded);
+            }
+        }
+        catch (SQLException e) {
+            reason = e.getMessage();
+        }
+        finally {
+            buffer.reset();
+        }
+
+        if (reason == null) {
+            connection.commit();
+            return;
+        }
+        connection.rollback();
+        LOG.warn("Failed to load {} records, try to write them with {}. because: {}", batch.size(), this.writeMode, reason);
+        doBatchInsert(connection, batch);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.mysqlwriter;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.PrimitiveLongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.rdbms.writer.util.BytesBuffer;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把记录编码为 {@code LOAD DATA} 默认格式的文本：制表符分隔字段，换行符分隔记录，{@code \N} 表示 NULL，
+ * 字段中的反斜杠、制表符、换行符以及 NUL 字符使用反斜杠转义。
+ * <p>
+ * 字段值按照逐条写入时绑定参数的方式转换，保证两种模式写入的结果相同。二进制类型以十六进制写入，BIT 类型以十进制写入，
+ * 再通过 {@code SET} 子句转换，避免受到字符集转换的影响。
+ */
+public class MysqlLoadEncoder
+{
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+
+    private static final int TEXT = 0;
+    private static final int INTEGER = 1;
+    private static final int DECIMAL = 2;
+    private static final int DOUBLE = 3;
+    private static final int BOOL = 4;
+    private static final int BIT = 5;
+    private static final int DATE = 6;
+    private static final int TIME = 7;
+    private static final int DATETIME = 8;
+    private static final int BINARY = 9;
+
+    private final int[] kinds;
+
+    /**
+     * @param resultSetMetaData the column meta data of the target table, starts from index 1
+     * @param columnNumber the number of columns to write
+     */
+    public MysqlLoadEncoder(List<Map<String, Object>> resultSetMetaData, int columnNumber)
+    {
+        this.kinds = new int[columnNumber];
+        for (int i = 0; i < columnNumber; i++) {
+            Map<String, Object> meta = resultSetMetaData.get(i + 1);
+            this.kinds[i] = kindOf((int) meta.get("type"), String.valueOf(meta.get("typeName")), (int) meta.get("scale"));
+        }
+    }
+
+    private static int kindOf(int sqlType, String typeName, int scale)
+    {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return INTEGER;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return scale == 0 ? INTEGER : DECIMAL;
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                return DOUBLE;
+            case Types.BOOLEAN:
+                return BOOL;
+            case Types.BIT:
+                return BIT;
+            case Types.DATE:
+                return "YEAR".equals(typeName) ? INTEGER : DATE;
+            case Types.TIME:
+                return TIME;
+            case Types.TIMESTAMP:
+                return DATETIME;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.BLOB:
+            case Types.LONGVARBINARY:
+                return BINARY;
+            default:
+                return TEXT;
+        }
+    }
+
+    /**
+     * 生成 {@code LOAD DATA} 语句的字段列表以及 {@code SET} 子句，需要转换的字段先读入用户变量
+     *
+     * @param columns the columns to write
+     * @return the column list and set clause
+     */
+    public String getColumnClause(List<String> columns)
+    {
+        List<String> targets = new ArrayList<>(columns.size());
+        List<String> assignments = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            if (kinds[i] == BINARY || kinds[i] == BIT) {
+                String variable = "@v" + i;
+                targets.add(variable);
+                assignments.add(columns.get(i) + " = " + (kinds[i] == BINARY ? "UNHEX(" + variable + ")" : "CAST(" + variable + " AS UNSIGNED)"));
+            }
+            else {
+                targets.add(columns.get(i));
+            }
+        }
+        String clause = "(" + String.join(",", targets) + ")";
+        if (!assignments.isEmpty()) {
+            clause += " SET " + String.join(", ", assignments);
+        }
+        return clause;
+    }
+
+    public void encode(Record record, BytesBuffer buffer)
+    {
+        for (int i = 0; i < kinds.length; i++) {
+            if (i > 0) {
+                buffer.write('\t');
+            }
+            Column column = record.getColumn(i);
+            if (column == null || column.getRawData() == null) {
+                buffer.write('\\');
+                buffer.write('N');
+                continue;
+            }
+            switch (kinds[i]) {
+                case INTEGER:
+                    writeAscii(column instanceof PrimitiveLongColumn ? Long.toString(((PrimitiveLongColumn) column).longValue())
+                            : Long.toString(column.asLong()), buffer);
+                    break;
+                case DECIMAL:
+                    writeAscii(new BigDecimal(column.asString()).toPlainString(), buffer);
+                    break;
+                case DOUBLE:
+                    writeAscii(Double.toString(column.asDouble()), buffer);
+                    break;
+                case BOOL:
+                    buffer.write(column.asBoolean() ? '1' : '0');
+                    break;
+                case BIT:
+                    // 与逐条写入相同：布尔值写为 0 或 1，其他值按照二进制字符串解析
+                    if (column.getType() == Column.Type.BOOL) {
+                        buffer.write(column.asBoolean() ? '1' : '0');
+                    }
+                    else {
+                        writeAscii(Integer.valueOf(column.asString(), 2).toString(), buffer);
+                    }
+                    break;
+                case DATE:
+                    writeAscii(new java.sql.Date(column.asDate().getTime()).toString(), buffer);
+                    break;
+                case TIME:
+                    writeAscii(new java.sql.Time(column.asDate().getTime()).toString(), buffer);
+                    break;
+                case DATETIME:
+                    writeAscii(column.asTimestamp().toString(), buffer);
+                    break;
+                case BINARY:
+                    writeHex(column.asBytes(), buffer);
+                    break;
+                default:
+                    writeText(column.asString(), buffer);
+                    break;
+            }
+        }
+        buffer.write('\n');
+    }
+
+    private static void writeAscii(String data, BytesBuffer buffer)
+    {
+        for (int i = 0, len = data.length(); i < len; i++) {
+            buffer.write(data.charAt(i));
+        }
+    }
+
+    private static void writeHex(byte[] data, BytesBuffer buffer)
+    {
+        for (byte b : data) {
+            buffer.write(HEX[(b >> 4) & 0x0f]);
+            buffer.write(HEX[b & 0x0f]);
+        }
+    }
+
+    private static void writeText(String data, BytesBuffer buffer)
+    {
+        for (int i = 0, len = data.length(); i < len; ) {
+            int c = data.codePointAt(i);
+            i += Character.charCount(c);
+            switch (c) {
+                case 0x00:
+                    buffer.write('\\');
+                    buffer.write('0');
+                    break;
+                case '\\':
+                    buffer.write('\\');
+                    buffer.write('\\');
+                    break;
+                case '\t':
+                    buffer.write('\\');
+                    buffer.write('t');
+                    break;
+                case '\n':
+                    buffer.write('\\');
+                    buffer.write('n');
+                    break;
+                case '\r':
+                    buffer.write('\\');
+                    buffer.write('r');
+                    break;
+                default:
+                    buffer.writeCodePoint(c);
+                    break;
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.wgzhao.addax.common.spi.Writer;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 import com.wgzhao.addax.rdbms.writer.CommonRdbmsWriter;
+import com.wgzhao.addax.rdbms.writer.util.WriterUtil;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -90,13 +91,13 @@ public class MysqlWriter
             extends Writer.Task
     {
         private Configuration writerSliceConfig;
-        private CommonRdbmsWriter.Task commonRdbmsWriterTask;
+        private LoadWriterTask commonRdbmsWriterTask;
 
         @Override
         public void init()
         {
             this.writerSliceConfig = super.getPluginJobConf();
-            this.commonRdbmsWriterTask = new CommonRdbmsWriter.Task(DATABASE_TYPE)
+            this.commonRdbmsWriterTask = new LoadWriterTask(DATABASE_TYPE)
             {
 
                 @Override
@@ -158,7 +159,7 @@ public class MysqlWriter
         public boolean supportFailOver()
         {
             String writeMode = writerSliceConfig.getString(Key.WRITE_MODE);
-            return "replace".equalsIgnoreCase(writeMode);
+            return writeMode != null && "replace".equalsIgnoreCase(WriterUtil.getBulkLoadFallbackMode(writeMode));
         }
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.mysqlwriter;
+
+import com.wgzhao.addax.common.element.BoolColumn;
+import com.wgzhao.addax.common.element.BytesColumn;
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.DoubleColumn;
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.rdbms.writer.util.BytesBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class TestMysqlLoadEncoder
+{
+    @Test
+    public void testTextEscaping()
+    {
+        MysqlLoadEncoder encoder = new MysqlLoadEncoder(meta(Types.VARCHAR, Types.VARCHAR, Types.VARCHAR), 3);
+        assertEquals("a\\\\b\\tc\\nd\\re\\0f\t\\\\N\t\\N\n",
+                encode(encoder, new StringColumn("a\\b\tc\nd\re\u0000f"), new StringColumn("\\N"), new StringColumn()));
+        assertEquals("中文😀\t\t\n", encode(encoder, new StringColumn("中文😀"), new StringColumn(""), new StringColumn("")));
+    }
+
+    @Test
+    public void testTextRoundTrip()
+    {
+        char[] alphabet = {'a', 'Z', '0', ' ', '\\', '\t', '\n', '\r', '\u0000', 'N', '"', '\'', ',', '中'};
+        Random random = new Random(3306L);
+        MysqlLoadEncoder encoder = new MysqlLoadEncoder(meta(Types.VARCHAR, Types.LONGVARCHAR), 2);
+        for (int i = 0; i < 2000; i++) {
+            String[] values = new String[2];
+            for (int f = 0; f < values.length; f++) {
+                if (random.nextInt(10) == 0) {
+                    continue;
+                }
+                char[] chars = new char[random.nextInt(12)];
+                for (int c = 0; c < chars.length; c++) {
+                    chars[c] = alphabet[random.nextInt(alphabet.length)];
+                }
+                values[f] = new String(chars);
+            }
+            String line = encode(encoder, new StringColumn(values[0]), new StringColumn(values[1]));
+            assertEquals(Arrays.asList(values), parseLine(line), line);
+        }
+    }
+
+    @Test
+    public void testTypedColumns()
+    {
+        MysqlLoadEncoder encoder = new MysqlLoadEncoder(meta(Types.BIGINT, Types.DECIMAL, Types.BIT, Types.BIT, Types.VARBINARY, Types.BOOLEAN), 6);
+        assertEquals("-42\t1000\t1\t5\t00FF5C0A\t0\n",
+                encode(encoder, new LongColumn(-42L), new DoubleColumn("1E+3"), new BoolColumn(true), new StringColumn("101"),
+                        new BytesColumn(new byte[] {0, -1, '\\', '\n'}), new BoolColumn(false)));
+        assertEquals("(c0,c1,@v2,@v3,@v4,c5) SET c2 = CAST(@v2 AS UNSIGNED), c3 = CAST(@v3 AS UNSIGNED), c4 = UNHEX(@v4)",
+                encoder.getColumnClause(Arrays.asList("c0", "c1", "c2", "c3", "c4", "c5")));
+    }
+
+    /*
+     * 按照 LOAD DATA 默认的 FIELDS ESCAPED BY '\\' 规则解析一行，单独的 \N 表示 NULL
+     */
+    private static List<String> parseLine(String line)
+    {
+        assertEquals('\n', line.charAt(line.length() - 1));
+        List<String> fields = new ArrayList<>();
+        for (String raw : line.substring(0, line.length() - 1).split("\t", -1)) {
+            if ("\\N".equals(raw)) {
+                fields.add(null);
+                continue;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c != '\\') {
+                    assertFalse(c == '\n' || c == '\t', "unescaped line or field terminator in " + raw);
+                    sb.append(c);
+                    continue;
+                }
+                char next = raw.charAt(++i);
+                switch (next) {
+                    case '0':
+                        sb.append('\u0000');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(next);
+                        break;
+                }
+            }
+            fields.add(sb.toString());
+        }
+        return fields;
+    }
+
+    private static String encode(MysqlLoadEncoder encoder, Column... columns)
+    {
+        BytesBuffer buffer = new BytesBuffer(64);
+        encoder.encode(record(columns), buffer);
+        return new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8);
+    }
+
+    private static List<Map<String, Object>> meta(int... types)
+    {
+        List<Map<String, Object>> meta = new ArrayList<>();
+        meta.add(null);
+        for (int type : types) {
+            Map<String, Object> column = new HashMap<>();
+            column.put("type", type);
+            column.put("typeName", "");
+            column.put("scale", type == Types.DECIMAL ? 2 : 0);
+            meta.add(column);
+        }
+        return meta;
+    }
+
+    private static Record record(Column... columns)
+    {
+        return new Record()
+        {
+            @Override
+            public void addColumn(Column column)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void setColumn(int i, Column column)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Column getColumn(int i)
+            {
+                return columns[i];
+            }
+
+            @Override
+            public int getColumnNumber()
+            {
+                return columns.length;
+            }
+
+            @Override
+            public int getByteSize()
+            {
+                return 0;
+            }
+
+            @Override
+            public int getMemorySize()
+            {
+                return 0;
+            }
+
+            @Override
+            public void setMeta(Map<String, String> meta)
+            {
+            }
+
+            @Override
+            public Map<String, String> getMeta()
+            {
+                return null;
+            }
+        };
+    }
+}
@@ -28,6 +28,7 @@ import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.rdbms.util.DBUtilErrorCode;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 import com.wgzhao.addax.rdbms.writer.CommonRdbmsWriter;
+import com.wgzhao.addax.rdbms.writer.CopyWriterTask;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -53,10 +54,11 @@ public class PostgresqlWriter
             String writeMode = this.originalConfig.getString(Key.WRITE_MODE);
             if (null != writeMode) {
                 if (!"insert".equalsIgnoreCase(writeMode)
+                        && !"copy".equalsIgnoreCase(writeMode)
                         && !writeMode.startsWith("update")) {
                     throw AddaxException.asAddaxException(
                             DBUtilErrorCode.CONF_ERROR,
-                            String.format("写入模式(writeMode)配置错误. PostgreSQL 仅支持insert, update两种模式." +
+                            String.format("写入模式(writeMode)配置错误. PostgreSQL 仅支持insert, copy, update三种模式." +
                                             " %s 不支持",
                                     writeMode));
                 }
@@ -95,13 +97,13 @@ public class PostgresqlWriter
             extends Writer.Task
     {
         private Configuration writerSliceConfig;
-        private CommonRdbmsWriter.Task commonRdbmsWriterSlave;
+        private CopyWriterTask commonRdbmsWriterSlave;
 
         @Override
         public void init()
         {
             this.writerSliceConfig = getPluginJobConf();
-            this.commonRdbmsWriterSlave = new CommonRdbmsWriter.Task(DATABASE_TYPE)
+            this.commonRdbmsWriterSlave = new CopyWriterTask(DATABASE_TYPE)
             {
                 @Override
                 public String calcValueHolder(String columnType)
@@ -219,6 +219,7 @@ public class StreamWriter
                     Record record;
                     while ((record = recordReceiver.getFromReader()) != null) {
                         writer.write(recordToString(record));
+                        recordReceiver.release(record);
                     }
                     writer.flush();
                 }
@@ -254,6 +255,7 @@ public class StreamWriter
                         Thread.sleep(sleepTime * 1000L);
                     }
                     writer.write(recordToString(record));
+                    recordReceiver.release(record);
                     count++;
                 }
                 writer.flush();